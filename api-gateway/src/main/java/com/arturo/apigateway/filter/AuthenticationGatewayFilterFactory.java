@@ -1,6 +1,7 @@
 package com.arturo.apigateway.filter;
 
 import com.arturo.apigateway.util.JwtUtil;
+import io.jsonwebtoken.Claims;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cloud.gateway.filter.GatewayFilter;
@@ -11,13 +12,18 @@ import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.stereotype.Component;
 import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.UriComponentsBuilder;
 import reactor.core.publisher.Mono;
 
+import java.net.URI;
+
 @Component
 @Slf4j
 public class AuthenticationGatewayFilterFactory
         extends AbstractGatewayFilterFactory<AuthenticationGatewayFilterFactory.Config> {
 
+    private static final String QUERY_TOKEN_PARAM = "access_token";
+
     private final JwtUtil jwtUtil;
 
     public AuthenticationGatewayFilterFactory(JwtUtil jwtUtil) {
@@ -32,6 +38,22 @@ public class AuthenticationGatewayFilterFactory
 
             log.debug("Processing request to: {}", request.getPath());
 
+            // EventSource (SSE) no permite enviar headers: en las rutas que lo habilitan el token
+            // puede llegar como ?access_token= y se quita de la URL antes de reenviarla
+            String queryToken = config.isAllowQueryToken()
+                    ? request.getQueryParams().getFirst(QUERY_TOKEN_PARAM)
+                    : null;
+            if (queryToken != null && !request.getHeaders().containsKey("Authorization")) {
+                URI uri = UriComponentsBuilder.fromUri(request.getURI())
+                        .replaceQueryParam(QUERY_TOKEN_PARAM)
+                        .build(true)
+                        .toUri();
+                request = request.mutate()
+                        .uri(uri)
+                        .header("Authorization", "Bearer " + queryToken)
+                        .build();
+            }
+
             // Verificar si el header Authorization está presente
             if (!request.getHeaders().containsKey("Authorization")) {
                 log.warn("Missing Authorization header");
@@ -48,18 +70,19 @@ public class AuthenticationGatewayFilterFactory
             // Extraer token
             String token = authHeader.substring(7);
 
-            // Validar token
-            if (!jwtUtil.isTokenValid(token)) {
+            // Validar el token y obtener sus claims una sola vez
+            Claims claims = jwtUtil.parseValidClaims(token).orElse(null);
+            if (claims == null) {
                 log.warn("Invalid or expired JWT token");
                 return onError(exchange, "Invalid or expired JWT token", HttpStatus.UNAUTHORIZED);
             }
 
             try {
                 // Extraer información del token
-                Long userId = jwtUtil.extractUserId(token);
-                String username = jwtUtil.extractUsername(token);
-                String email = jwtUtil.extractEmail(token);
-                String role = jwtUtil.extractRole(token);
+                Long userId = claims.get("userId", Long.class);
+                String username = claims.getSubject();
+                String email = claims.get("email", String.class);
+                String role = claims.get("role", String.class);
 
                 log.debug("JWT validated successfully for user: {} (ID: {})", username, userId);
 
@@ -104,6 +127,15 @@ public class AuthenticationGatewayFilterFactory
 
     // Clase de configuración (opcional, pero requerida por AbstractGatewayFilterFactory)
     public static class Config {
-        // Puedes agregar propiedades de configuración aquí si las necesitas
+        // Aceptar el token en ?access_token= cuando no hay header Authorization (streams SSE)
+        private boolean allowQueryToken = false;
+
+        public boolean isAllowQueryToken() {
+            return allowQueryToken;
+        }
+
+        public void setAllowQueryToken(boolean allowQueryToken) {
+            this.allowQueryToken = allowQueryToken;
+        }
     }
 }
\ No newline at end of file
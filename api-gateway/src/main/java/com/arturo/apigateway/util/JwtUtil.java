@@ -1,6 +1,8 @@
 package com.arturo.apigateway.util;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
@@ -8,30 +10,75 @@ import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Component // Indica que esta clase es un componente manejado por Spring (puede ser inyectado con @Autowired)
 public class JwtUtil {
 
-    // Clave secreta usada para firmar y verificar los tokens JWT.
-    // Se obtiene desde el archivo application.yml o application.properties
-    @Value("${jwt.secret}")
-    private String jwtSecret;
+    // Parser con la clave HMAC ya configurada: se crea una sola vez al iniciar (es thread-safe)
+    private final JwtParser parser;
+
+    // Claims ya verificados, por hash SHA-256 del token (no se guardan los tokens en memoria)
+    private final Map<String, CachedClaims> claimsCache = new ConcurrentHashMap<>();
+    private final int cacheMaxSize;
+    private final long cacheMaxTtlMs;
+
+    /*
+      La clave secreta usada para firmar y verificar los tokens JWT se obtiene desde application.yml.
+      jwt.cache.max-size: máximo de tokens en caché; jwt.cache.max-ttl-ms: tiempo máximo que se
+      reutilizan unos claims aunque el token expire más tarde.
+     */
+    public JwtUtil(@Value("${jwt.secret}") String jwtSecret,
+                   @Value("${jwt.cache.max-size:10000}") int cacheMaxSize,
+                   @Value("${jwt.cache.max-ttl-ms:300000}") long cacheMaxTtlMs) {
+        SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parser()
+                .verifyWith(key)
+                .build();
+        this.cacheMaxSize = cacheMaxSize;
+        this.cacheMaxTtlMs = cacheMaxTtlMs;
+    }
 
     /*
       Extrae todos los "claims" (información codificada dentro del token JWT)
       Un JWT se compone de tres partes: header, payload (claims) y firma.
+      Si el token ya fue verificado y sigue vigente, se devuelven los claims de la caché
+      sin volver a verificar la firma.
      */
     public Claims extractAllClaims(String token) {
-        // Se crea una clave HMAC usando la cadena secreta configurada
-        SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        String hash = hash(token);
+        long now = System.currentTimeMillis();
 
-        //  Se crea un parser (analizador) que usa la clave para verificar la firma del token
-        //  el token es válido, devuelve el "payload" (claims) con toda la información
-        return Jwts.parser()
-                .verifyWith(key)
-                .build()
-                .parseSignedClaims(token) // Valida y decodifica el token firmado
-                .getPayload();            // Retorna el cuerpo del token (claims)
+        CachedClaims cached = claimsCache.get(hash);
+        if (cached != null) {
+            if (cached.expiresAt() > now) {
+                return cached.claims();
+            }
+            claimsCache.remove(hash, cached);
+        }
+
+        // Valida la firma y la expiración, y devuelve el cuerpo del token (claims)
+        Claims claims = parser.parseSignedClaims(token).getPayload();
+        cache(hash, claims, now);
+        return claims;
+    }
+
+    /*
+      Verifica el token y devuelve sus claims en una sola operación.
+      Vacío si la firma es incorrecta, el token expiró o no tiene un formato válido.
+     */
+    public Optional<Claims> parseValidClaims(String token) {
+        try {
+            return Optional.of(extractAllClaims(token));
+        } catch (JwtException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
     }
 
     /*
@@ -64,14 +111,43 @@ public class JwtUtil {
 
     /*Verifica si el token es válido.
       Básicamente intenta parsear los claims; si hay algún error (firma incorrecta o token expirado),
-      se lanza una excepción y devuelve false.
+      devuelve false.
      */
     public boolean isTokenValid(String token) {
+        return parseValidClaims(token).isPresent();
+    }
+
+    // Guarda los claims hasta que expire el token (como máximo cacheMaxTtlMs)
+    private void cache(String hash, Claims claims, long now) {
+        long expiresAt = now + cacheMaxTtlMs;
+        Date expiration = claims.getExpiration();
+        if (expiration != null) {
+            expiresAt = Math.min(expiresAt, expiration.getTime());
+        }
+        if (expiresAt <= now) {
+            return;
+        }
+
+        // Caché acotada: al llenarse se eliminan los vencidos; si sigue llena, este token no se guarda
+        if (claimsCache.size() >= cacheMaxSize) {
+            claimsCache.values().removeIf(entry -> entry.expiresAt() <= now);
+            if (claimsCache.size() >= cacheMaxSize) {
+                return;
+            }
+        }
+        claimsCache.put(hash, new CachedClaims(claims, expiresAt));
+    }
+
+    private static String hash(String token) {
         try {
-            extractAllClaims(token); // Si no lanza excepción → el token es válido
-            return true;
-        } catch (Exception e) {
-            return false; // Si hay error → token inválido o expirado
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
         }
     }
-}
\ No newline at end of file
+
+    private record CachedClaims(Claims claims, long expiresAt) {
+    }
+}
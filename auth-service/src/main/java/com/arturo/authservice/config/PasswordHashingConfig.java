@@ -0,0 +1,56 @@
+package com.arturo.authservice.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Configuration //Beans del hashing de contraseñas: encoder BCrypt y pool dedicado
+@Slf4j
+public class PasswordHashingConfig {
+
+    //Costo de BCrypt, fijo para todas las instancias; se elige con BcryptStrengthBenchmark (src/test)
+    //ejecutado en el hardware del despliegue
+    @Value("${auth.bcrypt.strength:12}")
+    private int strength;
+
+    @Value("${auth.hashing.pool-size:0}")
+    private int poolSize; //Hilos de hashing; 0 = uno por núcleo (BCrypt usa CPU al 100%)
+
+    @Value("${auth.hashing.queue-capacity:64}")
+    private int queueCapacity; //Peticiones en espera; al llenarse se responde 503
+
+    @Bean
+    public PasswordEncoder passwordEncoder() {
+        log.info("BCrypt configurado con costo {}", strength);
+        return new BCryptPasswordEncoder(strength);
+        //Usa BCrypt, un algoritmo seguro para encriptar contraseñas.
+        //Los hashes existentes conservan su propio costo y se siguen validando
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public ThreadPoolExecutor passwordHashingExecutor() {
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        //Cola acotada + AbortPolicy: si no hay lugar se rechaza al instante (RejectedExecutionException)
+        return new ThreadPoolExecutor(
+                threads,
+                threads,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+    }
+}
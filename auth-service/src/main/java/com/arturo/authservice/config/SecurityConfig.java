@@ -14,7 +14,7 @@ import org.springframework.security.config.annotation.web.configuration.EnableWe
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -27,6 +27,8 @@ public class SecurityConfig {
 
     private final JwtAuthenticationFilter jwtAuthFilter; //tu filtro personalizado que valida el token JWT en cada request
     private final UserDetailsService userDetailsService; //Serivico que carga los datos del usuario desde la base de datos
+    private final UserDetailsPasswordService userDetailsPasswordService; //Guarda el hash con el costo actual cuando un login usa uno más bajo
+    private final PasswordEncoder passwordEncoder; //BCrypt con el costo configurado en PasswordHashingConfig
 
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception { // Define que rutas estan protegidas que filtros usar y como se manejas las sesiones
@@ -51,19 +53,13 @@ public class SecurityConfig {
     public AuthenticationProvider authenticationProvider() {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService);
-        authProvider.setPasswordEncoder(passwordEncoder());
+        authProvider.setPasswordEncoder(passwordEncoder);
+        authProvider.setUserDetailsPasswordService(userDetailsPasswordService);
         return authProvider;
         //Usa DaoAuthenticationProvider, que carga usuarios de la base de datos, verifica la contraseña cifrada
         //Basicamente le enseña a Spring cómo autenticar usuarios con tu sistema
     }
 
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
-        //Usa BCrypt, un algoritmo seguro para encriptar contraseñas.
-        //Siempre que registre o compare contraseñas Spring usará este encoder
-    }
-
     @Bean
     public AuthenticationManager authenticationManager(AuthenticationConfiguration config) throws Exception {
             return config.getAuthenticationManager();
@@ -0,0 +1,12 @@
+package com.arturo.authservice.exception;
+
+public class ServiceBusyException extends RuntimeException{ //Se lanza cuando no hay capacidad para procesar la petición (503)
+
+    public ServiceBusyException(String message){
+        super(message);
+    }
+
+    public ServiceBusyException(String message, Throwable cause){
+        super(message,cause);
+    }
+}
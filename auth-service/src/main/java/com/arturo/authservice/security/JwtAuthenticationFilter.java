@@ -4,6 +4,7 @@ import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import io.jsonwebtoken.Claims;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -19,7 +20,7 @@ import java.io.IOException;
 @RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter { // OncePerRequestFilter garantiza que el filtro se ejecute solo una vez por petición HTTP, evitando duplicaciones
     private final JwtTokenProvider jwtTokenProvider; //Se usa para validar y extraer datos del token
-    private final UserDetailsServiceImpl userDetailsService; //Se usa para cargar al usuario desde la base de datos cuando es valido
+    private final UserDetailsServiceImpl userDetailsService; //Se usa para cargar al usuario (caché o base de datos) cuando es valido
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -29,13 +30,18 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter { // OncePerRe
                 //Llama a un metodo auxiliar que busca el token JWT en el header "Authorization"
                 String jwt = getJwtFromRequest(request);
                 //Verifica que el token no esté vacio
-                //Confirma que el token no esté expirado ni manipulado
-                //si todo va bien obtiene el nombre de usuario desde el token
-                if(StringUtils.hasText(jwt) && jwtTokenProvider.validateToken(jwt)){
-                    String username = jwtTokenProvider.getUsernameFromToken(jwt);
-                    //Busca en la base de datos los detalles del usuario
+                //Confirma que el token no esté expirado ni manipulado y obtiene sus claims (un solo parseo)
+                Claims claims = StringUtils.hasText(jwt) ? jwtTokenProvider.parseClaims(jwt).orElse(null) : null;
+                if(claims != null){
+                    String username = claims.getSubject();
+                    //Busca los detalles del usuario (caché de corta duración, si no en la base de datos)
                     //Devuelve un objeto de UserDetailsImpl
-                    UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+                    UserDetails userDetails = userDetailsService.loadCachedUserByUsername(username);
+                    //Un usuario deshabilitado no se autentica aunque su token siga vigente
+                    if (!userDetails.isEnabled()) {
+                        filterChain.doFilter(request, response);
+                        return;
+                    }
                     //Crea un objeto de autenticación
                     //No incluye la contraseña "null" porque ya se valido con el token
                     //Incluye las autoridades (roles/permisos) del usuario
@@ -2,6 +2,7 @@ package com.arturo.authservice.security;
 
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
@@ -12,16 +13,26 @@ import org.springframework.stereotype.Component;
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
 import java.util.Date;
+import java.util.Optional;
 
 @Component //Permite inyectar JwtTokenProvider donde se necesite
 public class JwtTokenProvider {
 
     //Estos valores se leen del archivo application.propeties o application.yml
-    @Value("${jwt.secret}")
-    private String jwtSecret;
+    private final long jwtExpiration;
 
-    @Value("${jwt.expiration}")
-    private long jwtExpiration;
+    //La clave y el parser se crean una sola vez (ambos son inmutables y thread-safe)
+    private final SecretKey key;
+    private final JwtParser parser;
+
+    public JwtTokenProvider(@Value("${jwt.secret}") String jwtSecret,
+                            @Value("${jwt.expiration}") long jwtExpiration) {
+        this.jwtExpiration = jwtExpiration;
+        this.key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parser()
+                .verifyWith(key) //Configura verificación con tu clave
+                .build();
+    }
 
     public String generateToken(Authentication authentication) { //Construye y firma el token para el usuario autenticado
 
@@ -31,9 +42,6 @@ public class JwtTokenProvider {
         Date now = new Date();
         //Expira en
         Date expiryDate = new Date(now.getTime() + jwtExpiration);
-        //Crea una SecretKey apartir del jwtSecret
-        SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
-
         //Construcción del JWT
         return Jwts.builder()
                 .subject(userPrincipal.getUsername()) //el username
@@ -46,44 +54,31 @@ public class JwtTokenProvider {
                 .compact(); // devuelve el String header.payload.signature
     }
 
-    public String getUsernameFromToken(String token) {
-        //Clave
-        SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+    //Verifica firma, fechas y formato, y devuelve los claims en una sola pasada
+    //Vacío si el token es inválido, expiró, está mal formado o la firma es incorrecta
+    public Optional<Claims> parseClaims(String token) {
+        try {
+            return Optional.of(parser.parseSignedClaims(token).getPayload());
+        } catch (JwtException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
 
-        Claims claims = Jwts.parser()
-                .verifyWith(key) //Configura verificación con tu clave
-                .build()
-                .parseSignedClaims(token) // verifica firma y parsea
+    public String getUsernameFromToken(String token) {
+        Claims claims = parser.parseSignedClaims(token) // verifica firma y parsea
                 .getPayload(); //obtiene los claims
 
         return claims.getSubject(); //Devuelve el username guardado como sub
     }
 
     public Long getUserIdFromToken(String token) {
-        SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
-
-        Claims claims = Jwts.parser()
-                .verifyWith(key)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        Claims claims = parser.parseSignedClaims(token).getPayload();
 
         return claims.get("userId", Long.class); //Extrae el claim personalizado userID como Long
     }
 
     public boolean validateToken(String token) {
-        try {
-            SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
-
-            Jwts.parser()
-                    .verifyWith(key)
-                    .build()
-                    .parseSignedClaims(token); // Si firma/fechas/formato son correctos, no lanza excepción
-
-            return true;
-        } catch (JwtException | IllegalArgumentException e) {
-            return false; //token inválido, expiro, mal formado o firma incorrecta
-        }
+        return parseClaims(token).isPresent();
     }
             //Devuelve true si el token pasa firma + fechas + formato.
             //Devuelve false si ocurre cualquier problema típico de JWT.
@@ -0,0 +1,74 @@
+package com.arturo.authservice.security;
+
+import com.arturo.authservice.exception.ServiceBusyException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/*
+  Ejecuta el trabajo de BCrypt (encode, matches y la autenticación del login) en un pool acotado.
+  Con muchas peticiones a la vez, como los inicios de sesión a principio de mes, los hilos de Tomcat
+  no quedan todos ocupados calculando hashes: cuando la cola del pool está llena se responde 503
+  de inmediato en lugar de acumular peticiones hasta que expiren.
+ */
+@Component
+@Slf4j
+public class PasswordHashingService {
+
+    private final ThreadPoolExecutor executor;
+    private final PasswordEncoder passwordEncoder;
+    private final long timeoutMs;
+
+    public PasswordHashingService(@Qualifier("passwordHashingExecutor") ThreadPoolExecutor executor,
+                                  PasswordEncoder passwordEncoder,
+                                  @Value("${auth.hashing.timeout-ms:5000}") long timeoutMs) {
+        this.executor = executor;
+        this.passwordEncoder = passwordEncoder;
+        this.timeoutMs = timeoutMs;
+    }
+
+    public String encode(String rawPassword) {
+        return execute(() -> passwordEncoder.encode(rawPassword));
+    }
+
+    public boolean matches(String rawPassword, String encodedPassword) {
+        return execute(() -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    //Ejecuta la tarea en el pool y espera su resultado; las excepciones de la tarea se relanzan tal cual
+    public <T> T execute(Supplier<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task::get);
+        } catch (RejectedExecutionException ex) {
+            log.warn("Pool de hashing saturado ({} en cola)", executor.getQueue().size());
+            throw new ServiceBusyException("El servicio está ocupado, intente nuevamente en unos segundos.", ex);
+        }
+
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            future.cancel(true);
+            throw new ServiceBusyException("El servicio está ocupado, intente nuevamente en unos segundos.", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new ServiceBusyException("La petición fue interrumpida.", ex);
+        }
+    }
+}
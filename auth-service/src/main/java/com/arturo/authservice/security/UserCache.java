@@ -0,0 +1,66 @@
+package com.arturo.authservice.security;
+
+import com.arturo.authservice.entity.User;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component //Caché en memoria de usuarios por username, con un tiempo de vida corto
+public class UserCache {
+
+    //username -> usuario leído de la BD y momento en que deja de ser válido
+    private final Map<String, CachedUser> users = new ConcurrentHashMap<>();
+
+    @Value("${auth.user-cache.ttl-ms:60000}")
+    private long ttlMs; //Tiempo máximo que se reutiliza un usuario sin volver a la BD
+
+    @Value("${auth.user-cache.max-size:10000}")
+    private int maxSize; //Máximo de usuarios en memoria
+
+    //Devuelve el usuario si está en caché y no ha vencido
+    public Optional<User> get(String username) {
+        CachedUser cached = users.get(username);
+        if (cached == null) {
+            return Optional.empty();
+        }
+        if (cached.expiresAt() <= System.currentTimeMillis()) {
+            users.remove(username, cached);
+            return Optional.empty();
+        }
+        return Optional.of(cached.user());
+    }
+
+    //Guarda el usuario; si la caché está llena primero elimina los vencidos y, si sigue llena, no lo guarda
+    public void put(User user) {
+        long now = System.currentTimeMillis();
+        if (users.size() >= maxSize) {
+            users.values().removeIf(cached -> cached.expiresAt() <= now);
+            if (users.size() >= maxSize) {
+                return;
+            }
+        }
+        users.put(user.getUsername(), new CachedUser(user, now + ttlMs));
+    }
+
+    //Elimina el usuario ahora y otra vez cuando la transacción actual confirme los cambios,
+    //así una lectura concurrente no vuelve a guardar los datos anteriores a la actualización
+    public void evict(String username) {
+        users.remove(username);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    users.remove(username);
+                }
+            });
+        }
+    }
+
+    private record CachedUser(User user, long expiresAt) {
+    }
+}
@@ -2,28 +2,50 @@ package com.arturo.authservice.security;
 
 import com.arturo.authservice.entity.User;
 import com.arturo.authservice.repository.UserRepository;
-import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
 @Service //Indica que esta clase es un servicio de negocio
 @RequiredArgsConstructor // Genera un constructor automatico para los campos final
-public class UserDetailsServiceImpl implements UserDetailsService { //Define el contrato que usa el sistema de seguridad para buscar usuarios en tu base de datos
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService { //Define el contrato que usa el sistema de seguridad para buscar usuarios en tu base de datos
 
     private final UserRepository userRepository; //Acceso a la tabla users de la BD
+    private final UserCache userCache; //Evita consultar la BD en cada petición autenticada
 
+    //Lo usa DaoAuthenticationProvider en el login: siempre lee la BD, así una contraseña cambiada en otra
+    //instancia se aplica aunque esta tenga el usuario en caché
     @Override
-    @Transactional //
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException{
         User user = userRepository.findByUsername(username) //Usa el UserRepository para devolver un User, si el usuario no existe lanza una excepción
                 .orElseThrow(() ->
                         new UsernameNotFoundException("Usuario no encontrado con el nombre de usuario: " +  username));
-
+        userCache.put(user);
         return UserDetailsImpl.build(user);
         //Convierte tu entidad User en un objeto de tipo UserDetailsImpl, que ela implementación personalizada de la interfaz UserDetails
         //Spring puede comprar la contraseña del token de login con la guardada en BD y autorizar acceso
     }
+
+    //Lo usa el filtro JWT en cada petición autenticada: el token ya está validado, así que basta con
+    //la caché de corta duración; si no está o venció, se lee la BD
+    public UserDetails loadCachedUserByUsername(String username) throws UsernameNotFoundException {
+        return userCache.get(username)
+                .map(UserDetailsImpl::build)
+                .orElseGet(() -> loadUserByUsername(username));
+    }
+
+    //Spring lo llama tras un login correcto cuando el hash guardado tiene un costo de BCrypt menor al configurado
+    @Override
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        User user = userRepository.findByUsername(userDetails.getUsername())
+                .orElseThrow(() ->
+                        new UsernameNotFoundException("Usuario no encontrado con el nombre de usuario: " + userDetails.getUsername()));
+        user.setPassword(newPassword);
+        userRepository.save(user);
+        userCache.evict(user.getUsername());
+        return UserDetailsImpl.build(user);
+    }
 }
@@ -12,6 +12,9 @@ import com.arturo.authservice.exception.BadRequestException;
 import com.arturo.authservice.exception.ResourceNotFoundException;
 import com.arturo.authservice.repository.UserRepository;
 import com.arturo.authservice.security.JwtTokenProvider;
+import com.arturo.authservice.security.PasswordHashingService;
+import com.arturo.authservice.security.UserCache;
+import com.arturo.authservice.security.UserDetailsImpl;
 import com.arturo.authservice.service.AuthService;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
@@ -20,7 +23,7 @@ import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 @Service //Marca la clase como servicio de negocio, gestionado por Spring
@@ -29,9 +32,10 @@ import org.springframework.stereotype.Service;
 public class AuthServiceImpl implements AuthService {
 
     private final UserRepository userRepository; //Accede a la base de datos para consultar o guardar usuarios
-    private final PasswordEncoder passwordEncoder; //Cifra contraseñas(usa BCrypt)
+    private final PasswordHashingService passwordHashingService; //Cifra y compara contraseñas (BCrypt) en un pool acotado
     private final AuthenticationManager authenticationManager; //Autentica usuarios(verifica credenciales)
     private final JwtTokenProvider jwtTokenProvider; //Genera y valida tokens JWT
+    private final UserCache userCache; //Usuarios en memoria; se invalida al cambiar sus datos
 
     @Override
     public AuthResponse register(RegisterRequest request) {
@@ -51,7 +55,7 @@ public class AuthServiceImpl implements AuthService {
         User user = new User();
         user.setUsername(request.getUsername());
         user.setEmail(request.getEmail());
-        user.setPassword(passwordEncoder.encode(request.getPassword()));
+        user.setPassword(passwordHashingService.encode(request.getPassword()));
         user.setFirstName(request.getFirstName());
         user.setLastName(request.getLastName());
         user.setRole(Role.USER);
@@ -62,12 +66,13 @@ public class AuthServiceImpl implements AuthService {
 
         log.info("Usuario registrado exitosamente: {}", savedUser.getId());
 
-        //Autentica al usuario recién creado para emitir su JWT
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(
-                        request.getUsername(),
-                        request.getPassword()
-                )
+        //La contraseña se acaba de cifrar: se emite el JWT con el usuario guardado,
+        //sin volver a autenticar (eso costaría una segunda ronda de BCrypt)
+        UserDetails principal = UserDetailsImpl.build(savedUser);
+        Authentication authentication = new UsernamePasswordAuthenticationToken(
+                principal,
+                null,
+                principal.getAuthorities()
         );
         //Crea el token con JWTTokenProvider
         SecurityContextHolder.getContext().setAuthentication(authentication);
@@ -85,16 +90,19 @@ public class AuthServiceImpl implements AuthService {
         );
     }
     //Registro:
-    //-> valida -> guarda usuario -> autentica -> genera JWT -> responde con token
+    //-> valida -> guarda usuario -> genera JWT -> responde con token
     @Override
     public AuthResponse login(LoginRequest request) {
         log.info("Usuario intentando iniciar sesión: {}", request.getUsername());
 
         //Spring valida el usuario y la contraseña(si fallan,lanza BadCredentialsException)
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(
-                        request.getUsername(),
-                        request.getPassword()
+        //La comparación BCrypt se ejecuta en el pool de hashing (503 si está saturado)
+        Authentication authentication = passwordHashingService.execute(() ->
+                authenticationManager.authenticate(
+                        new UsernamePasswordAuthenticationToken(
+                                request.getUsername(),
+                                request.getPassword()
+                        )
                 )
         );
         //Guarda autenticación
@@ -125,13 +133,17 @@ public class AuthServiceImpl implements AuthService {
     @Override
     public UserDTO getCurrentUser(String username) {
         log.info("Obtener información de usuario actual: {}", username);
-        //Buscar el usuario en BD
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new ResourceNotFoundException("Usuario no encontrado"));
+        //Buscar el usuario en la caché (ya cargado por el filtro JWT) o en BD
+        User user = userCache.get(username).orElseGet(() -> {
+            User found = userRepository.findByUsername(username)
+                    .orElseThrow(() -> new ResourceNotFoundException("Usuario no encontrado"));
+            userCache.put(found);
+            return found;
+        });
         return mapToUserDTO(user);
     }
     //Get user
-    //-> busca en BD -> devuelve DTO sin contraseña
+    //-> busca en caché o BD -> devuelve DTO sin contraseña
 
     @Override
     @Transactional
@@ -145,6 +157,7 @@ public class AuthServiceImpl implements AuthService {
         user.setLastName(request.getLastName());
 
         User updatedUser = userRepository.save(user);
+        userCache.evict(updatedUser.getUsername());
         log.info("Perfil actualizado con éxito para la usuario: {}", userId);
 
         return mapToUserDTO(updatedUser);
@@ -159,12 +172,13 @@ public class AuthServiceImpl implements AuthService {
                 .orElseThrow(() -> new ResourceNotFoundException("Usuario no encontrado"));
 
         // Verificar contraseña actual
-        if (!passwordEncoder.matches(request.getCurrentPassword(), user.getPassword())) {
+        if (!passwordHashingService.matches(request.getCurrentPassword(), user.getPassword())) {
             throw new BadRequestException("La contraseña actual es incorrecta");
         }
         // Actualizar contraseña
-        user.setPassword(passwordEncoder.encode(request.getNewPassword()));
+        user.setPassword(passwordHashingService.encode(request.getNewPassword()));
         userRepository.save(user);
+        userCache.evict(user.getUsername());
         log.info("Contraseña cambiada exitosamente para el usuario: {}", userId);
     }
 
@@ -0,0 +1,55 @@
+package com.arturo.authservice.config;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+//Benchmark fuera de línea para elegir auth.bcrypt.strength: no se ejecuta con el resto de los tests
+//Uso, en el hardware del despliegue:
+//  ./mvnw test -Dtest=BcryptStrengthBenchmark -Dbcrypt.benchmark=true [-Dbcrypt.target-ms=250]
+//Imprime el tiempo por hash de cada costo y el mayor costo que no supera el objetivo
+@EnabledIfSystemProperty(named = "bcrypt.benchmark", matches = "true")
+class BcryptStrengthBenchmark {
+
+    private static final int SAMPLES = 9;   //Mediana de varias mediciones por costo
+    private static final int WARMUP = 3;    //Hashes descartados antes de medir (JIT)
+
+    @Test
+    void recommendStrength() {
+        long targetMs = Long.getLong("bcrypt.target-ms", 250L);
+        int chosen = 10; //Mínimo: valor por defecto de Spring, aunque el hardware sea más lento que el objetivo
+
+        warmUp();
+        for (int cost = 10; cost <= 16; cost++) {
+            long millis = medianHashMillis(cost);
+            System.out.printf("BCrypt costo %d: %d ms por hash%n", cost, millis);
+            if (millis > targetMs) {
+                break;
+            }
+            chosen = cost;
+        }
+        System.out.printf("auth.bcrypt.strength recomendado para %d ms: %d%n", targetMs, chosen);
+    }
+
+    private void warmUp() {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(10);
+        for (int i = 0; i < WARMUP; i++) {
+            encoder.encode("benchmark-bcrypt");
+        }
+    }
+
+    private long medianHashMillis(int cost) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(cost);
+        long[] samples = new long[SAMPLES];
+        for (int i = 0; i < samples.length; i++) {
+            long start = System.nanoTime();
+            encoder.encode("benchmark-bcrypt");
+            samples[i] = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        }
+        Arrays.sort(samples);
+        return samples[SAMPLES / 2];
+    }
+}
@@ -0,0 +1,67 @@
+package com.arturo.authservice.security;
+
+import com.arturo.authservice.entity.User;
+import com.arturo.authservice.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+//El login lee siempre la BD; el filtro JWT reutiliza la caché
+class UserDetailsServiceImplTest {
+
+    private UserRepository userRepository;
+    private UserCache userCache;
+    private UserDetailsServiceImpl userDetailsService;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        userCache = new UserCache();
+        ReflectionTestUtils.setField(userCache, "ttlMs", 60_000L);
+        ReflectionTestUtils.setField(userCache, "maxSize", 10);
+        userDetailsService = new UserDetailsServiceImpl(userRepository, userCache);
+    }
+
+    @Test
+    void loginIgnoresCachedPassword() {
+        userCache.put(user("hash-antiguo"));
+        when(userRepository.findByUsername("ana")).thenReturn(Optional.of(user("hash-nuevo")));
+
+        assertThat(userDetailsService.loadUserByUsername("ana").getPassword()).isEqualTo("hash-nuevo");
+        //El login deja la caché con el valor recién leído
+        assertThat(userCache.get("ana")).get().extracting(User::getPassword).isEqualTo("hash-nuevo");
+    }
+
+    @Test
+    void tokenRequestsUseCache() {
+        userCache.put(user("hash"));
+
+        assertThat(userDetailsService.loadCachedUserByUsername("ana").getPassword()).isEqualTo("hash");
+        verify(userRepository, never()).findByUsername("ana");
+    }
+
+    @Test
+    void tokenRequestsFallBackToDatabase() {
+        when(userRepository.findByUsername("ana")).thenReturn(Optional.of(user("hash")));
+
+        assertThat(userDetailsService.loadCachedUserByUsername("ana").getUsername()).isEqualTo("ana");
+        assertThat(userCache.get("ana")).isPresent();
+    }
+
+    private User user(String password) {
+        User user = new User();
+        user.setId(1L);
+        user.setUsername("ana");
+        user.setEmail("ana@example.com");
+        user.setPassword(password);
+        return user;
+    }
+}
@@ -1,13 +1,20 @@
 package com.arturo.budgetservice.client;
 
+import com.arturo.budgetservice.dto.SpentEventDTO;
+import com.arturo.budgetservice.dto.SpentSnapshotDTO;
+import com.arturo.budgetservice.dto.request.SpentAmountRequest;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.List;
 
 
 @FeignClient(name = "transaction-service") // Cliente Feign: invoca al servicio registrado como "transaction-service" (Eureka o spring.application.name del remoto)
@@ -20,4 +27,21 @@ public interface TransactionClient {
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate, // Query param obligatorio: formateado como YYYY-MM-DD
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate    // Query param obligatorio: formateado como YYYY-MM-DD
     );
-}
\ No newline at end of file
+
+    @PostMapping("/internal/spent/snapshot") // Gasto de varias consultas y el último evento del outbox incluido en él
+    SpentSnapshotDTO getSpentSnapshot(
+            @RequestHeader("X-User-Id") Long userId,         // Usuario dueño de todas las consultas
+            @RequestBody List<SpentAmountRequest> requests   // (categoría, inicio, fin); la respuesta respeta este orden
+    );
+
+    @GetMapping("/internal/spent/events") // Cambios de gasto posteriores a un id, en orden
+    List<SpentEventDTO> getSpentEvents(
+            @RequestParam Long afterId, // Último evento ya aplicado
+            @RequestParam int limit     // Máximo de eventos por llamada
+    );
+
+    @PutMapping("/internal/spent/events/acknowledged") // Id hasta el que budget-service ya no relee eventos
+    void acknowledgeSpentEvents(
+            @RequestParam Long upToId   // transaction-service solo purga eventos con id menor o igual
+    );
+}
@@ -0,0 +1,46 @@
+package com.arturo.budgetservice.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class BudgetExecutorConfig {
+
+    // Pool acotado para las consultas de gasto a transaction-service que se ejecutan en paralelo
+    @Bean(name = "budgetExecutor")
+    public ThreadPoolTaskExecutor budgetExecutor(
+            @Value("${budget.executor.pool-size:8}") int poolSize,
+            @Value("${budget.executor.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("budget-exec-");
+        // Si la cola se llena, la consulta se rechaza al instante y SpentLookupEngine responde 504: ejecutarla en
+        // el hilo de la petición la dejaría fuera del plazo (la espera empieza después de enviar todas)
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.initialize();
+        return executor;
+    }
+
+    // Hilos del escaneo de umbrales: cada uno procesa una partición (0 = uno por núcleo)
+    // Las demás particiones esperan en la cola hasta que se libere un hilo
+    @Bean(name = "scanExecutor")
+    public ThreadPoolTaskExecutor scanExecutor(
+            @Value("${budget.threshold-scan.parallelism:0}") int parallelism) {
+        int poolSize = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(Integer.MAX_VALUE);
+        executor.setThreadNamePrefix("budget-scan-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.initialize();
+        return executor;
+    }
+}
@@ -2,11 +2,18 @@ package com.arturo.budgetservice.controller;
 
 import com.arturo.budgetservice.dto.response.BudgetAlertDTO;
 import com.arturo.budgetservice.dto.response.MessageResponse;
+import com.arturo.budgetservice.service.AlertStreamService;
 import com.arturo.budgetservice.service.BudgetAlertService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 
@@ -18,6 +25,7 @@ public class BudgetAlertController {
 
     // Servicio que maneja la lógica de negocio relacionada con las alertas de presupuesto
     private final BudgetAlertService budgetAlertService;
+    private final AlertStreamService alertStreamService; // Conexiones SSE de alertas en tiempo real
 
     // Obtener todas las alertas de un usuario (leídas y no leídas)
     @GetMapping // GET /alerts
@@ -44,6 +52,30 @@ public class BudgetAlertController {
         return ResponseEntity.ok(alerts);
     }
 
+    // Obtener las alertas del usuario por páginas
+    @GetMapping("/page") // GET /alerts/page?page=0&size=20
+    public ResponseEntity<Page<BudgetAlertDTO>> getAlertsPage(
+            @RequestHeader("X-User-Id") Long userId,
+            @RequestParam(defaultValue = "0") int page,   // Página actual
+            @RequestParam(defaultValue = "20") int size) { // Tamaño de página
+        log.info("Obteniendo la página {} de alertas para el usuario: {}", page, userId);
+
+        Page<BudgetAlertDTO> alerts = budgetAlertService.getAlertsPage(userId, newestFirst(page, size));
+        return ResponseEntity.ok(alerts);
+    }
+
+    // Obtener las alertas no leídas por páginas
+    @GetMapping("/unread/page") // GET /alerts/unread/page?page=0&size=20
+    public ResponseEntity<Page<BudgetAlertDTO>> getUnreadAlertsPage(
+            @RequestHeader("X-User-Id") Long userId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        log.info("Obteniendo la página {} de alertas no leídas para el usuario: {}", page, userId);
+
+        Page<BudgetAlertDTO> alerts = budgetAlertService.getUnreadAlertsPage(userId, newestFirst(page, size));
+        return ResponseEntity.ok(alerts);
+    }
+
     // Obtener la cantidad de alertas no leídas
     @GetMapping("/unread/count") // GET /alerts/unread/count
     public ResponseEntity<Long> getUnreadAlertsCount(
@@ -57,6 +89,17 @@ public class BudgetAlertController {
         return ResponseEntity.ok(count);
     }
 
+    // Stream de alertas en tiempo real (Server-Sent Events) en lugar de consultar el conteo periódicamente
+    // Eventos: "alert" (alerta nueva, con su id) y "unread-count" (conteo de no leídas al conectarse)
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE) // GET /alerts/stream
+    public SseEmitter streamAlerts(
+            @RequestHeader("X-User-Id") Long userId,
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) { // Lo envía el navegador al reconectarse
+        log.info("Abriendo stream de alertas para el usuario: {}", userId);
+
+        return alertStreamService.subscribe(userId, lastEventId);
+    }
+
     // Marcar una alerta específica como leída
     @PutMapping("/{id}/read") // PUT /alerts/{id}/read
     public ResponseEntity<MessageResponse> markAlertAsRead(
@@ -82,4 +125,9 @@ public class BudgetAlertController {
 
         return ResponseEntity.ok(new MessageResponse("Todas las alertas fueron marcadas como leídas."));
     }
+
+    // Paginación con las alertas más recientes primero (id como desempate para un orden estable)
+    private Pageable newestFirst(int page, int size) {
+        return PageRequest.of(page, size, Sort.by("alertDate").descending().and(Sort.by("id").descending()));
+    }
 }
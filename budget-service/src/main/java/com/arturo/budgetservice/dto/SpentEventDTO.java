@@ -0,0 +1,18 @@
+package com.arturo.budgetservice.dto;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class SpentEventDTO {
+    private Long id;
+    private Long userId;
+    private Long categoryId;
+    private LocalDate transactionDate;
+    private BigDecimal amountDelta;
+}
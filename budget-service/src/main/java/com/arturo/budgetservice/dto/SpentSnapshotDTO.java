@@ -0,0 +1,17 @@
+package com.arturo.budgetservice.dto;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class SpentSnapshotDTO {
+    private Long lastEventId;            // Último evento del outbox visible al calcular los montos
+    private Long settledEventId;         // Todos los eventos con id <= settledEventId están incluidos
+    private List<Long> includedEventIds; // Eventos del usuario en (settledEventId, lastEventId] incluidos
+    private List<BigDecimal> amounts; // Mismo orden que las consultas enviadas
+}
@@ -35,4 +35,10 @@ public class BudgetRequest {
     @DecimalMin(value = "0", message = "El umbral de alerta debe ser positivo")
     @DecimalMax(value = "100", message = "El umbral de alerta debe ser menor que 100")
     private BigDecimal alertThreshold;
+
+    //Renovar automáticamente al vencer (por defecto no)
+    private Boolean autoRenew;
+
+    //Sumar lo no gastado al período siguiente al renovarse (por defecto no)
+    private Boolean carryOver;
 }
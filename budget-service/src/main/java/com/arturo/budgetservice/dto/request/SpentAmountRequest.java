@@ -0,0 +1,16 @@
+package com.arturo.budgetservice.dto.request;
+
+import lombok.*;
+
+import java.time.LocalDate;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class SpentAmountRequest {
+
+    private Long categoryId;     // null = gasto total sin filtrar por categoría
+    private LocalDate startDate;
+    private LocalDate endDate;
+}
@@ -29,6 +29,10 @@ public class BudgetResponse {
     private BudgetStatus status;
     private BigDecimal alertThreshold;
     private Boolean isActive;
+    private Boolean autoRenew;
+    private Boolean carryOver;
+    private BigDecimal carriedOver;
+    private Long previousBudgetId;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 }
\ No newline at end of file
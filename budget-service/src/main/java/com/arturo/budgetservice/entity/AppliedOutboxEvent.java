@@ -0,0 +1,25 @@
+package com.arturo.budgetservice.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+//Evento del outbox ya aplicado, dentro de la ventana que el poller vuelve a leer bajo el cursor
+//(los ids menores que el cursor - overlap se eliminan)
+@Entity
+@Table(name = "applied_outbox_events")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AppliedOutboxEvent {
+
+    @Id
+    @Column(name = "event_id")
+    private Long eventId;
+
+    @Column(name = "applied_at", nullable = false)
+    private LocalDateTime appliedAt;
+}
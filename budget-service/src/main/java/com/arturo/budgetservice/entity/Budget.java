@@ -15,7 +15,12 @@ import java.time.LocalDateTime;
     //Crea índices en columnas usadas frecuentemente en búsquedas, como user_id, start_date, end_date, o is_active.
     @Index(name = "idx_user_id", columnList = "user_id"),
     @Index(name = "idx_dates", columnList = "start_date, end_date"),
-    @Index(name = "idx_active", columnList = "is_active")
+    @Index(name = "idx_active", columnList = "is_active"),
+    //Presupuestos vencidos pendientes de renovar, en el orden en que los recorre la renovación
+    @Index(name = "idx_active_renew_end", columnList = "is_active, auto_renew, end_date, id")
+}, uniqueConstraints = {
+    //Cada presupuesto se renueva una sola vez (la renovación puede reintentarse sin duplicar)
+    @UniqueConstraint(name = "uk_previous_budget", columnNames = "previous_budget_id")
 })
 @Data
 @NoArgsConstructor
@@ -57,6 +62,42 @@ public class Budget {
     
     @Column(name = "is_active")
     private Boolean isActive = true;
+
+    //Al vencer se crea el presupuesto del período siguiente (y este deja de estar activo)
+    @Column(name = "auto_renew")
+    private Boolean autoRenew = false;
+
+    //Al renovarse, lo no gastado se suma al monto del período siguiente
+    @Column(name = "carry_over")
+    private Boolean carryOver = false;
+
+    //Parte del monto que viene del período anterior (el monto base es amount - carriedOver)
+    @Column(name = "carried_over", precision = 10, scale = 2)
+    private BigDecimal carriedOver;
+
+    //Presupuesto vencido del que se creó este por renovación
+    @Column(name = "previous_budget_id")
+    private Long previousBudgetId;
+
+    //Inicio del primer período de la cadena de renovaciones: cada período se calcula desde aquí
+    //(anchor + n meses), así los fines de mes no se corren (null = start_date)
+    @Column(name = "period_anchor")
+    private LocalDate periodAnchor;
+
+    //Gasto acumulado del presupuesto, mantenido con los eventos del outbox de transaction-service
+    //null = todavía no calculado (presupuesto nuevo o recién editado)
+    @Column(precision = 12, scale = 2)
+    private BigDecimal spent;
+
+    //Todos los eventos del outbox con id <= spentEventId están incluidos en 'spent'; por encima, el poller aplica cada evento nuevo
+    @Column(name = "spent_event_id")
+    private Long spentEventId;
+
+    //Nivel de la última alerta creada en este período (0 = ninguna, AlertType.level()): solo se crea otra al
+    //cruzar un umbral nuevo, no al leer la anterior. Se modifica solo con las consultas de BudgetRepository
+    //(updatable = false), así guardar la entidad no pisa el nivel que registró el motor de alertas
+    @Column(name = "alerted_level", updatable = false)
+    private Integer alertedLevel = 0;
     
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
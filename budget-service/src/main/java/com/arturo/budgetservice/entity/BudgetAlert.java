@@ -14,7 +14,12 @@ import java.time.LocalDateTime;
         //Agrega índices en user_id (para buscar alertas por usuario)
         // y en is_read (para filtrar alertas leídas/no leídas rápidamente).
     @Index(name = "idx_user_id", columnList = "user_id"),
-    @Index(name = "idx_is_read", columnList = "is_read")
+    @Index(name = "idx_is_read", columnList = "is_read"),
+    //Listado de alertas de un usuario (todas o no leídas) ordenado por fecha
+    @Index(name = "idx_user_read_date", columnList = "user_id, is_read, alert_date")
+}, uniqueConstraints = {
+    //Una sola alerta no leída por presupuesto y tipo: el motor de alertas inserta sin consultar antes
+    @UniqueConstraint(name = "uk_budget_type_unread", columnNames = {"budget_id", "type", "unread_marker"})
 })
 @Data
 @NoArgsConstructor
@@ -47,11 +52,26 @@ public class BudgetAlert {
     
     @Column(length = 500)
     private String message;
+
+    //TRUE mientras la alerta no se lee y NULL después; MySQL admite varios NULL en un índice único,
+    //así que uk_budget_type_unread solo impide repetir alertas no leídas
+    @Column(name = "unread_marker")
+    private Boolean unreadMarker;
     
     @PrePersist
     protected void onCreate() {
         if (alertDate == null) {
             alertDate = LocalDateTime.now();
         }
+        syncUnreadMarker();
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        syncUnreadMarker();
+    }
+
+    private void syncUnreadMarker() {
+        unreadMarker = Boolean.TRUE.equals(isRead) ? null : Boolean.TRUE;
     }
 }
\ No newline at end of file
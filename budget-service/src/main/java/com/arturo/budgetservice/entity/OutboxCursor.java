@@ -0,0 +1,34 @@
+package com.arturo.budgetservice.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+//Posición de lectura del outbox de transaction-service (mayor id de evento aplicado a los presupuestos;
+//los ids cercanos por debajo se releen y se filtran con applied_outbox_events)
+@Entity
+@Table(name = "outbox_cursors")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxCursor {
+
+    @Id
+    @Column(length = 50)
+    private String name;
+
+    @Column(name = "last_event_id", nullable = false)
+    private Long lastEventId = 0L;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,50 @@
+package com.arturo.budgetservice.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+//Avance de una partición (rango de ids) de un escaneo masivo de presupuestos
+//Se guarda después de cada bloque: tras un reinicio el escaneo sigue desde aquí
+@Entity
+@Table(name = "scan_checkpoints")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScanCheckpoint {
+
+    //"<escaneo>:<partición>"; la fila "<escaneo>" sin partición se usa como bloqueo para crear una ejecución
+    @Id
+    @Column(length = 50)
+    private String name;
+
+    //Último id procesado (la partición empieza en el siguiente)
+    @Column(name = "last_id", nullable = false)
+    private Long lastId = 0L;
+
+    //Último id de la partición (inclusive)
+    @Column(name = "upper_id", nullable = false)
+    private Long upperId = 0L;
+
+    @Column(nullable = false)
+    private Boolean completed = false;
+
+    //Instancia que procesa la partición y hasta cuándo la tiene reservada
+    @Column(length = 64)
+    private String owner;
+
+    @Column(name = "lease_until")
+    private LocalDateTime leaseUntil;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
@@ -2,5 +2,10 @@ package com.arturo.budgetservice.enums;
 
 public enum AlertType {
     WARNING,
-    EXCEEDED
+    EXCEEDED;
+
+    //Nivel de gravedad guardado en Budget.alertedLevel (0 = sin alerta)
+    public int level() {
+        return ordinal() + 1;
+    }
 }
\ No newline at end of file
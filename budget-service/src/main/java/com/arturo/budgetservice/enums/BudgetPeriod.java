@@ -1,7 +1,24 @@
 package com.arturo.budgetservice.enums;
 
+import java.time.LocalDate;
+
 public enum BudgetPeriod {
     MENSUAL,
     TRIMESTRAL,
-    ANUAL
+    ANUAL;
+
+    //Inicio del período n contado desde 'anchor' (31 de enero, n = 1 -> 28 de febrero; n = 2 -> 31 de marzo en MENSUAL)
+    //Se calcula siempre desde el ancla: encadenar fin + 1 día correría los fines de mes (31 -> 28 -> 28...)
+    public LocalDate startOf(LocalDate anchor, long n) {
+        return switch (this) {
+            case MENSUAL -> anchor.plusMonths(n);
+            case TRIMESTRAL -> anchor.plusMonths(3 * n);
+            case ANUAL -> anchor.plusYears(n);
+        };
+    }
+
+    //Último día del período n: el día anterior al inicio del siguiente
+    public LocalDate endOf(LocalDate anchor, long n) {
+        return startOf(anchor, n + 1).minusDays(1);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,85 @@
+package com.arturo.budgetservice.executor;
+
+import com.arturo.budgetservice.exception.ServiceTimeoutException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/*
+  Ejecuta en paralelo las consultas de gasto a transaction-service sobre un pool acotado y espera
+  todas con un único plazo: la latencia es la de la consulta más lenta y no la suma de todas,
+  y una consulta colgada no bloquea la petición más allá del plazo.
+ */
+@Component
+@Slf4j
+public class SpentLookupEngine {
+
+    private final Executor executor;
+    private final long deadlineMs;
+
+    public SpentLookupEngine(@Qualifier("budgetExecutor") Executor executor,
+                             @Value("${budget.executor.deadline-ms:3000}") long deadlineMs) {
+        this.executor = executor;
+        this.deadlineMs = deadlineMs;
+    }
+
+    // Lanza todas las consultas y devuelve sus resultados en el mismo orden
+    // Si alguna falla se relanza su excepción; si el plazo vence se cancelan las pendientes
+    public <T> List<T> invokeAll(List<Supplier<T>> calls) {
+        List<CompletableFuture<T>> futures = new ArrayList<>(calls.size());
+        try {
+            for (Supplier<T> call : calls) {
+                futures.add(CompletableFuture.supplyAsync(call, executor));
+            }
+        } catch (RejectedExecutionException e) {
+            // Pool y cola llenos: se falla rápido en lugar de esperar detrás de otras peticiones
+            futures.forEach(future -> future.cancel(true));
+            log.warn("Consultas de gasto rechazadas: pool de consultas saturado ({} en paralelo)", calls.size());
+            throw new ServiceTimeoutException("El servicio de transacciones está saturado, intente de nuevo", e);
+        }
+
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                    .get(deadlineMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            futures.forEach(future -> future.cancel(true));
+            log.warn("Las consultas de gasto superaron el plazo de {} ms ({} en paralelo)", deadlineMs, calls.size());
+            throw new ServiceTimeoutException(
+                    "El servicio de transacciones no respondió en " + deadlineMs + " ms", e);
+        } catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new ServiceTimeoutException("La consulta de gasto fue interrumpida", e);
+        } catch (ExecutionException e) {
+            throw unwrap(e.getCause());
+        }
+
+        List<T> results = new ArrayList<>(futures.size());
+        for (CompletableFuture<T> future : futures) {
+            results.add(future.join());
+        }
+        return results;
+    }
+
+    private RuntimeException unwrap(Throwable cause) {
+        if (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        if (cause instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        }
+        return new IllegalStateException(cause);
+    }
+}
@@ -0,0 +1,103 @@
+package com.arturo.budgetservice.registry;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/*
+  Suscripciones SSE a las alertas de presupuesto, en memoria: por usuario, sus conexiones abiertas
+  (una por pestaña o dispositivo). Enviar a un usuario no consulta la base de datos.
+  - cada conexión recuerda hasta qué alerta ya recibió el cliente al conectarse, para no repetirla
+  - una conexión que falla al enviar se descarta; el navegador se reconecta solo
+ */
+@Component
+@Slf4j
+public class AlertSubscriptionRegistry {
+
+    private final Map<Long, List<Subscription>> subscriptions = new ConcurrentHashMap<>();
+
+    @Value("${budget.alert-stream.timeout-ms:1800000}")
+    private long timeoutMs; //Duración máxima de una conexión (el cliente se reconecta al cerrarse)
+
+    @Value("${budget.alert-stream.max-connections-per-user:5}")
+    private int maxConnectionsPerUser; //Al superarlo se cierra la conexión más antigua del usuario
+
+    //Abre una conexión; 'sentUpToId' es la última alerta que el cliente ya conoce
+    public SseEmitter subscribe(Long userId, long sentUpToId) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscription subscription = new Subscription(emitter, sentUpToId);
+
+        List<Subscription> evicted = new ArrayList<>();
+        subscriptions.compute(userId, (id, list) -> {
+            List<Subscription> current = list != null ? list : new CopyOnWriteArrayList<>();
+            current.add(subscription);
+            while (current.size() > maxConnectionsPerUser) {
+                evicted.add(current.remove(0));
+            }
+            return current;
+        });
+        evicted.forEach(old -> old.emitter().complete());
+
+        emitter.onCompletion(() -> remove(userId, subscription));
+        emitter.onTimeout(() -> remove(userId, subscription));
+        emitter.onError(error -> remove(userId, subscription));
+        return emitter;
+    }
+
+    public boolean isSubscribed(Long userId) {
+        return subscriptions.containsKey(userId);
+    }
+
+    //Envía un evento a las conexiones del usuario que todavía no incluyen la alerta 'alertId'
+    public void send(Long userId, long alertId, SseEmitter.SseEventBuilder event) {
+        List<Subscription> current = subscriptions.get(userId);
+        if (current == null) {
+            return;
+        }
+        for (Subscription subscription : current) {
+            if (alertId > subscription.sentUpToId()) {
+                deliver(userId, subscription, event);
+            }
+        }
+    }
+
+    //Comentario periódico: mantiene abiertas las conexiones en proxies y detecta clientes desconectados
+    public int heartbeat() {
+        int connections = 0;
+        for (Map.Entry<Long, List<Subscription>> entry : subscriptions.entrySet()) {
+            for (Subscription subscription : entry.getValue()) {
+                deliver(entry.getKey(), subscription, SseEmitter.event().comment("ping"));
+                connections++;
+            }
+        }
+        return connections;
+    }
+
+    private void deliver(Long userId, Subscription subscription, SseEmitter.SseEventBuilder event) {
+        try {
+            subscription.emitter().send(event);
+        } catch (IOException | IllegalStateException ex) {
+            log.debug("Conexión SSE cerrada para el usuario {}: {}", userId, ex.getMessage());
+            remove(userId, subscription);
+            subscription.emitter().completeWithError(ex);
+        }
+    }
+
+    private void remove(Long userId, Subscription subscription) {
+        subscriptions.computeIfPresent(userId, (id, list) -> {
+            list.remove(subscription);
+            return list.isEmpty() ? null : list;
+        });
+    }
+
+    private record Subscription(SseEmitter emitter, long sentUpToId) {
+    }
+}
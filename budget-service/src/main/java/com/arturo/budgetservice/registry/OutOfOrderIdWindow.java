@@ -0,0 +1,65 @@
+package com.arturo.budgetservice.registry;
+
+import java.util.Collection;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+//Ventana de ids de un consumidor que lee en orden una tabla con ids AUTO_INCREMENT (outbox, alertas)
+//Los ids se asignan al insertar pero se vuelven visibles al confirmar: un id menor puede aparecer después
+//de uno mayor. El consumidor relee desde readFrom() (cursor - overlap) y accept() descarta lo ya procesado:
+//- hasta readFrom() todo se da por procesado (se supone que ninguna confirmación llega más tarde que overlap)
+//- dentro de la ventana los ids se recuerdan uno a uno
+//No es seguro para hilos: quien lo usa debe sincronizar el acceso
+public final class OutOfOrderIdWindow {
+
+    private final int overlap;
+    private final NavigableSet<Long> seen = new TreeSet<>(); //Ids procesados por encima de readFrom()
+    private long cursor;                                     //Mayor id procesado
+
+    public OutOfOrderIdWindow(long cursor, int overlap) {
+        this.cursor = cursor;
+        this.overlap = overlap;
+    }
+
+    //Inicio (exclusivo) de la relectura para un cursor dado
+    public static long readFrom(long cursor, int overlap) {
+        return Math.max(cursor - overlap, 0L);
+    }
+
+    public long cursor() {
+        return cursor;
+    }
+
+    public long readFrom() {
+        return readFrom(cursor, overlap);
+    }
+
+    //Registra ids ya procesados dentro de la ventana (por ejemplo, los guardados en la base de datos)
+    public void markSeen(Collection<Long> ids) {
+        long from = readFrom();
+        for (Long id : ids) {
+            if (id > from) {
+                seen.add(id);
+            }
+        }
+    }
+
+    public boolean contains(long id) {
+        return id <= readFrom() || seen.contains(id);
+    }
+
+    //Devuelve true si el id no estaba procesado: lo registra y, si es el mayor, avanza el cursor
+    public boolean accept(long id) {
+        if (contains(id)) {
+            return false;
+        }
+        seen.add(id);
+        cursor = Math.max(cursor, id);
+        return true;
+    }
+
+    //Olvida los ids que quedaron por debajo de la ventana
+    public void prune() {
+        seen.headSet(readFrom(), true).clear();
+    }
+}
@@ -0,0 +1,43 @@
+package com.arturo.budgetservice.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+//Ids de eventos del outbox ya aplicados dentro de la ventana de relectura del poller
+//Con JDBC: los ids vienen asignados y JPA haría un SELECT por fila antes de cada INSERT
+@Repository
+@RequiredArgsConstructor
+public class AppliedOutboxEventRepository {
+
+    private static final String INSERT_APPLIED =
+            "INSERT INTO applied_outbox_events (event_id, applied_at) VALUES (?, ?) " +
+            "ON DUPLICATE KEY UPDATE event_id = event_id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    //Ids aplicados mayores que afterId
+    public Set<Long> findIdsAfter(long afterId) {
+        return new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT event_id FROM applied_outbox_events WHERE event_id > ?", Long.class, afterId));
+    }
+
+    public void insertAll(List<Long> eventIds) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_APPLIED, eventIds, eventIds.size(), (ps, eventId) -> {
+            ps.setLong(1, eventId);
+            ps.setTimestamp(2, now);
+        });
+    }
+
+    //Elimina los ids que ya quedaron por debajo de la ventana
+    public int deleteUpTo(long eventId) {
+        return jdbcTemplate.update("DELETE FROM applied_outbox_events WHERE event_id <= ?", eventId);
+    }
+}
@@ -0,0 +1,41 @@
+package com.arturo.budgetservice.repository;
+
+import com.arturo.budgetservice.entity.BudgetAlert;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+//Inserciones masivas de alertas con JDBC: Hibernate no agrupa INSERTs cuando el id es IDENTITY
+//Si ya existe una alerta no leída del mismo presupuesto y tipo (uk_budget_type_unread) la fila se ignora
+@Repository
+@RequiredArgsConstructor
+public class BudgetAlertBatchRepository {
+
+    private static final String INSERT_ALERT =
+            "INSERT INTO budget_alerts (budget_id, user_id, type, percentage_used, alert_date, is_read, " +
+            "message, unread_marker) VALUES (?, ?, ?, ?, ?, FALSE, ?, TRUE) " +
+            "ON DUPLICATE KEY UPDATE id = id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${budget.alerts.batch-size:500}")
+    private int batchSize; //Filas por sentencia batch
+
+    //Inserta las alertas no leídas que todavía no existan
+    public void insertIfAbsent(List<BudgetAlert> alerts) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_ALERT, alerts, batchSize, (ps, alert) -> {
+            ps.setLong(1, alert.getBudgetId());
+            ps.setLong(2, alert.getUserId());
+            ps.setString(3, alert.getType().name());
+            ps.setBigDecimal(4, alert.getPercentageUsed());
+            ps.setTimestamp(5, alert.getAlertDate() != null ? Timestamp.valueOf(alert.getAlertDate()) : now);
+            ps.setString(6, alert.getMessage());
+        });
+    }
+}
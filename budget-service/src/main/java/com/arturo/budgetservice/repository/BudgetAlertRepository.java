@@ -1,12 +1,21 @@
 package com.arturo.budgetservice.repository;
 
+import com.arturo.budgetservice.dto.response.BudgetAlertDTO;
 import com.arturo.budgetservice.entity.BudgetAlert;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
 @Repository
+@Transactional(readOnly = true) //Las consultas van en transacciones de solo lectura (pueden ir a una réplica)
 public interface BudgetAlertRepository extends JpaRepository<BudgetAlert, Long> {
     
     List<BudgetAlert> findByUserId(Long userId);
@@ -18,6 +27,60 @@ public interface BudgetAlertRepository extends JpaRepository<BudgetAlert, Long>
     List<BudgetAlert> findByBudgetId(Long budgetId);
     //Buscar alertas de un presupuesto específico
 
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE budget_alerts a JOIN (" +
+                   "SELECT MAX(id) AS id FROM budget_alerts WHERE is_read = FALSE GROUP BY budget_id, type" +
+                   ") latest ON latest.id = a.id " +
+                   "SET a.unread_marker = TRUE WHERE a.unread_marker IS NULL",
+           nativeQuery = true)
+    int markLegacyUnreadAlerts();
+    //Alertas no leídas creadas antes de existir unread_marker: se marca la más reciente de cada
+    //(presupuesto, tipo) para que la clave única también las tenga en cuenta
+
     long countByUserIdAndIsRead(Long userId, Boolean isRead);
     //Contar alertas no leídas de un usuario
-}
\ No newline at end of file
+
+    @Query("SELECT COUNT(a), MAX(a.id) FROM BudgetAlert a WHERE a.userId = :userId AND a.isRead = false")
+    List<Object[]> countUnread(@Param("userId") Long userId);
+    //Alertas no leídas de un usuario y la más reciente de ellas (una fila; MAX es null si no hay)
+
+    @Query("SELECT MAX(a.id) FROM BudgetAlert a")
+    Long findMaxId();
+    //Última alerta creada (punto de partida del envío por SSE)
+
+    @Query("SELECT a, COALESCE(b.name, 'Presupuesto desconocido') " +
+           "FROM BudgetAlert a LEFT JOIN Budget b ON b.id = a.budgetId " +
+           "WHERE a.id > :afterId ORDER BY a.id")
+    List<Object[]> findCreatedAfter(@Param("afterId") Long afterId, Pageable pageable);
+    //Alertas creadas después de un id, de todos los usuarios, con el nombre de su presupuesto
+    //[0] -> alerta, [1] -> nombre del presupuesto
+
+    @Query("SELECT new com.arturo.budgetservice.dto.response.BudgetAlertDTO(" +
+           "a.id, a.budgetId, COALESCE(b.name, 'Presupuesto desconocido'), a.type, " +
+           "a.percentageUsed, a.alertDate, a.isRead, a.message) " +
+           "FROM BudgetAlert a LEFT JOIN Budget b ON b.id = a.budgetId " +
+           "WHERE a.userId = :userId AND a.isRead = false AND a.id > :afterId ORDER BY a.id")
+    List<BudgetAlertDTO> findUnreadAfter(@Param("userId") Long userId, @Param("afterId") Long afterId);
+    //Alertas no leídas posteriores a la última que recibió un cliente SSE (reconexión con Last-Event-ID)
+
+    @Query("SELECT new com.arturo.budgetservice.dto.response.BudgetAlertDTO(" +
+           "a.id, a.budgetId, COALESCE(b.name, 'Presupuesto desconocido'), a.type, " +
+           "a.percentageUsed, a.alertDate, a.isRead, a.message) " +
+           "FROM BudgetAlert a LEFT JOIN Budget b ON b.id = a.budgetId " +
+           "WHERE a.userId = :userId AND (:isRead IS NULL OR a.isRead = :isRead)")
+    List<BudgetAlertDTO> findAlertViews(@Param("userId") Long userId, @Param("isRead") Boolean isRead, Sort sort);
+    //Alertas del usuario con el nombre de su presupuesto en una sola consulta (sin buscar cada presupuesto)
+    //isRead = null devuelve todas; false solo las no leídas
+
+    @Query(value = "SELECT new com.arturo.budgetservice.dto.response.BudgetAlertDTO(" +
+                   "a.id, a.budgetId, COALESCE(b.name, 'Presupuesto desconocido'), a.type, " +
+                   "a.percentageUsed, a.alertDate, a.isRead, a.message) " +
+                   "FROM BudgetAlert a LEFT JOIN Budget b ON b.id = a.budgetId " +
+                   "WHERE a.userId = :userId AND (:isRead IS NULL OR a.isRead = :isRead)",
+           countQuery = "SELECT COUNT(a) FROM BudgetAlert a " +
+                        "WHERE a.userId = :userId AND (:isRead IS NULL OR a.isRead = :isRead)")
+    Page<BudgetAlertDTO> findAlertViews(@Param("userId") Long userId, @Param("isRead") Boolean isRead,
+                                        Pageable pageable);
+    //Versión paginada: una consulta para la página y otra para el total
+}
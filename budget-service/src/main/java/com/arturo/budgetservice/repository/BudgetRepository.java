@@ -2,16 +2,22 @@ package com.arturo.budgetservice.repository;
 
 import com.arturo.budgetservice.entity.Budget;
 import com.arturo.budgetservice.enums.BudgetPeriod;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository //Marca la interfaz como un componente de repositorio de Spring
+@Transactional(readOnly = true) //Las consultas van en transacciones de solo lectura (pueden ir a una réplica)
 public interface BudgetRepository extends JpaRepository<Budget, Long> {
     //Extiende JpaRepositroy -> hereda metodos CRUD
 
@@ -56,4 +62,89 @@ public interface BudgetRepository extends JpaRepository<Budget, Long> {
 
     long countByUserIdAndIsActive(Long userId, Boolean isActive);
     //Cuenta cuántos presupuestos activos(o inactivos) tiene un usuario
-}
\ No newline at end of file
+
+    List<Budget> findByUserIdInAndIsActive(Collection<Long> userIds, Boolean isActive);
+    //Presupuestos activos (o inactivos) de varios usuarios a la vez (usado por el motor de alertas)
+
+    List<Budget> findByUserIdAndIsActiveAndSpentIsNull(Long userId, Boolean isActive);
+    //Presupuestos de un usuario cuyo gasto todavía no se calculó (normalmente ninguno)
+
+    @Query("SELECT COUNT(b), " +
+           "COALESCE(SUM(CASE WHEN b.isActive = true THEN 1 ELSE 0 END), 0), " +
+           "COALESCE(SUM(CASE WHEN b.isActive = true " +
+           "AND ROUND(COALESCE(b.spent, 0) * 100 / b.amount, 2) >= 100 THEN 1 ELSE 0 END), 0), " +
+           "COALESCE(SUM(CASE WHEN b.isActive = true " +
+           "AND ROUND(COALESCE(b.spent, 0) * 100 / b.amount, 2) < 100 " +
+           "AND ROUND(COALESCE(b.spent, 0) * 100 / b.amount, 2) >= b.alertThreshold THEN 1 ELSE 0 END), 0), " +
+           "COALESCE(SUM(CASE WHEN b.isActive = true THEN b.amount ELSE 0 END), 0), " +
+           "COALESCE(SUM(CASE WHEN b.isActive = true THEN COALESCE(b.spent, 0) ELSE 0 END), 0) " +
+           "FROM Budget b WHERE b.userId = :userId")
+    List<Object[]> summarizeByUserId(@Param("userId") Long userId);
+    //Resumen de un usuario en una sola consulta (siempre devuelve una fila):
+    //[0] -> total, [1] -> activos, [2] -> excedidos, [3] -> en advertencia, [4] -> monto presupuestado, [5] -> gastado
+    //El porcentaje se redondea a 2 decimales igual que en BudgetServiceImpl para clasificar de la misma forma
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Budget b SET b.spent = b.spent + :delta WHERE b.userId = :userId " +
+           "AND (b.categoryId IS NULL OR b.categoryId = :categoryId) " +
+           "AND b.startDate <= :date AND b.endDate >= :date " +
+           "AND b.spent IS NOT NULL AND b.spentEventId < :eventId")
+    int applySpentDelta(
+            @Param("userId") Long userId,
+            @Param("categoryId") Long categoryId,
+            @Param("date") LocalDate date,
+            @Param("delta") BigDecimal delta,
+            @Param("eventId") Long eventId
+    );
+    //Aplica un evento de gasto a todos los presupuestos que lo cubren (misma categoría o sin categoría,
+    //fecha dentro del rango). Se omiten los presupuestos sin gasto calculado y los que ya incluyen el evento
+
+    List<Budget> findByIsActiveAndIdGreaterThanOrderByIdAsc(Boolean isActive, Long id, Pageable pageable);
+    //Recorre los presupuestos activos por bloques ordenados por ID (usado por la reconciliación)
+
+    List<Budget> findByIsActiveAndIdGreaterThanAndIdLessThanEqualOrderByIdAsc(
+            Boolean isActive, Long afterId, Long upperId, Pageable pageable);
+    //Igual, pero dentro de un rango de ids (afterId, upperId]: cada partición del escaneo de umbrales
+
+    @Query("SELECT b FROM Budget b WHERE b.isActive = true AND b.autoRenew = true AND b.carryOver = true " +
+           "AND b.spent IS NULL AND b.endDate < :today AND b.id > :afterId ORDER BY b.id")
+    List<Budget> findExpiredCarryOverWithoutSpent(
+            @Param("today") LocalDate today,
+            @Param("afterId") Long afterId,
+            Pageable pageable
+    );
+    //Vencidos con arrastre cuyo gasto aún no se calculó (la renovación lo necesita para saber cuánto arrastrar)
+
+    @Query("SELECT MAX(b.id) FROM Budget b")
+    Long findMaxId();
+    //Id más alto (límite del rango que se reparte en particiones); null si no hay presupuestos
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Budget b SET b.alertedLevel = :level WHERE b.id = :id AND COALESCE(b.alertedLevel, 0) < :level")
+    int raiseAlertedLevel(@Param("id") Long id, @Param("level") int level);
+    //Registra que el presupuesto cruzó un umbral nuevo; 0 filas = otra evaluación ya lo registró (no se alerta)
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Budget b SET b.alertedLevel = :level WHERE b.id = :id AND b.alertedLevel > :level")
+    int lowerAlertedLevel(@Param("id") Long id, @Param("level") int level);
+    //El gasto bajó del umbral (devolución, edición): volver a cruzarlo crea una alerta nueva
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Budget b SET b.alertedLevel = 0 WHERE b.id = :id")
+    int resetAlertedLevel(@Param("id") Long id);
+    //Nuevo período del presupuesto (fechas editadas): ningún umbral alertado todavía
+
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE budgets b SET b.alerted_level = COALESCE((" +
+                   "SELECT MAX(CASE a.type WHEN 'EXCEEDED' THEN 2 ELSE 1 END) " +
+                   "FROM budget_alerts a WHERE a.budget_id = b.id), 0) " +
+                   "WHERE b.alerted_level IS NULL",
+           nativeQuery = true)
+    int initAlertedLevels();
+    //Presupuestos creados antes de existir alerted_level: el nivel sale de las alertas que ya tienen
+}
@@ -0,0 +1,137 @@
+package com.arturo.budgetservice.repository;
+
+import com.arturo.budgetservice.entity.Budget;
+import com.arturo.budgetservice.enums.BudgetPeriod;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+//Acceso JDBC a la renovación de presupuestos: se recorren los vencidos por bloques sin cargar entidades
+@Repository
+@RequiredArgsConstructor
+public class BudgetRolloverRepository {
+
+    //Bloquea los vencidos del bloque; SKIP LOCKED permite que varias instancias avancen sin repetir presupuestos
+    private static final String LOCK_EXPIRED =
+            "SELECT id, user_id, name, category_id, amount, start_date, end_date, period, period_anchor, " +
+            "alert_threshold, carry_over, carried_over, spent " +
+            "FROM budgets " +
+            "WHERE is_active = TRUE AND auto_renew = TRUE AND end_date < ? " +
+            "AND (end_date > ? OR (end_date = ? AND id > ?)) " +
+            "ORDER BY end_date, id " +
+            "LIMIT ? FOR UPDATE SKIP LOCKED";
+
+    private static final String INSERT_RENEWAL =
+            "INSERT INTO budgets (user_id, name, category_id, amount, start_date, end_date, period, " +
+            "alert_threshold, is_active, auto_renew, carry_over, carried_over, previous_budget_id, " +
+            "period_anchor, alerted_level, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, TRUE, TRUE, ?, ?, ?, ?, 0, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE id = id";
+
+    private static final String DEACTIVATE =
+            "UPDATE budgets SET is_active = FALSE, updated_at = ? WHERE id = ?";
+
+    private static final String BACKLOG =
+            "SELECT COUNT(*), MIN(end_date) FROM budgets " +
+            "WHERE is_active = TRUE AND auto_renew = TRUE AND end_date < ?";
+
+    private static final RowMapper<ExpiredBudget> EXPIRED_MAPPER = (rs, rowNum) -> new ExpiredBudget(
+            rs.getLong("id"),
+            rs.getLong("user_id"),
+            rs.getString("name"),
+            rs.getObject("category_id", Long.class),
+            rs.getBigDecimal("amount"),
+            rs.getDate("start_date").toLocalDate(),
+            rs.getDate("end_date").toLocalDate(),
+            BudgetPeriod.valueOf(rs.getString("period")),
+            rs.getDate("period_anchor") != null ? rs.getDate("period_anchor").toLocalDate() : null,
+            rs.getBigDecimal("alert_threshold"),
+            rs.getBoolean("carry_over"),
+            rs.getBigDecimal("carried_over"),
+            rs.getBigDecimal("spent")
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${budget.rollover.batch-size:500}")
+    private int batchSize; //Filas por sentencia batch
+
+    //Presupuestos renovables vencidos antes de 'today', a partir de la posición (afterDate, afterId)
+    //Debe llamarse dentro de una transacción: las filas quedan bloqueadas hasta el commit
+    public List<ExpiredBudget> lockExpired(LocalDate today, LocalDate afterDate, Long afterId, int limit) {
+        return jdbcTemplate.query(LOCK_EXPIRED, EXPIRED_MAPPER,
+                Date.valueOf(today), Date.valueOf(afterDate), Date.valueOf(afterDate), afterId, limit);
+    }
+
+    //Inserta los presupuestos del período siguiente; si uno ya existe (previous_budget_id) se ignora
+    public void insertRenewals(List<Budget> renewals) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_RENEWAL, renewals, batchSize, (ps, budget) -> {
+            ps.setLong(1, budget.getUserId());
+            ps.setString(2, budget.getName());
+            if (budget.getCategoryId() != null) {
+                ps.setLong(3, budget.getCategoryId());
+            } else {
+                ps.setNull(3, Types.BIGINT);
+            }
+            ps.setBigDecimal(4, budget.getAmount());
+            ps.setDate(5, Date.valueOf(budget.getStartDate()));
+            ps.setDate(6, Date.valueOf(budget.getEndDate()));
+            ps.setString(7, budget.getPeriod().name());
+            ps.setBigDecimal(8, budget.getAlertThreshold());
+            ps.setBoolean(9, Boolean.TRUE.equals(budget.getCarryOver()));
+            ps.setBigDecimal(10, budget.getCarriedOver());
+            ps.setLong(11, budget.getPreviousBudgetId());
+            ps.setDate(12, Date.valueOf(budget.getPeriodAnchor()));
+            ps.setTimestamp(13, now);
+            ps.setTimestamp(14, now);
+        });
+    }
+
+    //Los presupuestos renovados dejan de estar activos (y de aparecer en el recorrido)
+    public void deactivate(List<Long> budgetIds) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(DEACTIVATE, budgetIds, batchSize, (ps, id) -> {
+            ps.setTimestamp(1, now);
+            ps.setLong(2, id);
+        });
+    }
+
+    //Presupuestos pendientes de renovar y el vencimiento más antiguo entre ellos (null si no hay)
+    public Backlog backlog(LocalDate today) {
+        return jdbcTemplate.queryForObject(BACKLOG, (rs, rowNum) -> new Backlog(
+                rs.getLong(1),
+                rs.getDate(2) != null ? rs.getDate(2).toLocalDate() : null
+        ), Date.valueOf(today));
+    }
+
+    //Datos de un presupuesto vencido necesarios para crear el siguiente
+    public record ExpiredBudget(Long id,
+                                Long userId,
+                                String name,
+                                Long categoryId,
+                                BigDecimal amount,
+                                LocalDate startDate,
+                                LocalDate endDate,
+                                BudgetPeriod period,
+                                LocalDate periodAnchor,
+                                BigDecimal alertThreshold,
+                                boolean carryOver,
+                                BigDecimal carriedOver,
+                                BigDecimal spent) {
+    }
+
+    //Presupuestos pendientes de renovar
+    public record Backlog(long pending, LocalDate oldestEndDate) {
+    }
+}
@@ -0,0 +1,27 @@
+package com.arturo.budgetservice.repository;
+
+import com.arturo.budgetservice.entity.OutboxCursor;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface OutboxCursorRepository extends JpaRepository<OutboxCursor, String> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM OutboxCursor c WHERE c.name = :name")
+    Optional<OutboxCursor> findByNameForUpdate(@Param("name") String name);
+    //Bloquea el cursor (SELECT ... FOR UPDATE) hasta el fin de la transacción:
+    //así varias instancias de budget-service no aplican el mismo evento dos veces
+
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("SELECT c FROM OutboxCursor c WHERE c.name = :name")
+    Optional<OutboxCursor> findByNameForShare(@Param("name") String name);
+    //Bloqueo compartido (SELECT ... FOR SHARE): los recálculos de gasto no se esperan entre sí,
+    //pero sí al poller que tiene el cursor en exclusiva
+}
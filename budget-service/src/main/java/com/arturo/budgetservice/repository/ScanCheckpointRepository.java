@@ -0,0 +1,56 @@
+package com.arturo.budgetservice.repository;
+
+import com.arturo.budgetservice.entity.ScanCheckpoint;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+@Transactional(readOnly = true)
+public interface ScanCheckpointRepository extends JpaRepository<ScanCheckpoint, String> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM ScanCheckpoint c WHERE c.name = :name")
+    Optional<ScanCheckpoint> findByNameForUpdate(@Param("name") String name);
+    //Bloquea la fila hasta el fin de la transacción (dos instancias no crean la misma ejecución)
+
+    List<ScanCheckpoint> findByNameStartingWithOrderByNameAsc(String prefix);
+    //Particiones de un escaneo
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE ScanCheckpoint c SET c.owner = :owner, c.leaseUntil = :leaseUntil, c.updatedAt = :now " +
+           "WHERE c.name = :name AND c.completed = false " +
+           "AND (c.leaseUntil IS NULL OR c.leaseUntil < :now OR c.owner = :owner)")
+    int claim(
+            @Param("name") String name,
+            @Param("owner") String owner,
+            @Param("now") LocalDateTime now,
+            @Param("leaseUntil") LocalDateTime leaseUntil
+    );
+    //Reserva una partición pendiente si nadie la tiene (o la reserva venció porque su instancia se detuvo)
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE ScanCheckpoint c SET c.lastId = :lastId, c.completed = :completed, " +
+           "c.leaseUntil = :leaseUntil, c.updatedAt = :now " +
+           "WHERE c.name = :name AND c.owner = :owner")
+    int advance(
+            @Param("name") String name,
+            @Param("owner") String owner,
+            @Param("lastId") Long lastId,
+            @Param("completed") Boolean completed,
+            @Param("now") LocalDateTime now,
+            @Param("leaseUntil") LocalDateTime leaseUntil
+    );
+    //Guarda el avance y renueva la reserva; devuelve 0 si otra instancia tomó la partición
+}
@@ -0,0 +1,31 @@
+package com.arturo.budgetservice.scheduler;
+
+import com.arturo.budgetservice.service.AlertStreamService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+//Reparte las alertas nuevas a los clientes SSE conectados y mantiene vivas sus conexiones
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AlertStreamScheduler {
+
+    private final AlertStreamService alertStreamService;
+
+    @Scheduled(fixedDelayString = "${budget.alert-stream.poll-interval-ms:1000}")
+    public void publishNewAlerts() {
+        try {
+            alertStreamService.publishNewAlerts();
+        } catch (Exception ex) {
+            log.warn("No se pudieron leer las alertas nuevas: {}", ex.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${budget.alert-stream.heartbeat-ms:25000}")
+    public void heartbeat() {
+        int connections = alertStreamService.heartbeat();
+        log.debug("Conexiones SSE de alertas abiertas: {}", connections);
+    }
+}
@@ -0,0 +1,33 @@
+package com.arturo.budgetservice.scheduler;
+
+import com.arturo.budgetservice.service.BudgetAlertEngine;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+//Evalúa en segundo plano las alertas de los usuarios cuyo gasto cambió
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BudgetAlertScheduler {
+
+    private final BudgetAlertEngine budgetAlertEngine;
+
+    @Value("${budget.alerts.users-per-run:200}")
+    private int usersPerRun;
+
+    // Si un bloque llega lleno sigue evaluando hasta vaciar la lista de pendientes
+    @Scheduled(fixedDelayString = "${budget.alerts.poll-interval-ms:1000}")
+    public void evaluatePending() {
+        try {
+            int evaluated;
+            do {
+                evaluated = budgetAlertEngine.evaluatePending();
+            } while (evaluated >= usersPerRun);
+        } catch (RuntimeException ex) {
+            log.warn("No se pudieron evaluar las alertas pendientes: {}", ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.arturo.budgetservice.scheduler;
+
+import com.arturo.budgetservice.repository.BudgetRolloverRepository.Backlog;
+import com.arturo.budgetservice.service.BudgetRolloverService;
+import com.arturo.budgetservice.service.BudgetRolloverService.ChunkResult;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+//Renueva los presupuestos vencidos recorriéndolos por bloques, y publica el ritmo y el atraso de la renovación
+@Component
+@Slf4j
+public class BudgetRolloverScheduler {
+
+    //Posición inicial del recorrido: anterior a cualquier fecha válida en MySQL
+    private static final LocalDate START_DATE = LocalDate.of(1000, 1, 1);
+
+    private final BudgetRolloverService budgetRolloverService;
+    private final Counter renewedCounter;
+    private final Counter skippedCounter;
+    private final Timer runTimer;
+    private final AtomicLong backlog = new AtomicLong();  // Vencidos pendientes tras la última ejecución
+    private final AtomicLong lagDays = new AtomicLong();  // Días desde el vencimiento pendiente más antiguo
+
+    @Value("${budget.rollover.chunk-size:500}")
+    private int chunkSize; //Presupuestos por bloque (y por transacción)
+
+    public BudgetRolloverScheduler(BudgetRolloverService budgetRolloverService, MeterRegistry meterRegistry) {
+        this.budgetRolloverService = budgetRolloverService;
+        this.renewedCounter = Counter.builder("budgets.rollover.renewed")
+                .description("Presupuestos renovados para el período siguiente")
+                .register(meterRegistry);
+        this.skippedCounter = Counter.builder("budgets.rollover.skipped")
+                .description("Presupuestos vencidos que no se pudieron renovar todavía (gasto sin calcular)")
+                .register(meterRegistry);
+        this.runTimer = Timer.builder("budgets.rollover.run")
+                .description("Duración de cada ejecución de la renovación")
+                .register(meterRegistry);
+        Gauge.builder("budgets.rollover.backlog", backlog, AtomicLong::get)
+                .description("Presupuestos vencidos pendientes de renovar")
+                .register(meterRegistry);
+        Gauge.builder("budgets.rollover.lag.days", lagDays, AtomicLong::get)
+                .description("Días desde el vencimiento más antiguo pendiente de renovar")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${budget.rollover.cron:0 5 * * * *}")
+    public void rollover() {
+        runTimer.record(this::run);
+    }
+
+    private void run() {
+        LocalDate today = LocalDate.now();
+        LocalDate afterDate = START_DATE;
+        Long afterId = 0L;
+        long budgets = 0;
+        long renewed = 0;
+        long start = System.nanoTime();
+
+        try {
+            budgetRolloverService.prepareCarryOver(today);
+        } catch (Exception ex) {
+            // Sin el gasto, los presupuestos con arrastre se omiten; los demás se renuevan igual
+            log.warn("No se pudo preparar el arrastre de la renovación: {}", ex.getMessage());
+        }
+
+        ChunkResult chunk;
+        do {
+            try {
+                chunk = budgetRolloverService.rolloverChunk(today, afterDate, afterId, chunkSize);
+            } catch (Exception ex) {
+                //El bloque se revirtió; sus presupuestos siguen activos y se reintentan en la próxima ejecución
+                log.error("Error renovando presupuestos: {}", ex.getMessage());
+                break;
+            }
+            renewedCounter.increment(chunk.renewed());
+            skippedCounter.increment(chunk.skipped());
+            budgets += chunk.budgets();
+            renewed += chunk.renewed();
+            afterDate = chunk.lastDate();
+            afterId = chunk.lastId();
+        } while (chunk.budgets() == chunkSize);
+
+        Backlog pending = budgetRolloverService.getBacklog(today);
+        backlog.set(pending.pending());
+        lagDays.set(pending.oldestEndDate() != null
+                ? ChronoUnit.DAYS.between(pending.oldestEndDate(), today)
+                : 0L);
+
+        if (budgets > 0) {
+            double seconds = Math.max((System.nanoTime() - start) / 1_000_000_000.0, 0.001);
+            log.info("Renovación de presupuestos: {} vencidos, {} renovados en {} s ({} renovaciones/s), {} pendientes",
+                    budgets, renewed, String.format("%.2f", seconds), Math.round(renewed / seconds),
+                    pending.pending());
+        }
+    }
+}
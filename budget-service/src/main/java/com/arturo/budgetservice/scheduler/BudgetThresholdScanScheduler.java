@@ -0,0 +1,64 @@
+package com.arturo.budgetservice.scheduler;
+
+import com.arturo.budgetservice.service.BudgetThresholdScanService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+//Escaneo periódico de umbrales de todos los presupuestos activos, con las particiones en paralelo
+@Component
+@Slf4j
+public class BudgetThresholdScanScheduler {
+
+    private final BudgetThresholdScanService budgetThresholdScanService;
+    private final Executor scanExecutor;
+
+    public BudgetThresholdScanScheduler(BudgetThresholdScanService budgetThresholdScanService,
+                                        @Qualifier("scanExecutor") Executor scanExecutor) {
+        this.budgetThresholdScanService = budgetThresholdScanService;
+        this.scanExecutor = scanExecutor;
+    }
+
+    @Scheduled(cron = "${budget.threshold-scan.cron:0 */15 * * * *}")
+    public void scan() {
+        List<String> partitions;
+        try {
+            partitions = budgetThresholdScanService.prepareRun();
+        } catch (RuntimeException ex) {
+            log.warn("No se pudo preparar el escaneo de umbrales: {}", ex.getMessage());
+            return;
+        }
+        if (partitions.isEmpty()) {
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        List<CompletableFuture<Integer>> futures = new ArrayList<>(partitions.size());
+        for (String partition : partitions) {
+            futures.add(CompletableFuture.supplyAsync(
+                    () -> budgetThresholdScanService.scanPartition(partition), scanExecutor));
+        }
+
+        int scanned = 0;
+        int failed = 0;
+        for (CompletableFuture<Integer> future : futures) {
+            try {
+                scanned += future.join();
+            } catch (CompletionException ex) {
+                failed++;
+                log.warn("Falló una partición del escaneo de umbrales: {}", ex.getCause().getMessage());
+            }
+        }
+
+        long elapsedMs = Math.max(1L, System.currentTimeMillis() - start);
+        log.info("Escaneo de umbrales: {} presupuestos en {} ms ({} por segundo), {} particiones con error",
+                scanned, elapsedMs, scanned * 1000L / elapsedMs, failed);
+    }
+}
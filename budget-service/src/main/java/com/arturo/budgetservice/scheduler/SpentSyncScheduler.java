@@ -0,0 +1,76 @@
+package com.arturo.budgetservice.scheduler;
+
+import com.arturo.budgetservice.entity.Budget;
+import com.arturo.budgetservice.exception.ServiceTimeoutException;
+import com.arturo.budgetservice.repository.BudgetRepository;
+import com.arturo.budgetservice.service.SpentCounterService;
+import feign.FeignException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+//Tareas periódicas del gasto materializado: lectura del outbox y reconciliación
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SpentSyncScheduler {
+
+    private final SpentCounterService spentCounterService;
+    private final BudgetRepository budgetRepository;
+
+    @Value("${budget.spent-sync.batch-size:500}")
+    private int batchSize;
+
+    // Aplica los eventos pendientes; si un bloque llega lleno sigue leyendo hasta vaciar el outbox
+    @Scheduled(fixedDelayString = "${budget.spent-sync.poll-interval-ms:2000}")
+    public void pollOutbox() {
+        try {
+            int processed;
+            do {
+                processed = spentCounterService.pollEvents();
+            } while (processed >= batchSize);
+        } catch (FeignException ex) {
+            log.warn("No se pudo leer el outbox de transaction-service: {}", ex.getMessage());
+        }
+    }
+
+    // Recalcula el gasto de los presupuestos activos (una llamada por usuario y bloque) para detectar desvíos
+    @Scheduled(cron = "${budget.spent-sync.reconcile-cron:0 0 * * * *}")
+    public void reconcile() {
+        long lastId = 0L;
+        int checked = 0;
+        int drifted = 0;
+        List<Budget> chunk;
+        do {
+            chunk = budgetRepository.findByIsActiveAndIdGreaterThanOrderByIdAsc(
+                    true, lastId, PageRequest.of(0, batchSize));
+            if (chunk.isEmpty()) {
+                break;
+            }
+
+            Map<Long, List<Long>> idsByUser = chunk.stream()
+                    .collect(Collectors.groupingBy(Budget::getUserId, LinkedHashMap::new,
+                            Collectors.mapping(Budget::getId, Collectors.toList())));
+            for (Map.Entry<Long, List<Long>> entry : idsByUser.entrySet()) {
+                try {
+                    drifted += spentCounterService.reconcile(entry.getKey(), entry.getValue());
+                } catch (FeignException | ServiceTimeoutException ex) {
+                    log.warn("No se pudo reconciliar el gasto del usuario {}: {}", entry.getKey(), ex.getMessage());
+                }
+            }
+
+            checked += chunk.size();
+            lastId = chunk.get(chunk.size() - 1).getId();
+        } while (chunk.size() == batchSize);
+
+        log.info("Reconciliación de gasto: {} presupuestos revisados, {} con diferencias", checked, drifted);
+    }
+}
@@ -0,0 +1,15 @@
+package com.arturo.budgetservice.service;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+public interface AlertStreamService {
+
+    //Abre el stream de alertas del usuario; con lastEventId se reenvían las no leídas posteriores
+    SseEmitter subscribe(Long userId, Long lastEventId);
+
+    //Lee las alertas nuevas (una consulta para todos los clientes) y las envía a sus usuarios; devuelve cuántas leyó
+    int publishNewAlerts();
+
+    //Devuelve cuántas conexiones siguen abiertas
+    int heartbeat();
+}
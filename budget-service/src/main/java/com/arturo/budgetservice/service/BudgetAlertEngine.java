@@ -0,0 +1,19 @@
+package com.arturo.budgetservice.service;
+
+import com.arturo.budgetservice.entity.Budget;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface BudgetAlertEngine {
+
+    //Pide evaluar las alertas de los usuarios cuando la transacción actual se confirme
+    //(el gasto de sus presupuestos cambió); la evaluación se hace en segundo plano
+    void requestEvaluation(Collection<Long> userIds);
+
+    //Evalúa un bloque de los usuarios pendientes; devuelve cuántos se evaluaron
+    int evaluatePending();
+
+    //Crea las alertas que correspondan a los presupuestos (sin repetir las no leídas); devuelve cuántas se intentaron crear
+    int evaluateBudgets(List<Budget> budgets);
+}
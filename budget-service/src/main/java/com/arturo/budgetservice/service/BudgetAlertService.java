@@ -1,6 +1,8 @@
 package com.arturo.budgetservice.service;
 
 import com.arturo.budgetservice.dto.response.BudgetAlertDTO;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 
 import java.util.List;
 
@@ -10,6 +12,10 @@ public interface BudgetAlertService {
     
     List<BudgetAlertDTO> getUnreadAlerts(Long userId);
     
+    Page<BudgetAlertDTO> getAlertsPage(Long userId, Pageable pageable);
+    
+    Page<BudgetAlertDTO> getUnreadAlertsPage(Long userId, Pageable pageable);
+    
     void markAlertAsRead(Long alertId, Long userId);
     
     void markAllAlertsAsRead(Long userId);
@@ -0,0 +1,19 @@
+package com.arturo.budgetservice.service;
+
+import com.arturo.budgetservice.repository.BudgetRolloverRepository.Backlog;
+
+import java.time.LocalDate;
+
+public interface BudgetRolloverService {
+
+    //Calcula el gasto de los vencidos con arrastre que todavía no lo tienen (una consulta por usuario)
+    void prepareCarryOver(LocalDate today);
+
+    ChunkResult rolloverChunk(LocalDate today, LocalDate afterDate, Long afterId, int limit);
+
+    Backlog getBacklog(LocalDate today);
+
+    //Resultado de un bloque: vencidos leídos, renovaciones creadas, omitidos y posición para el siguiente bloque
+    record ChunkResult(int budgets, int renewed, int skipped, LocalDate lastDate, Long lastId) {
+    }
+}
@@ -0,0 +1,12 @@
+package com.arturo.budgetservice.service;
+
+import java.util.List;
+
+public interface BudgetThresholdScanService {
+
+    //Devuelve las particiones pendientes del escaneo actual; si el anterior terminó, reparte uno nuevo
+    List<String> prepareRun();
+
+    //Recorre una partición por bloques y crea las alertas que correspondan; devuelve cuántos presupuestos revisó
+    int scanPartition(String name);
+}
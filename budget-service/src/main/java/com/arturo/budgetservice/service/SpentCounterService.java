@@ -0,0 +1,17 @@
+package com.arturo.budgetservice.service;
+
+import com.arturo.budgetservice.entity.Budget;
+
+import java.util.List;
+
+public interface SpentCounterService {
+
+    //Calcula el gasto de los presupuestos que todavía no lo tienen (una sola llamada remota)
+    void ensureSpent(Long userId, List<Budget> budgets);
+
+    //Aplica el siguiente bloque de eventos del outbox; devuelve cuántos eventos se leyeron
+    int pollEvents();
+
+    //Recalcula el gasto de los presupuestos indicados; devuelve cuántos tenían diferencias
+    int reconcile(Long userId, List<Long> budgetIds);
+}
@@ -0,0 +1,114 @@
+package com.arturo.budgetservice.service.impl;
+
+import com.arturo.budgetservice.dto.response.BudgetAlertDTO;
+import com.arturo.budgetservice.entity.BudgetAlert;
+import com.arturo.budgetservice.registry.AlertSubscriptionRegistry;
+import com.arturo.budgetservice.registry.OutOfOrderIdWindow;
+import com.arturo.budgetservice.repository.BudgetAlertRepository;
+import com.arturo.budgetservice.service.AlertStreamService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+
+/*
+  Stream SSE de alertas de presupuesto:
+  - al conectarse, el cliente recibe las alertas no leídas que se perdió (Last-Event-ID) y el conteo de no leídas
+  - luego, una sola lectura periódica de budget_alerts por instancia (no por cliente) reparte las alertas nuevas
+    entre los usuarios conectados
+  Los ids se asignan al insertar pero se vuelven visibles al confirmar, así que un id menor puede
+  aparecer después de uno mayor: OutOfOrderIdWindow relee una ventana de ids ya vistos (overlap)
+  y solo deja pasar los que no se habían visto.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AlertStreamServiceImpl implements AlertStreamService {
+
+    private final BudgetAlertRepository budgetAlertRepository;       // Alertas nuevas y conteo inicial
+    private final AlertSubscriptionRegistry alertSubscriptionRegistry; // Conexiones abiertas por usuario
+
+    private OutOfOrderIdWindow window; // Alertas ya enviadas (null = todavía no se leyó el punto de partida)
+
+    @Value("${budget.alert-stream.batch-size:500}")
+    private int batchSize;
+
+    @Value("${budget.alert-stream.overlap:100}")
+    private int overlap; // Ids anteriores al cursor que se vuelven a revisar (debe ser menor que batchSize)
+
+    @Override
+    public SseEmitter subscribe(Long userId, Long lastEventId) {
+        long sentUpToId = lastEventId != null ? lastEventId : 0L;
+
+        // Alertas que el cliente se perdió mientras estaba desconectado
+        List<BudgetAlertDTO> missed = lastEventId != null
+                ? budgetAlertRepository.findUnreadAfter(userId, lastEventId)
+                : List.of();
+        Object[] unread = budgetAlertRepository.countUnread(userId).get(0);
+        long unreadCount = ((Number) unread[0]).longValue();
+        if (unread[1] != null) {
+            sentUpToId = Math.max(sentUpToId, ((Number) unread[1]).longValue());
+        }
+
+        // Las alertas ya incluidas en el conteo no se vuelven a enviar desde el lector periódico
+        SseEmitter emitter = alertSubscriptionRegistry.subscribe(userId, sentUpToId);
+        try {
+            for (BudgetAlertDTO alert : missed) {
+                emitter.send(alertEvent(alert));
+            }
+            emitter.send(SseEmitter.event().name("unread-count").data(unreadCount));
+        } catch (IOException ex) {
+            emitter.completeWithError(ex);
+        }
+        return emitter;
+    }
+
+    @Override
+    public synchronized int publishNewAlerts() {
+        if (window == null) {
+            // Los clientes reciben lo anterior al conectarse: basta empezar desde la última alerta existente
+            Long maxId = budgetAlertRepository.findMaxId();
+            window = new OutOfOrderIdWindow(maxId != null ? maxId : 0L, overlap);
+        }
+
+        int read = 0;
+        List<Object[]> rows;
+        do {
+            rows = budgetAlertRepository.findCreatedAfter(window.readFrom(), PageRequest.of(0, batchSize));
+            for (Object[] data : rows) {
+                BudgetAlert alert = (BudgetAlert) data[0];
+                if (!window.accept(alert.getId())) {
+                    continue;
+                }
+                read++;
+
+                if (alertSubscriptionRegistry.isSubscribed(alert.getUserId())) {
+                    BudgetAlertDTO dto = new BudgetAlertDTO(
+                            alert.getId(), alert.getBudgetId(), (String) data[1], alert.getType(),
+                            alert.getPercentageUsed(), alert.getAlertDate(), alert.getIsRead(), alert.getMessage());
+                    alertSubscriptionRegistry.send(alert.getUserId(), alert.getId(), alertEvent(dto));
+                }
+            }
+            window.prune();
+        } while (rows.size() == batchSize);
+        return read;
+    }
+
+    @Override
+    public int heartbeat() {
+        return alertSubscriptionRegistry.heartbeat();
+    }
+
+    // Evento "alert" con el id de la alerta: el navegador lo reenvía como Last-Event-ID al reconectarse
+    private SseEmitter.SseEventBuilder alertEvent(BudgetAlertDTO alert) {
+        return SseEmitter.event()
+                .id(String.valueOf(alert.getId()))
+                .name("alert")
+                .data(alert);
+    }
+}
@@ -0,0 +1,161 @@
+package com.arturo.budgetservice.service.impl;
+
+import com.arturo.budgetservice.entity.Budget;
+import com.arturo.budgetservice.entity.BudgetAlert;
+import com.arturo.budgetservice.enums.AlertType;
+import com.arturo.budgetservice.repository.BudgetAlertBatchRepository;
+import com.arturo.budgetservice.repository.BudgetAlertRepository;
+import com.arturo.budgetservice.repository.BudgetRepository;
+import com.arturo.budgetservice.service.BudgetAlertEngine;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+  Motor de alertas de presupuesto, fuera del camino de lectura:
+  - quien cambia el gasto (poller del outbox, snapshots) pide evaluar a los usuarios afectados
+  - un proceso programado evalúa a los usuarios pendientes por bloques y crea las alertas con un INSERT por lotes
+  - una alerta se crea solo cuando el presupuesto cruza un umbral nuevo (Budget.alertedLevel); leer la alerta
+    no la vuelve a habilitar, así el escaneo periódico no repite la misma alerta en cada pasada
+  - la clave única (budget_id, type, unread_marker) sigue evitando alertas no leídas repetidas
+  Los usuarios pendientes viven en memoria: si la instancia se reinicia, el escaneo completo los vuelve a cubrir.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BudgetAlertEngineImpl implements BudgetAlertEngine {
+
+    private static final BigDecimal ONE_HUNDRED = BigDecimal.valueOf(100);
+    private static final BigDecimal MAX_PERCENTAGE = new BigDecimal("999.99"); // Límite de percentage_used (5,2)
+
+    private final BudgetRepository budgetRepository;                     // Presupuestos activos con su gasto
+    private final BudgetAlertRepository budgetAlertRepository;           // Marca de alertas anteriores a la clave única
+    private final BudgetAlertBatchRepository budgetAlertBatchRepository; // INSERT por lotes de alertas
+
+    private final Set<Long> pendingUsers = ConcurrentHashMap.newKeySet(); // Usuarios con gasto modificado
+
+    @Value("${budget.alerts.users-per-run:200}")
+    private int usersPerRun;
+
+    @Override
+    public void requestEvaluation(Collection<Long> userIds) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            pendingUsers.addAll(userIds);
+            return;
+        }
+        // Solo después del commit: antes el motor no vería el gasto nuevo
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                pendingUsers.addAll(userIds);
+            }
+        });
+    }
+
+    @Override
+    public int evaluatePending() {
+        List<Long> userIds = new ArrayList<>(Math.min(usersPerRun, pendingUsers.size()));
+        Iterator<Long> iterator = pendingUsers.iterator();
+        while (iterator.hasNext() && userIds.size() < usersPerRun) {
+            userIds.add(iterator.next());
+            iterator.remove();
+        }
+        if (userIds.isEmpty()) {
+            return 0;
+        }
+
+        try {
+            evaluateBudgets(budgetRepository.findByUserIdInAndIsActive(userIds, true));
+        } catch (RuntimeException ex) {
+            pendingUsers.addAll(userIds); // Se reintentan en la próxima ejecución
+            throw ex;
+        }
+        return userIds.size();
+    }
+
+    @Override
+    @Transactional
+    public int evaluateBudgets(List<Budget> budgets) {
+        List<BudgetAlert> alerts = new ArrayList<>();
+        for (Budget budget : budgets) {
+            // Sin gasto calculado todavía: se evaluará cuando se calcule
+            if (budget.getSpent() == null) {
+                continue;
+            }
+
+            BigDecimal percentageUsed = budget.getSpent().divide(budget.getAmount(), 4, RoundingMode.HALF_UP)
+                    .multiply(ONE_HUNDRED);
+            AlertType alertType = null;
+            if (percentageUsed.compareTo(ONE_HUNDRED) >= 0) {
+                alertType = AlertType.EXCEEDED;
+            } else if (percentageUsed.compareTo(budget.getAlertThreshold()) >= 0) {
+                alertType = AlertType.WARNING;
+            }
+
+            // Solo los cambios de nivel escriben: el nivel se sube con una condición, así dos evaluaciones
+            // simultáneas (otra instancia, el escaneo y el poller) crean una sola alerta
+            int level = alertType != null ? alertType.level() : 0;
+            int alertedLevel = budget.getAlertedLevel() != null ? budget.getAlertedLevel() : 0;
+            if (level > alertedLevel) {
+                if (budgetRepository.raiseAlertedLevel(budget.getId(), level) > 0) {
+                    alerts.add(buildAlert(budget, percentageUsed, alertType));
+                }
+            } else if (level < alertedLevel) {
+                budgetRepository.lowerAlertedLevel(budget.getId(), level);
+            }
+        }
+
+        if (!alerts.isEmpty()) {
+            budgetAlertBatchRepository.insertIfAbsent(alerts);
+            log.debug("Alertas evaluadas: {} presupuestos, {} sobre el umbral", budgets.size(), alerts.size());
+        }
+        return alerts.size();
+    }
+
+    // Las alertas no leídas creadas antes de la clave única se incorporan a ella al arrancar,
+    // y los presupuestos sin nivel registrado lo toman de sus alertas (así no se repiten las ya enviadas)
+    @EventListener(ApplicationReadyEvent.class)
+    public void markLegacyAlerts() {
+        int marked = budgetAlertRepository.markLegacyUnreadAlerts();
+        if (marked > 0) {
+            log.info("Alertas no leídas incorporadas a la clave única: {}", marked);
+        }
+        int initialized = budgetRepository.initAlertedLevels();
+        if (initialized > 0) {
+            log.info("Presupuestos con nivel de alerta inicializado: {}", initialized);
+        }
+    }
+
+    private BudgetAlert buildAlert(Budget budget, BigDecimal percentageUsed, AlertType alertType) {
+        BudgetAlert alert = new BudgetAlert();
+        alert.setBudgetId(budget.getId());
+        alert.setUserId(budget.getUserId());
+        alert.setType(alertType);
+        alert.setPercentageUsed(percentageUsed.min(MAX_PERCENTAGE));
+        alert.setIsRead(false);
+
+        // Mensaje de alerta según el tipo
+        String message = alertType == AlertType.WARNING ?
+                String.format("El presupuesto '%s' ha alcanzado el %.2f%% de su límite asignado.",
+                        budget.getName(), percentageUsed) :
+                String.format("El presupuesto '%s' ha sido excedido (%.2f%%).",
+                        budget.getName(), percentageUsed);
+        alert.setMessage(message);
+        return alert;
+    }
+}
@@ -1,20 +1,20 @@
 package com.arturo.budgetservice.service.impl;
 
 import com.arturo.budgetservice.dto.response.BudgetAlertDTO;
-import com.arturo.budgetservice.entity.Budget;
 import com.arturo.budgetservice.entity.BudgetAlert;
 import com.arturo.budgetservice.exception.BadRequestException;
 import com.arturo.budgetservice.exception.ResourceNotFoundException;
 import com.arturo.budgetservice.repository.BudgetAlertRepository;
-import com.arturo.budgetservice.repository.BudgetRepository;
 import com.arturo.budgetservice.service.BudgetAlertService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -23,30 +23,38 @@ public class BudgetAlertServiceImpl implements BudgetAlertService {
 
     // Dependencias inyectadas automáticamente por Spring
     private final BudgetAlertRepository budgetAlertRepository; // Acceso a la tabla de alertas
-    private final BudgetRepository budgetRepository;           // Acceso a la tabla de presupuestos
+
+    // Alertas más recientes primero
+    private static final Sort NEWEST_FIRST = Sort.by("alertDate").descending().and(Sort.by("id").descending());
 
     //Obtener todas las alertas de un usuario (leídas y no leídas)
     @Override
+    @Transactional(readOnly = true)
     public List<BudgetAlertDTO> getAllAlerts(Long userId) {
-        // Busca todas las alertas del usuario en la base de datos
-        List<BudgetAlert> alerts = budgetAlertRepository.findByUserId(userId);
-
-        // Convierte cada entidad BudgetAlert a un DTO para devolver al cliente
-        return alerts.stream()
-                .map(this::mapToDTO)
-                .collect(Collectors.toList());
+        // Una sola consulta trae las alertas con el nombre de su presupuesto
+        return budgetAlertRepository.findAlertViews(userId, null, NEWEST_FIRST);
     }
 
     // Obtener solo las alertas no leídas de un usuario
     @Override
+    @Transactional(readOnly = true)
     public List<BudgetAlertDTO> getUnreadAlerts(Long userId) {
-        // Busca todas las alertas con isRead = false
-        List<BudgetAlert> alerts = budgetAlertRepository.findByUserIdAndIsRead(userId, false);
+        // Solo las alertas con isRead = false, ya con el nombre del presupuesto
+        return budgetAlertRepository.findAlertViews(userId, false, NEWEST_FIRST);
+    }
 
-        // Las convierte en DTOs legibles
-        return alerts.stream()
-                .map(this::mapToDTO)
-                .collect(Collectors.toList());
+    // Obtener una página de alertas del usuario (consulta de la página + consulta del total)
+    @Override
+    @Transactional(readOnly = true)
+    public Page<BudgetAlertDTO> getAlertsPage(Long userId, Pageable pageable) {
+        return budgetAlertRepository.findAlertViews(userId, null, pageable);
+    }
+
+    // Obtener una página de alertas no leídas
+    @Override
+    @Transactional(readOnly = true)
+    public Page<BudgetAlertDTO> getUnreadAlertsPage(Long userId, Pageable pageable) {
+        return budgetAlertRepository.findAlertViews(userId, false, pageable);
     }
 
     // Marcar una alerta específica como leída
@@ -88,28 +96,9 @@ public class BudgetAlertServiceImpl implements BudgetAlertService {
 
     // Contar cuántas alertas no leídas tiene un usuario
     @Override
+    @Transactional(readOnly = true)
     public long getUnreadAlertsCount(Long userId) {
         // Cuenta el número de alertas con isRead = false para el usuario
         return budgetAlertRepository.countByUserIdAndIsRead(userId, false);
     }
-
-    // Método auxiliar: convierte una entidad BudgetAlert en un DTO
-    private BudgetAlertDTO mapToDTO(BudgetAlert alert) {
-        // Obtener el nombre del presupuesto asociado (si existe)
-        String budgetName = budgetRepository.findById(alert.getBudgetId())
-                .map(Budget::getName)
-                .orElse("Presupuesto desconocido");
-
-        // Construir el DTO de respuesta con los datos de la alerta
-        return new BudgetAlertDTO(
-                alert.getId(),
-                alert.getBudgetId(),
-                budgetName,
-                alert.getType(),
-                alert.getPercentageUsed(),
-                alert.getAlertDate(),
-                alert.getIsRead(),
-                alert.getMessage()
-        );
-    }
 }
\ No newline at end of file
@@ -0,0 +1,151 @@
+package com.arturo.budgetservice.service.impl;
+
+import com.arturo.budgetservice.entity.Budget;
+import com.arturo.budgetservice.exception.ServiceTimeoutException;
+import com.arturo.budgetservice.repository.BudgetRepository;
+import com.arturo.budgetservice.repository.BudgetRolloverRepository;
+import com.arturo.budgetservice.repository.BudgetRolloverRepository.Backlog;
+import com.arturo.budgetservice.repository.BudgetRolloverRepository.ExpiredBudget;
+import com.arturo.budgetservice.service.BudgetRolloverService;
+import com.arturo.budgetservice.service.SpentCounterService;
+import feign.FeignException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/*
+  Renovación de presupuestos: cuando un presupuesto con auto_renew vence, se crea el del período siguiente
+  (mismo nombre, categoría, monto base y umbral) y el vencido deja de estar activo.
+  - los períodos se cuentan desde el ancla de la cadena (period_anchor): inicio = ancla + n períodos,
+    así un presupuesto del 31 de enero sigue renovándose a fin de mes en lugar de correrse al 28
+  - si la renovación se atrasó más de un período, se salta directamente al período que incluye hoy
+  - con carry_over, lo no gastado del período que termina se suma al siguiente (solo si son consecutivos)
+  - cada bloque es una transacción: inserciones por lotes + desactivación; previous_budget_id es único,
+    así que un bloque reintentado no duplica renovaciones
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BudgetRolloverServiceImpl implements BudgetRolloverService {
+
+    private final BudgetRolloverRepository budgetRolloverRepository; // Recorrido e inserciones JDBC
+    private final BudgetRepository budgetRepository;                 // Vencidos con arrastre sin gasto calculado
+    private final SpentCounterService spentCounterService;           // Gasto del período que termina
+
+    @Value("${budget.rollover.chunk-size:500}")
+    private int chunkSize;
+
+    @Override
+    public void prepareCarryOver(LocalDate today) {
+        // Fuera de la transacción de los bloques: calcular el gasto bloquea el cursor del outbox,
+        // y el poller (que tiene el cursor) espera las filas que el bloque mantiene bloqueadas
+        long lastId = 0L;
+        List<Budget> chunk;
+        do {
+            chunk = budgetRepository.findExpiredCarryOverWithoutSpent(today, lastId, PageRequest.of(0, chunkSize));
+            if (chunk.isEmpty()) {
+                break;
+            }
+
+            Map<Long, List<Budget>> byUser = chunk.stream()
+                    .collect(Collectors.groupingBy(Budget::getUserId, LinkedHashMap::new, Collectors.toList()));
+            for (Map.Entry<Long, List<Budget>> entry : byUser.entrySet()) {
+                try {
+                    spentCounterService.ensureSpent(entry.getKey(), entry.getValue());
+                } catch (FeignException | ServiceTimeoutException ex) {
+                    // Se omiten en este bloque y se reintentan en la próxima ejecución
+                    log.warn("No se pudo calcular el gasto del usuario {} para renovar: {}",
+                            entry.getKey(), ex.getMessage());
+                }
+            }
+            lastId = chunk.get(chunk.size() - 1).getId();
+        } while (chunk.size() == chunkSize);
+    }
+
+    @Override
+    @Transactional
+    public ChunkResult rolloverChunk(LocalDate today, LocalDate afterDate, Long afterId, int limit) {
+        List<ExpiredBudget> expired = budgetRolloverRepository.lockExpired(today, afterDate, afterId, limit);
+        if (expired.isEmpty()) {
+            return new ChunkResult(0, 0, 0, afterDate, afterId);
+        }
+
+        List<Budget> renewals = new ArrayList<>(expired.size());
+        List<Long> renewedIds = new ArrayList<>(expired.size());
+        int skipped = 0;
+        for (ExpiredBudget budget : expired) {
+            // Período de la cadena que sigue al vencido; si el vencido no encaja en la cadena (fechas elegidas
+            // a mano), la cadena empieza de nuevo el día siguiente a su fin
+            LocalDate anchor = budget.periodAnchor() != null ? budget.periodAnchor() : budget.startDate();
+            long n = 0;
+            while (!budget.period().startOf(anchor, n).isAfter(budget.endDate())) {
+                n++;
+            }
+            if (!budget.period().startOf(anchor, n).equals(budget.endDate().plusDays(1))) {
+                anchor = budget.endDate().plusDays(1);
+                n = 0;
+            }
+
+            // Primer período siguiente que todavía no venció
+            boolean consecutive = true;
+            while (budget.period().endOf(anchor, n).isBefore(today)) {
+                n++;
+                consecutive = false;
+            }
+            LocalDate start = budget.period().startOf(anchor, n);
+            LocalDate end = budget.period().endOf(anchor, n);
+
+            BigDecimal carried = null;
+            if (budget.carryOver() && consecutive) {
+                if (budget.spent() == null) {
+                    skipped++; // Sin gasto calculado no se sabe cuánto arrastrar: se reintenta más tarde
+                    continue;
+                }
+                carried = budget.amount().subtract(budget.spent()).max(BigDecimal.ZERO);
+            }
+            BigDecimal baseAmount = budget.carriedOver() != null
+                    ? budget.amount().subtract(budget.carriedOver())
+                    : budget.amount();
+
+            Budget renewal = new Budget();
+            renewal.setUserId(budget.userId());
+            renewal.setName(budget.name());
+            renewal.setCategoryId(budget.categoryId());
+            renewal.setAmount(carried != null ? baseAmount.add(carried) : baseAmount);
+            renewal.setStartDate(start);
+            renewal.setEndDate(end);
+            renewal.setPeriod(budget.period());
+            renewal.setAlertThreshold(budget.alertThreshold());
+            renewal.setCarryOver(budget.carryOver());
+            renewal.setCarriedOver(carried);
+            renewal.setPreviousBudgetId(budget.id());
+            renewal.setPeriodAnchor(anchor);
+            renewals.add(renewal);
+            renewedIds.add(budget.id());
+        }
+
+        if (!renewals.isEmpty()) {
+            budgetRolloverRepository.insertRenewals(renewals);
+            budgetRolloverRepository.deactivate(renewedIds);
+        }
+
+        ExpiredBudget last = expired.get(expired.size() - 1);
+        return new ChunkResult(expired.size(), renewals.size(), skipped, last.endDate(), last.id());
+    }
+
+    @Override
+    public Backlog getBacklog(LocalDate today) {
+        return budgetRolloverRepository.backlog(today);
+    }
+}
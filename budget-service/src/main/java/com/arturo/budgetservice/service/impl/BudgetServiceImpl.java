@@ -1,19 +1,16 @@
 package com.arturo.budgetservice.service.impl;
 
-import com.arturo.budgetservice.client.TransactionClient;
 import com.arturo.budgetservice.dto.request.BudgetRequest;
 import com.arturo.budgetservice.dto.response.BudgetResponse;
 import com.arturo.budgetservice.dto.response.BudgetSummary;
 import com.arturo.budgetservice.entity.Budget;
-import com.arturo.budgetservice.entity.BudgetAlert;
-import com.arturo.budgetservice.enums.AlertType;
 import com.arturo.budgetservice.enums.BudgetPeriod;
 import com.arturo.budgetservice.enums.BudgetStatus;
 import com.arturo.budgetservice.exception.BadRequestException;
 import com.arturo.budgetservice.exception.ResourceNotFoundException;
-import com.arturo.budgetservice.repository.BudgetAlertRepository;
 import com.arturo.budgetservice.repository.BudgetRepository;
 import com.arturo.budgetservice.service.BudgetService;
+import com.arturo.budgetservice.service.SpentCounterService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -21,8 +18,8 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -31,12 +28,12 @@ public class BudgetServiceImpl implements BudgetService {
 
     // Inyección de dependencias
     private final BudgetRepository budgetRepository;          // Repositorio para acceder a la tabla de presupuestos
-    private final BudgetAlertRepository budgetAlertRepository; // Repositorio para manejar alertas de presupuesto
-    private final TransactionClient transactionClient;         // Cliente Feign para comunicarse con el microservicio de transacciones
+    private final SpentCounterService spentCounterService;     // Gasto acumulado de cada presupuesto (outbox de transacciones)
 
     // Crear un nuevo presupuesto
+    // Sin transacción envolvente: el save confirma el presupuesto y el gasto se calcula después en su propia
+    // transacción, así las llamadas a transaction-service y el bloqueo del cursor no ocurren con la fila bloqueada
     @Override
-    @Transactional // Garantiza que la operación se ejecute dentro de una transacción
     public BudgetResponse createBudget(BudgetRequest request, Long userId) {
         log.info("Creando un nuevo presupuesto para el usuario: {}", userId);
 
@@ -57,18 +54,20 @@ public class BudgetServiceImpl implements BudgetService {
         budget.setAlertThreshold(request.getAlertThreshold() != null ?
                 request.getAlertThreshold() : new BigDecimal("80.00")); // Umbral por defecto: 80%
         budget.setIsActive(true);
+        budget.setAutoRenew(Boolean.TRUE.equals(request.getAutoRenew()));
+        budget.setCarryOver(Boolean.TRUE.equals(request.getCarryOver()));
 
         // Guardar en la base de datos
         Budget savedBudget = budgetRepository.save(budget);
         log.info("Presupuesto creado correctamente con ID: {}", savedBudget.getId());
 
-        // Retornar el presupuesto con progreso calculado
+        // Retornar el presupuesto con progreso calculado (ya confirmado)
         return getBudgetWithProgress(savedBudget.getId(), userId);
     }
 
     // Actualizar presupuesto existente
+    // Igual que createBudget: se confirma el cambio y el gasto se recalcula fuera de esa transacción
     @Override
-    @Transactional
     public BudgetResponse updateBudget(Long id, BudgetRequest request, Long userId) {
         log.info("Actualizando presupuesto {} para el usuario: {}", id, userId);
 
@@ -81,6 +80,10 @@ public class BudgetServiceImpl implements BudgetService {
             throw new BadRequestException("La fecha de fin debe ser posterior a la fecha de inicio.");
         }
 
+        // Un rango de fechas distinto es otro período: sus umbrales se alertan de nuevo
+        boolean periodChanged = !request.getStartDate().equals(budget.getStartDate())
+                || !request.getEndDate().equals(budget.getEndDate());
+
         // Actualizar datos
         budget.setName(request.getName());
         budget.setCategoryId(request.getCategoryId());
@@ -90,10 +93,26 @@ public class BudgetServiceImpl implements BudgetService {
         budget.setPeriod(request.getPeriod());
         budget.setAlertThreshold(request.getAlertThreshold() != null ?
                 request.getAlertThreshold() : budget.getAlertThreshold());
+        if (request.getAutoRenew() != null) {
+            budget.setAutoRenew(request.getAutoRenew());
+        }
+        if (request.getCarryOver() != null) {
+            budget.setCarryOver(request.getCarryOver());
+        }
+        // Fechas elegidas a mano: las renovaciones vuelven a contar los períodos desde el nuevo inicio
+        budget.setPeriodAnchor(null);
+        // La categoría o las fechas pueden cambiar: el gasto se vuelve a calcular
+        budget.setSpent(null);
+        budget.setSpentEventId(null);
 
         // Guardar cambios
         Budget updatedBudget = budgetRepository.save(budget);
         log.info("Presupuesto actualizado correctamente.");
+        if (periodChanged) {
+            budgetRepository.resetAlertedLevel(updatedBudget.getId());
+        }
+
+        // Recalcular el gasto con el presupuesto ya confirmado
 
         return getBudgetWithProgress(updatedBudget.getId(), userId);
     }
@@ -122,27 +141,21 @@ public class BudgetServiceImpl implements BudgetService {
     @Override
     public List<BudgetResponse> getAllBudgets(Long userId) {
         List<Budget> budgets = budgetRepository.findByUserId(userId);
-        return budgets.stream()
-                .map(budget -> getBudgetWithProgress(budget.getId(), userId)) // Calcula progreso para cada uno
-                .collect(Collectors.toList());
+        return mapWithProgress(budgets, userId); // Calcula el progreso de todos con una sola llamada remota
     }
 
     //  Obtener solo los presupuestos activos
     @Override
     public List<BudgetResponse> getActiveBudgets(Long userId) {
         List<Budget> budgets = budgetRepository.findByUserIdAndIsActive(userId, true);
-        return budgets.stream()
-                .map(budget -> getBudgetWithProgress(budget.getId(), userId))
-                .collect(Collectors.toList());
+        return mapWithProgress(budgets, userId);
     }
 
     //  Obtener presupuestos filtrados por período (MENSUAL, ANUAL, etc.)
     @Override
     public List<BudgetResponse> getBudgetsByPeriod(Long userId, BudgetPeriod period) {
         List<Budget> budgets = budgetRepository.findByUserIdAndPeriod(userId, period);
-        return budgets.stream()
-                .map(budget -> getBudgetWithProgress(budget.getId(), userId))
-                .collect(Collectors.toList());
+        return mapWithProgress(budgets, userId);
     }
 
     //  Obtener un resumen general de los presupuestos del usuario
@@ -150,52 +163,30 @@ public class BudgetServiceImpl implements BudgetService {
     public BudgetSummary getBudgetSummary(Long userId) {
         log.info("Obteniendo resumen de presupuestos para el usuario: {}", userId);
 
-        // Buscar todos los presupuestos y los activos
-        List<Budget> allBudgets = budgetRepository.findByUserId(userId);
-        List<Budget> activeBudgets = budgetRepository.findByUserIdAndIsActive(userId, true);
-
-        // Variables de conteo y acumulación
-        int budgetsOnTrack = 0;     // Presupuestos dentro del límite
-        int budgetsWithWarning = 0; // Presupuestos cerca del límite
-        int budgetsExceeded = 0;    // Presupuestos excedidos
-        BigDecimal totalBudgeted = BigDecimal.ZERO;
-        BigDecimal totalSpent = BigDecimal.ZERO;
-
-        // Calcular progreso para cada presupuesto activo
-        for (Budget budget : activeBudgets) {
-            totalBudgeted = totalBudgeted.add(budget.getAmount());
-
-            // Consultar gasto real al microservicio de transacciones
-            BigDecimal spent = transactionClient.calculateSpentAmount(
-                    userId,
-                    budget.getCategoryId(),
-                    budget.getStartDate(),
-                    budget.getEndDate()
-            );
-
-            totalSpent = totalSpent.add(spent);
-
-            // Calcular porcentaje utilizado
-            BigDecimal percentageUsed = spent.divide(budget.getAmount(), 4, RoundingMode.HALF_UP)
-                    .multiply(BigDecimal.valueOf(100));
-
-            // Clasificar estado del presupuesto
-            if (percentageUsed.compareTo(BigDecimal.valueOf(100)) >= 0) {
-                budgetsExceeded++;
-            } else if (percentageUsed.compareTo(budget.getAlertThreshold()) >= 0) {
-                budgetsWithWarning++;
-            } else {
-                budgetsOnTrack++;
-            }
+        // Solo los presupuestos activos sin gasto calculado necesitan consultar a transacciones
+        // (los snapshots se piden en paralelo y con un plazo máximo; se guardan antes de resumir)
+        List<Budget> pendingBudgets = budgetRepository.findByUserIdAndIsActiveAndSpentIsNull(userId, true);
+        if (!pendingBudgets.isEmpty()) {
+            spentCounterService.ensureSpent(userId, pendingBudgets);
         }
 
+        // Conteos, clasificación y montos salen de una sola consulta agregada
+        Object[] data = budgetRepository.summarizeByUserId(userId).get(0);
+        int totalBudgets = ((Number) data[0]).intValue();
+        int activeBudgets = ((Number) data[1]).intValue();
+        int budgetsExceeded = ((Number) data[2]).intValue();
+        int budgetsWithWarning = ((Number) data[3]).intValue();
+        int budgetsOnTrack = activeBudgets - budgetsExceeded - budgetsWithWarning;
+        BigDecimal totalBudgeted = (BigDecimal) data[4];
+        BigDecimal totalSpent = (BigDecimal) data[5];
+
         // Calcular total restante
         BigDecimal totalRemaining = totalBudgeted.subtract(totalSpent);
 
         // Crear objeto resumen
         return new BudgetSummary(
-                allBudgets.size(),    // total de presupuestos
-                activeBudgets.size(), // total activos
+                totalBudgets,
+                activeBudgets,
                 budgetsOnTrack,
                 budgetsWithWarning,
                 budgetsExceeded,
@@ -205,22 +196,39 @@ public class BudgetServiceImpl implements BudgetService {
         );
     }
 
-    //  Obtener un presupuesto con su progreso actual (porcentaje, gasto, alertas, etc.)
+    //  Obtener un presupuesto con su progreso actual (porcentaje, gasto, estado)
+    //  Las lecturas no crean alertas (las genera BudgetAlertEngine cuando cambia el gasto) y van en
+    //  transacciones de solo lectura del repositorio; solo el primer cálculo del gasto escribe
     @Override
-    @Transactional
     public BudgetResponse getBudgetWithProgress(Long id, Long userId) {
         // Buscar presupuesto
         Budget budget = budgetRepository.findByIdAndUserId(id, userId)
                 .orElseThrow(() -> new ResourceNotFoundException("Presupuesto no encontrado."));
 
-        // Obtener el gasto total del microservicio de transacciones
-        BigDecimal spent = transactionClient.calculateSpentAmount(
-                userId,
-                budget.getCategoryId(),
-                budget.getStartDate(),
-                budget.getEndDate()
-        );
+        // El gasto se mantiene localmente; solo se consulta a transacciones si aún no está calculado
+        spentCounterService.ensureSpent(userId, List.of(budget));
+
+        return buildResponse(budget, budget.getSpent());
+    }
+
+    //  Calcular el progreso de una lista de presupuestos con el gasto mantenido localmente
+    //  (los que aún no lo tienen se calculan juntos con una sola llamada remota)
+    private List<BudgetResponse> mapWithProgress(List<Budget> budgets, Long userId) {
+        if (budgets.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        spentCounterService.ensureSpent(userId, budgets);
+
+        List<BudgetResponse> responses = new ArrayList<>(budgets.size());
+        for (Budget budget : budgets) {
+            responses.add(buildResponse(budget, budget.getSpent()));
+        }
+        return responses;
+    }
 
+    //  Construir la respuesta de un presupuesto a partir del gasto ya calculado
+    private BudgetResponse buildResponse(Budget budget, BigDecimal spent) {
         // Calcular saldo restante y porcentaje de uso
         BigDecimal remaining = budget.getAmount().subtract(spent);
         BigDecimal percentageUsed = spent.divide(budget.getAmount(), 4, RoundingMode.HALF_UP)
@@ -230,10 +238,8 @@ public class BudgetServiceImpl implements BudgetService {
         BudgetStatus status;
         if (percentageUsed.compareTo(BigDecimal.valueOf(100)) >= 0) {
             status = BudgetStatus.EXCEEDED;
-            createAlertIfNeeded(budget, percentageUsed, AlertType.EXCEEDED);
         } else if (percentageUsed.compareTo(budget.getAlertThreshold()) >= 0) {
             status = BudgetStatus.WARNING;
-            createAlertIfNeeded(budget, percentageUsed, AlertType.WARNING);
         } else {
             status = BudgetStatus.ON_TRACK;
         }
@@ -254,41 +260,13 @@ public class BudgetServiceImpl implements BudgetService {
         response.setStatus(status);
         response.setAlertThreshold(budget.getAlertThreshold());
         response.setIsActive(budget.getIsActive());
+        response.setAutoRenew(budget.getAutoRenew());
+        response.setCarryOver(budget.getCarryOver());
+        response.setCarriedOver(budget.getCarriedOver());
+        response.setPreviousBudgetId(budget.getPreviousBudgetId());
         response.setCreatedAt(budget.getCreatedAt());
         response.setUpdatedAt(budget.getUpdatedAt());
 
         return response;
     }
-
-    //  Crear alerta si el presupuesto se acerca o supera el límite
-    private void createAlertIfNeeded(Budget budget, BigDecimal percentageUsed, AlertType alertType) {
-        // Verificar si ya existe una alerta activa del mismo tipo
-        List<BudgetAlert> existingAlerts = budgetAlertRepository.findByBudgetId(budget.getId());
-
-        boolean alertExists = existingAlerts.stream()
-                .anyMatch(alert -> alert.getType() == alertType && !alert.getIsRead());
-
-        // Si no existe una alerta activa, crear una nueva
-        if (!alertExists) {
-            BudgetAlert alert = new BudgetAlert();
-            alert.setBudgetId(budget.getId());
-            alert.setUserId(budget.getUserId());
-            alert.setType(alertType);
-            alert.setPercentageUsed(percentageUsed);
-            alert.setIsRead(false);
-
-            // Mensaje de alerta según el tipo
-            String message = alertType == AlertType.WARNING ?
-                    String.format("El presupuesto '%s' ha alcanzado el %.2f%% de su límite asignado.",
-                            budget.getName(), percentageUsed) :
-                    String.format("El presupuesto '%s' ha sido excedido (%.2f%%).",
-                            budget.getName(), percentageUsed);
-
-            alert.setMessage(message);
-
-            // Guardar alerta
-            budgetAlertRepository.save(alert);
-            log.info("Alerta de presupuesto creada para el presupuesto ID: {}", budget.getId());
-        }
-    }
 }
\ No newline at end of file
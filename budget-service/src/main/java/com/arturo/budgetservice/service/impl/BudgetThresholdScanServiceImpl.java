@@ -0,0 +1,169 @@
+package com.arturo.budgetservice.service.impl;
+
+import com.arturo.budgetservice.entity.Budget;
+import com.arturo.budgetservice.entity.ScanCheckpoint;
+import com.arturo.budgetservice.exception.ServiceTimeoutException;
+import com.arturo.budgetservice.repository.BudgetRepository;
+import com.arturo.budgetservice.repository.ScanCheckpointRepository;
+import com.arturo.budgetservice.service.BudgetAlertEngine;
+import com.arturo.budgetservice.service.BudgetThresholdScanService;
+import com.arturo.budgetservice.service.SpentCounterService;
+import feign.FeignException;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Collectors;
+
+/*
+  Escaneo masivo de umbrales: revisa todos los presupuestos activos aunque nadie los abra.
+  - el rango de ids se reparte en particiones que se procesan en paralelo (también entre instancias)
+  - cada partición se recorre por bloques de id; el avance se guarda tras cada bloque, así que tras un
+    reinicio se continúa donde quedó (las alertas no se duplican: solo se alerta al cruzar un umbral nuevo)
+  - el gasto ya está materializado; solo los presupuestos sin calcular consultan a transaction-service,
+    agrupados por usuario y con un máximo de consultas simultáneas
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BudgetThresholdScanServiceImpl implements BudgetThresholdScanService {
+
+    private static final String SCAN_NAME = "threshold-scan";
+
+    private final BudgetRepository budgetRepository;                   // Presupuestos por rango de id
+    private final ScanCheckpointRepository scanCheckpointRepository;   // Avance de cada partición
+    private final SpentCounterService spentCounterService;             // Gasto de los presupuestos sin calcular
+    private final BudgetAlertEngine budgetAlertEngine;                 // Alertas con INSERT por lotes
+
+    private final String owner = UUID.randomUUID().toString(); // Identifica a esta instancia en las reservas
+
+    @Value("${budget.threshold-scan.partitions:32}")
+    private int partitions;
+
+    @Value("${budget.threshold-scan.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${budget.threshold-scan.lease-ms:300000}")
+    private long leaseMs;
+
+    @Value("${budget.threshold-scan.max-concurrent-lookups:2}")
+    private int maxConcurrentLookups;
+
+    private Semaphore lookupPermits; // Consultas simultáneas a transaction-service entre todas las particiones
+
+    @PostConstruct
+    public void init() {
+        lookupPermits = new Semaphore(Math.max(1, maxConcurrentLookups));
+    }
+
+    @Override
+    @Transactional
+    public List<String> prepareRun() {
+        // La fila del escaneo sirve de bloqueo: una sola instancia reparte la nueva ejecución
+        scanCheckpointRepository.findByNameForUpdate(SCAN_NAME)
+                .orElseGet(() -> scanCheckpointRepository.saveAndFlush(
+                        new ScanCheckpoint(SCAN_NAME, 0L, 0L, true, null, null, null)));
+
+        List<ScanCheckpoint> current = scanCheckpointRepository.findByNameStartingWithOrderByNameAsc(SCAN_NAME + ":");
+        List<String> pending = current.stream()
+                .filter(checkpoint -> !checkpoint.getCompleted())
+                .map(ScanCheckpoint::getName)
+                .collect(Collectors.toList());
+        if (!pending.isEmpty()) {
+            log.info("Escaneo de umbrales en curso: {} de {} particiones pendientes", pending.size(), current.size());
+            return pending;
+        }
+
+        // El escaneo anterior terminó (o es el primero): se reparte el rango actual de ids
+        scanCheckpointRepository.deleteAll(current);
+        Long maxId = budgetRepository.findMaxId();
+        if (maxId == null) {
+            return List.of();
+        }
+
+        long size = Math.max(1L, (maxId + partitions - 1) / partitions);
+        List<ScanCheckpoint> created = new ArrayList<>();
+        for (long lower = 0; lower < maxId; lower += size) {
+            created.add(new ScanCheckpoint(
+                    String.format("%s:%04d", SCAN_NAME, created.size()),
+                    lower, Math.min(lower + size, maxId), false, null, null, null));
+        }
+        scanCheckpointRepository.saveAll(created);
+        log.info("Nuevo escaneo de umbrales: ids hasta {} en {} particiones", maxId, created.size());
+        return created.stream().map(ScanCheckpoint::getName).collect(Collectors.toList());
+    }
+
+    @Override
+    public int scanPartition(String name) {
+        if (scanCheckpointRepository.claim(name, owner, LocalDateTime.now(), leaseUntil()) == 0) {
+            return 0; // Terminada o reservada por otra instancia
+        }
+        ScanCheckpoint checkpoint = scanCheckpointRepository.findById(name).orElse(null);
+        if (checkpoint == null) {
+            return 0;
+        }
+
+        long lastId = checkpoint.getLastId();
+        int scanned = 0;
+        while (true) {
+            List<Budget> chunk = budgetRepository.findByIsActiveAndIdGreaterThanAndIdLessThanEqualOrderByIdAsc(
+                    true, lastId, checkpoint.getUpperId(), PageRequest.of(0, chunkSize));
+            if (!chunk.isEmpty()) {
+                ensureSpent(chunk);
+                budgetAlertEngine.evaluateBudgets(chunk);
+                lastId = chunk.get(chunk.size() - 1).getId();
+                scanned += chunk.size();
+            }
+
+            boolean completed = chunk.size() < chunkSize;
+            if (scanCheckpointRepository.advance(
+                    name, owner, lastId, completed, LocalDateTime.now(), leaseUntil()) == 0) {
+                log.warn("La partición {} pasó a otra instancia; se detiene en el id {}", name, lastId);
+                break;
+            }
+            if (completed) {
+                break;
+            }
+        }
+        return scanned;
+    }
+
+    // Calcula el gasto de los presupuestos del bloque que no lo tienen: una consulta por usuario
+    // Si transaction-service no responde, esos presupuestos se omiten y se revisan en el próximo escaneo
+    private void ensureSpent(List<Budget> chunk) {
+        Map<Long, List<Budget>> missingByUser = chunk.stream()
+                .filter(budget -> budget.getSpent() == null)
+                .collect(Collectors.groupingBy(Budget::getUserId, LinkedHashMap::new, Collectors.toList()));
+
+        for (Map.Entry<Long, List<Budget>> entry : missingByUser.entrySet()) {
+            try {
+                lookupPermits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            try {
+                spentCounterService.ensureSpent(entry.getKey(), entry.getValue());
+            } catch (FeignException | ServiceTimeoutException ex) {
+                log.warn("No se pudo calcular el gasto del usuario {}: {}", entry.getKey(), ex.getMessage());
+            } finally {
+                lookupPermits.release();
+            }
+        }
+    }
+
+    private LocalDateTime leaseUntil() {
+        return LocalDateTime.now().plusNanos(leaseMs * 1_000_000L);
+    }
+}
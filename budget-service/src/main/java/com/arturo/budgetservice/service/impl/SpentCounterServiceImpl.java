@@ -0,0 +1,184 @@
+package com.arturo.budgetservice.service.impl;
+
+import com.arturo.budgetservice.client.TransactionClient;
+import com.arturo.budgetservice.dto.SpentEventDTO;
+import com.arturo.budgetservice.dto.SpentSnapshotDTO;
+import com.arturo.budgetservice.dto.request.SpentAmountRequest;
+import com.arturo.budgetservice.entity.Budget;
+import com.arturo.budgetservice.exception.ServiceTimeoutException;
+import com.arturo.budgetservice.executor.SpentLookupEngine;
+import com.arturo.budgetservice.registry.OutOfOrderIdWindow;
+import com.arturo.budgetservice.repository.BudgetRepository;
+import com.arturo.budgetservice.service.SpentCounterService;
+import feign.FeignException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/*
+  Mantiene el gasto acumulado de cada presupuesto (Budget.spent) sin consultar a transaction-service
+  en cada lectura:
+  - transaction-service escribe un evento en su outbox por cada alta, edición o baja de un GASTO
+  - pollEvents() lee los eventos en orden y suma cada variación a los presupuestos que la cubren
+  - los ids se asignan al insertar pero se vuelven visibles al confirmar: un id menor puede aparecer después
+    de uno mayor, así que cada lectura vuelve a pedir una ventana bajo el cursor (overlap) y solo aplica
+    los eventos que no figuran en applied_outbox_events. Se asume que ninguna transacción de
+    transaction-service confirma más de 'overlap' ids por detrás de la última visible; la métrica
+    budget.spent_sync.late_event_lag mide ese retraso real
+  - los presupuestos nuevos o editados se calculan una vez con un snapshot (montos + eventos incluidos);
+    si son muchos, los snapshots se piden por bloques en paralelo (SpentLookupEngine) con un plazo común
+  - Budget.spentEventId es el id hasta el que el gasto incluye todos los eventos; por encima incluye
+    exactamente los ya aplicados por el poller, que aplica cada evento nuevo a los presupuestos con
+    spentEventId menor
+  - reconcile() recalcula periódicamente y registra cualquier diferencia con el valor mantenido
+  Las llamadas a transaction-service se hacen sin bloqueo; las escrituras de 'spent' van en SpentCounterWriter,
+  que toma el bloqueo del cursor solo para aplicar lo leído. Tras cada lectura se confirma a transaction-service
+  el id hasta el que ya no se releen eventos, para que solo purgue por debajo de él.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SpentCounterServiceImpl implements SpentCounterService {
+
+    private final BudgetRepository budgetRepository;             // Presupuestos con su gasto materializado
+    private final SpentCounterWriter spentCounterWriter;         // Escrituras del gasto con el cursor bloqueado
+    private final TransactionClient transactionClient;           // Outbox y snapshots de transaction-service
+    private final SpentLookupEngine spentLookupEngine;           // Snapshots por bloques en paralelo, con plazo
+
+    @Value("${budget.spent-sync.batch-size:500}")
+    private int batchSize;
+
+    @Value("${budget.spent-sync.overlap:100}")
+    private int overlap; // Ids anteriores al cursor que se vuelven a revisar (debe ser menor que batchSize)
+
+    @Value("${budget.spent-sync.snapshot-chunk-size:25}")
+    private int snapshotChunkSize;
+
+    @Value("${budget.spent-sync.rebase-attempts:3}")
+    private int rebaseAttempts; // Lecturas del hueco de eventos si el poller avanza mientras tanto
+
+    private volatile long acknowledgedId; // Último id confirmado a transaction-service desde esta instancia
+
+    @Override
+    public void ensureSpent(Long userId, List<Budget> budgets) {
+        List<Budget> missing = budgets.stream()
+                .filter(budget -> budget.getSpent() == null)
+                .collect(Collectors.toList());
+        if (!missing.isEmpty()) {
+            refresh(userId, missing);
+        }
+    }
+
+    @Override
+    public int pollEvents() {
+        // La lectura remota va antes del bloqueo; SpentCounterWriter descarta lo que otra instancia ya aplicó
+        long afterId = OutOfOrderIdWindow.readFrom(spentCounterWriter.currentCursor(), overlap);
+        List<SpentEventDTO> events = transactionClient.getSpentEvents(afterId, batchSize);
+        if (!events.isEmpty()) {
+            long cursorId = spentCounterWriter.applyEvents(events);
+            acknowledge(OutOfOrderIdWindow.readFrom(cursorId, overlap));
+        }
+        return events.size();
+    }
+
+    @Override
+    public int reconcile(Long userId, List<Long> budgetIds) {
+        List<Budget> budgets = budgetRepository.findAllById(budgetIds);
+        if (budgets.isEmpty()) {
+            return 0;
+        }
+        return refresh(userId, budgets);
+    }
+
+    // Recalcula el gasto de los presupuestos con un snapshot y lo deja alineado con el poller
+    // Devuelve cuántos presupuestos tenían un gasto distinto al recalculado
+    private int refresh(Long userId, List<Budget> budgets) {
+        List<SpentSnapshotDTO> snapshots = fetchSnapshots(userId, budgets);
+
+        long settledFrom = Long.MAX_VALUE;
+        long snapshotUpTo = 0L;
+        for (SpentSnapshotDTO snapshot : snapshots) {
+            settledFrom = Math.min(settledFrom, snapshot.getSettledEventId());
+            snapshotUpTo = Math.max(snapshotUpTo, snapshot.getLastEventId());
+        }
+
+        for (int attempt = 1; attempt <= rebaseAttempts; attempt++) {
+            // Eventos del usuario por encima de lo que un snapshot o el poller dan por cerrado, leídos sin bloqueo;
+            // si el poller aplica algo que esta lectura no vio antes del recálculo, se vuelve a leer
+            long cursorId = spentCounterWriter.currentCursor();
+            long fromId = Math.min(OutOfOrderIdWindow.readFrom(cursorId, overlap), settledFrom);
+            long upToId = Math.max(cursorId, snapshotUpTo);
+            Set<Long> fetchedIds = new HashSet<>();
+            List<SpentEventDTO> gap = fetchEvents(userId, fromId, upToId, fetchedIds);
+
+            Integer drifted = spentCounterWriter.rebase(userId, budgets, snapshots, gap, fetchedIds, cursorId);
+            if (drifted != null) {
+                return drifted;
+            }
+            log.debug("El outbox avanzó durante el recálculo del usuario {} (intento {})", userId, attempt);
+        }
+        throw new ServiceTimeoutException("No se pudo recalcular el gasto del usuario " + userId
+                + ": el outbox avanza más rápido que la lectura");
+    }
+
+    // Confirma a transaction-service que los eventos hasta upToId ya no se releen (puede purgarlos)
+    private void acknowledge(long upToId) {
+        if (upToId <= acknowledgedId) {
+            return;
+        }
+        try {
+            transactionClient.acknowledgeSpentEvents(upToId);
+            acknowledgedId = upToId;
+        } catch (FeignException ex) {
+            // Sin confirmación transaction-service solo conserva más eventos; se reintenta en la próxima lectura
+            log.warn("No se pudo confirmar el outbox hasta {}: {}", upToId, ex.getMessage());
+        }
+    }
+
+    // Un snapshot por cada bloque de snapshotChunkSize presupuestos, pedidos en paralelo
+    // Un usuario con pocos presupuestos hace una sola llamada; uno con cientos no espera cada bloque en serie
+    private List<SpentSnapshotDTO> fetchSnapshots(Long userId, List<Budget> budgets) {
+        List<Supplier<SpentSnapshotDTO>> calls = new ArrayList<>();
+        for (int from = 0; from < budgets.size(); from += snapshotChunkSize) {
+            List<SpentAmountRequest> requests = budgets.subList(from, Math.min(from + snapshotChunkSize, budgets.size()))
+                    .stream()
+                    .map(budget -> new SpentAmountRequest(
+                            budget.getCategoryId(), budget.getStartDate(), budget.getEndDate()))
+                    .collect(Collectors.toList());
+            calls.add(() -> transactionClient.getSpentSnapshot(userId, requests));
+        }
+        return spentLookupEngine.invokeAll(calls);
+    }
+
+    // Eventos del usuario con id en (afterId, upToId]; normalmente son pocos (los de la ventana del poller)
+    // En fetchedIds quedan los ids de todos los usuarios vistos en ese rango
+    private List<SpentEventDTO> fetchEvents(Long userId, long afterId, long upToId, Set<Long> fetchedIds) {
+        List<SpentEventDTO> result = new ArrayList<>();
+        long lastId = afterId;
+        while (lastId < upToId) {
+            List<SpentEventDTO> events = transactionClient.getSpentEvents(lastId, batchSize);
+            if (events.isEmpty()) {
+                break;
+            }
+            for (SpentEventDTO event : events) {
+                if (event.getId() > upToId) {
+                    continue;
+                }
+                fetchedIds.add(event.getId());
+                if (event.getUserId().equals(userId)) {
+                    result.add(event);
+                }
+            }
+            lastId = events.get(events.size() - 1).getId();
+        }
+        return result;
+    }
+}
@@ -0,0 +1,220 @@
+package com.arturo.budgetservice.service.impl;
+
+import com.arturo.budgetservice.dto.SpentEventDTO;
+import com.arturo.budgetservice.dto.SpentSnapshotDTO;
+import com.arturo.budgetservice.entity.Budget;
+import com.arturo.budgetservice.entity.OutboxCursor;
+import com.arturo.budgetservice.registry.OutOfOrderIdWindow;
+import com.arturo.budgetservice.repository.AppliedOutboxEventRepository;
+import com.arturo.budgetservice.repository.BudgetRepository;
+import com.arturo.budgetservice.repository.OutboxCursorRepository;
+import com.arturo.budgetservice.service.BudgetAlertEngine;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/*
+  Escrituras del gasto materializado que toman el bloqueo del cursor del outbox.
+  No hace llamadas remotas: SpentCounterServiceImpl pide antes los eventos y snapshots a transaction-service
+  y aquí solo se aplican, así el bloqueo dura lo que tardan las sentencias locales.
+  - applyEvents bloquea el cursor en exclusiva (FOR UPDATE): una sola instancia aplica eventos a la vez
+  - rebase lo bloquea en modo compartido (FOR SHARE): los recálculos de distintos usuarios no se esperan
+    entre sí, solo se excluyen con el poller
+ */
+@Component
+@Slf4j
+public class SpentCounterWriter {
+
+    static final String CURSOR_NAME = "transaction-outbox";
+
+    private final BudgetRepository budgetRepository;             // Presupuestos con su gasto materializado
+    private final OutboxCursorRepository outboxCursorRepository; // Mayor evento del outbox aplicado
+    private final AppliedOutboxEventRepository appliedOutboxEventRepository; // Eventos aplicados en la ventana
+    private final BudgetAlertEngine budgetAlertEngine;           // Alertas de los usuarios cuyo gasto cambió
+    private final DistributionSummary lateEventLag;              // Ids de retraso de los eventos confirmados tarde
+
+    @Value("${budget.spent-sync.overlap:100}")
+    private int overlap; // Ids anteriores al cursor que se vuelven a revisar
+
+    @Value("${budget.spent-sync.snapshot-chunk-size:25}")
+    private int snapshotChunkSize;
+
+    public SpentCounterWriter(BudgetRepository budgetRepository,
+                              OutboxCursorRepository outboxCursorRepository,
+                              AppliedOutboxEventRepository appliedOutboxEventRepository,
+                              BudgetAlertEngine budgetAlertEngine,
+                              MeterRegistry meterRegistry) {
+        this.budgetRepository = budgetRepository;
+        this.outboxCursorRepository = outboxCursorRepository;
+        this.appliedOutboxEventRepository = appliedOutboxEventRepository;
+        this.budgetAlertEngine = budgetAlertEngine;
+        // Distancia entre el cursor y un evento que aparece por debajo de él: si el máximo se acerca a
+        // budget.spent-sync.overlap, la ventana se queda corta y hay que ampliarla
+        this.lateEventLag = DistributionSummary.builder("budget.spent_sync.late_event_lag")
+                .description("Ids entre el cursor y los eventos de gasto confirmados tarde")
+                .register(meterRegistry);
+    }
+
+    // Mayor id aplicado, leído sin bloqueo: punto de partida de las lecturas remotas
+    @Transactional(readOnly = true)
+    public long currentCursor() {
+        return outboxCursorRepository.findById(CURSOR_NAME)
+                .map(OutboxCursor::getLastEventId)
+                .orElse(0L);
+    }
+
+    // Aplica los eventos ya leídos del outbox que no estén aplicados y devuelve el cursor resultante
+    @Transactional
+    public long applyEvents(List<SpentEventDTO> events) {
+        OutboxCursor cursor = lockCursor();
+
+        // Los eventos se leyeron sin bloqueo: otra instancia pudo aplicar parte de ellos entretanto, por eso
+        // la ventana y los aplicados se toman aquí y no en la lectura
+        OutOfOrderIdWindow window = new OutOfOrderIdWindow(cursor.getLastEventId(), overlap);
+        window.markSeen(appliedOutboxEventRepository.findIdsAfter(window.readFrom()));
+
+        List<Long> appliedNow = new ArrayList<>();
+        Set<Long> userIds = new HashSet<>();
+        for (SpentEventDTO event : events) {
+            long lag = window.cursor() - event.getId();
+            if (!window.accept(event.getId())) {
+                continue;
+            }
+            budgetRepository.applySpentDelta(
+                    event.getUserId(),
+                    event.getCategoryId(),
+                    event.getTransactionDate(),
+                    event.getAmountDelta(),
+                    event.getId()
+            );
+            if (lag > 0) {
+                lateEventLag.record(lag);
+                if (lag > overlap / 2) {
+                    log.warn("Evento de gasto {} confirmado {} ids por debajo del cursor (overlap: {})",
+                            event.getId(), lag, overlap);
+                }
+            }
+            appliedNow.add(event.getId());
+            userIds.add(event.getUserId());
+        }
+        cursor.setLastEventId(window.cursor());
+
+        // Ids aplicados y cursor se guardan en la misma transacción que las sumas: cada evento se aplica una sola vez
+        if (!appliedNow.isEmpty()) {
+            appliedOutboxEventRepository.insertAll(appliedNow);
+            outboxCursorRepository.save(cursor);
+            log.debug("Eventos de gasto aplicados: {} (mayor: {})", appliedNow.size(), cursor.getLastEventId());
+
+            budgetAlertEngine.requestEvaluation(userIds);
+        }
+        appliedOutboxEventRepository.deleteUpTo(window.readFrom());
+        return window.cursor();
+    }
+
+    // Recalcula el gasto de los presupuestos con sus snapshots y los eventos del usuario ('gap') leídos con el
+    // cursor en fetchedCursorId; fetchedIds son todos los ids (de cualquier usuario) que devolvió esa lectura
+    // Devuelve cuántos tenían un gasto distinto al recalculado, o null si el poller aplicó entretanto algún
+    // evento que la lectura no vio (el llamador debe repetirla)
+    @Transactional
+    public Integer rebase(Long userId, List<Budget> budgets, List<SpentSnapshotDTO> snapshots,
+                          List<SpentEventDTO> gap, Set<Long> fetchedIds, long fetchedCursorId) {
+        // Primera sentencia de la transacción: la lectura de abajo ya ve todo lo que el poller confirmó antes
+        long cursorId = shareCursor();
+        if (cursorId != fetchedCursorId) {
+            return null;
+        }
+
+        // Hasta readFrom() el poller ya aplicó todos los eventos; por encima, los de 'applied'
+        OutOfOrderIdWindow window = new OutOfOrderIdWindow(cursorId, overlap);
+        Set<Long> applied = appliedOutboxEventRepository.findIdsAfter(window.readFrom());
+        // Un evento confirmado tarde puede aplicarse sin mover el cursor: si no estaba en la lectura, el
+        // recálculo lo daría por aplicado sin haberlo sumado
+        if (!fetchedIds.containsAll(applied)) {
+            return null;
+        }
+        window.markSeen(applied);
+
+        List<Set<Long>> included = new ArrayList<>(snapshots.size());
+        for (SpentSnapshotDTO snapshot : snapshots) {
+            included.add(new HashSet<>(snapshot.getIncludedEventIds()));
+        }
+
+        int drifted = 0;
+        for (int i = 0; i < budgets.size(); i++) {
+            Budget budget = budgets.get(i);
+            SpentSnapshotDTO snapshot = snapshots.get(i / snapshotChunkSize);
+            Set<Long> snapshotIds = included.get(i / snapshotChunkSize);
+            long settledId = snapshot.getSettledEventId();
+
+            // Se lleva el snapshot a "todo hasta settledId + lo ya aplicado por el poller": se quitan los
+            // eventos incluidos y se suman los aplicados; el resto lo aplicará el poller (id > settledId)
+            BigDecimal expected = snapshot.getAmounts().get(i % snapshotChunkSize);
+            for (SpentEventDTO event : gap) {
+                if (event.getId() > settledId && covers(budget, event)) {
+                    if (snapshotIds.contains(event.getId())) {
+                        expected = expected.subtract(event.getAmountDelta());
+                    }
+                    if (window.contains(event.getId())) {
+                        expected = expected.add(event.getAmountDelta());
+                    }
+                }
+            }
+
+            if (budget.getSpent() != null) {
+                // El valor guardado incluye todo hasta su spentEventId y lo aplicado por encima: solo difiere
+                // del recalculado en los eventos sin aplicar entre ambos ids
+                long storedId = budget.getSpentEventId() != null ? budget.getSpentEventId() : 0L;
+                BigDecimal current = budget.getSpent();
+                for (SpentEventDTO event : gap) {
+                    if (window.contains(event.getId()) || !covers(budget, event)) {
+                        continue;
+                    }
+                    if (event.getId() > storedId && event.getId() <= settledId) {
+                        current = current.add(event.getAmountDelta());
+                    } else if (event.getId() > settledId && event.getId() <= storedId) {
+                        current = current.subtract(event.getAmountDelta());
+                    }
+                }
+                if (current.compareTo(expected) != 0) {
+                    drifted++;
+                    log.warn("Diferencia en el gasto del presupuesto {}: mantenido {}, recalculado {}",
+                            budget.getId(), current, expected);
+                }
+            }
+
+            budget.setSpent(expected);
+            budget.setSpentEventId(settledId);
+        }
+        budgetRepository.saveAll(budgets);
+        budgetAlertEngine.requestEvaluation(List.of(userId));
+        return drifted;
+    }
+
+    // Un evento afecta al presupuesto si es de su categoría (o el presupuesto es general) y cae en su rango
+    private boolean covers(Budget budget, SpentEventDTO event) {
+        return event.getUserId().equals(budget.getUserId())
+                && (budget.getCategoryId() == null || budget.getCategoryId().equals(event.getCategoryId()))
+                && !event.getTransactionDate().isBefore(budget.getStartDate())
+                && !event.getTransactionDate().isAfter(budget.getEndDate());
+    }
+
+    private OutboxCursor lockCursor() {
+        return outboxCursorRepository.findByNameForUpdate(CURSOR_NAME)
+                .orElseGet(() -> outboxCursorRepository.save(new OutboxCursor(CURSOR_NAME, 0L, null)));
+    }
+
+    private long shareCursor() {
+        return outboxCursorRepository.findByNameForShare(CURSOR_NAME)
+                .map(OutboxCursor::getLastEventId)
+                .orElse(0L);
+    }
+}
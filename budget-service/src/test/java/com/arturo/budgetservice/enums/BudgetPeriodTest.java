@@ -0,0 +1,67 @@
+package com.arturo.budgetservice.enums;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//Períodos contados desde el ancla: fines de mes y 29 de febrero no se corren al encadenar
+class BudgetPeriodTest {
+
+    @Test
+    void monthlyFromMonthEndKeepsMonthEnd() {
+        LocalDate anchor = LocalDate.of(2026, 1, 31);
+
+        assertThat(BudgetPeriod.MENSUAL.startOf(anchor, 0)).isEqualTo(anchor);
+        assertThat(BudgetPeriod.MENSUAL.startOf(anchor, 1)).isEqualTo(LocalDate.of(2026, 2, 28));
+        assertThat(BudgetPeriod.MENSUAL.startOf(anchor, 2)).isEqualTo(LocalDate.of(2026, 3, 31));
+        assertThat(BudgetPeriod.MENSUAL.startOf(anchor, 3)).isEqualTo(LocalDate.of(2026, 4, 30));
+        assertThat(BudgetPeriod.MENSUAL.startOf(anchor, 4)).isEqualTo(LocalDate.of(2026, 5, 31));
+        assertThat(BudgetPeriod.MENSUAL.endOf(anchor, 0)).isEqualTo(LocalDate.of(2026, 2, 27));
+        assertThat(BudgetPeriod.MENSUAL.endOf(anchor, 1)).isEqualTo(LocalDate.of(2026, 3, 30));
+    }
+
+    @Test
+    void monthlyFromMonthEndInLeapYear() {
+        LocalDate anchor = LocalDate.of(2028, 1, 31);
+
+        assertThat(BudgetPeriod.MENSUAL.startOf(anchor, 1)).isEqualTo(LocalDate.of(2028, 2, 29));
+        assertThat(BudgetPeriod.MENSUAL.endOf(anchor, 0)).isEqualTo(LocalDate.of(2028, 2, 28));
+    }
+
+    @Test
+    void yearlyFromFebruary29() {
+        LocalDate anchor = LocalDate.of(2024, 2, 29);
+
+        assertThat(BudgetPeriod.ANUAL.startOf(anchor, 1)).isEqualTo(LocalDate.of(2025, 2, 28));
+        assertThat(BudgetPeriod.ANUAL.startOf(anchor, 3)).isEqualTo(LocalDate.of(2027, 2, 28));
+        assertThat(BudgetPeriod.ANUAL.startOf(anchor, 4)).isEqualTo(LocalDate.of(2028, 2, 29));
+        assertThat(BudgetPeriod.ANUAL.endOf(anchor, 0)).isEqualTo(LocalDate.of(2025, 2, 27));
+        assertThat(BudgetPeriod.ANUAL.endOf(anchor, 3)).isEqualTo(LocalDate.of(2028, 2, 28));
+    }
+
+    @Test
+    void quarterlyFromMonthEnd() {
+        LocalDate anchor = LocalDate.of(2026, 11, 30);
+
+        assertThat(BudgetPeriod.TRIMESTRAL.startOf(anchor, 1)).isEqualTo(LocalDate.of(2027, 2, 28));
+        assertThat(BudgetPeriod.TRIMESTRAL.startOf(anchor, 2)).isEqualTo(LocalDate.of(2027, 5, 30));
+        assertThat(BudgetPeriod.TRIMESTRAL.endOf(anchor, 0)).isEqualTo(LocalDate.of(2027, 2, 27));
+    }
+
+    @Test
+    void periodsAreContiguous() {
+        LocalDate[] anchors = {LocalDate.of(2024, 1, 31), LocalDate.of(2024, 2, 29), LocalDate.of(2026, 8, 31)};
+        for (BudgetPeriod period : BudgetPeriod.values()) {
+            for (LocalDate anchor : anchors) {
+                for (long n = 0; n < 60; n++) {
+                    assertThat(period.endOf(anchor, n).plusDays(1))
+                            .as("%s desde %s, período %d", period, anchor, n)
+                            .isEqualTo(period.startOf(anchor, n + 1));
+                    assertThat(period.endOf(anchor, n)).isAfterOrEqualTo(period.startOf(anchor, n));
+                }
+            }
+        }
+    }
+}
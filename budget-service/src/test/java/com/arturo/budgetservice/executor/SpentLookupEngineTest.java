@@ -0,0 +1,90 @@
+package com.arturo.budgetservice.executor;
+
+import com.arturo.budgetservice.exception.ServiceTimeoutException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+//Plazo común y rechazo inmediato con el pool saturado
+class SpentLookupEngineTest {
+
+    private ThreadPoolTaskExecutor executor;
+    private CountDownLatch release;
+
+    @BeforeEach
+    void setUp() {
+        // Un hilo y un lugar en cola, con la misma política que budgetExecutor
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(1);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.initialize();
+        release = new CountDownLatch(1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdown();
+    }
+
+    @Test
+    void returnsResultsInOrder() {
+        SpentLookupEngine engine = new SpentLookupEngine(executor, 1000);
+
+        List<Integer> results = engine.invokeAll(List.of(() -> 1, () -> 2, () -> 3));
+
+        assertThat(results).containsExactly(1, 2, 3);
+    }
+
+    @Test
+    void failsWhenDeadlineExpires() {
+        SpentLookupEngine engine = new SpentLookupEngine(executor, 50);
+
+        assertThatThrownBy(() -> engine.invokeAll(List.of(this::blocked)))
+                .isInstanceOf(ServiceTimeoutException.class);
+    }
+
+    @Test
+    void rejectsWithoutRunningOnCallerThread() {
+        SpentLookupEngine engine = new SpentLookupEngine(executor, 1000);
+        Thread caller = Thread.currentThread();
+        AtomicBoolean ranOnCaller = new AtomicBoolean();
+        Supplier<Integer> call = () -> {
+            if (Thread.currentThread() == caller) {
+                ranOnCaller.set(true);
+            }
+            return blocked();
+        };
+
+        // Hilo ocupado + cola llena: la tercera consulta no tiene lugar
+        long start = System.nanoTime();
+        assertThatThrownBy(() -> engine.invokeAll(List.of(call, call, call)))
+                .isInstanceOf(ServiceTimeoutException.class)
+                .hasMessageContaining("saturado");
+
+        assertThat(ranOnCaller).isFalse();
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(1000);
+    }
+
+    private Integer blocked() {
+        try {
+            release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return 0;
+    }
+}
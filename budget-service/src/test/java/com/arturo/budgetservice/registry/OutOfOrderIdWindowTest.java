@@ -0,0 +1,73 @@
+package com.arturo.budgetservice.registry;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//Ids que se confirman fuera de orden: relectura de la ventana y descarte de los ya procesados
+class OutOfOrderIdWindowTest {
+
+    @Test
+    void readsFromBelowCursor() {
+        assertThat(new OutOfOrderIdWindow(1000, 100).readFrom()).isEqualTo(900);
+        assertThat(new OutOfOrderIdWindow(40, 100).readFrom()).isZero();
+        assertThat(OutOfOrderIdWindow.readFrom(250, 100)).isEqualTo(150);
+    }
+
+    @Test
+    void acceptsEachIdOnce() {
+        OutOfOrderIdWindow window = new OutOfOrderIdWindow(10, 100);
+
+        assertThat(window.accept(11)).isTrue();
+        assertThat(window.accept(11)).isFalse();
+        assertThat(window.cursor()).isEqualTo(11);
+    }
+
+    @Test
+    void lateIdInsideWindowIsAcceptedWithoutMovingCursorBack() {
+        OutOfOrderIdWindow window = new OutOfOrderIdWindow(1000, 100);
+        window.accept(1001);
+        window.accept(1003);
+
+        // 1002 se confirma después que 1003
+        assertThat(window.accept(1002)).isTrue();
+        assertThat(window.cursor()).isEqualTo(1003);
+        assertThat(window.accept(1002)).isFalse();
+    }
+
+    @Test
+    void idsBelowWindowCountAsProcessed() {
+        OutOfOrderIdWindow window = new OutOfOrderIdWindow(1000, 100);
+
+        assertThat(window.contains(900)).isTrue();
+        assertThat(window.accept(850)).isFalse();
+        assertThat(window.contains(901)).isFalse();
+    }
+
+    @Test
+    void markSeenSkipsIdsAlreadyProcessedElsewhere() {
+        OutOfOrderIdWindow window = new OutOfOrderIdWindow(1000, 100);
+        window.markSeen(List.of(850L, 950L));
+
+        assertThat(window.accept(950)).isFalse();
+        assertThat(window.accept(960)).isTrue();
+    }
+
+    @Test
+    void pruneKeepsOnlyIdsInsideWindow() {
+        OutOfOrderIdWindow window = new OutOfOrderIdWindow(0, 2);
+        for (long id = 1; id <= 5; id++) {
+            window.accept(id);
+        }
+        window.prune();
+
+        // Ventana (3, 5]: 4 y 5 siguen registrados, lo anterior se da por procesado
+        assertThat(window.readFrom()).isEqualTo(3);
+        assertThat(window.accept(4)).isFalse();
+        assertThat(window.accept(5)).isFalse();
+        assertThat(window.accept(3)).isFalse();
+        assertThat(window.accept(6)).isTrue();
+    }
+}
@@ -0,0 +1,195 @@
+package com.arturo.budgetservice.service.impl;
+
+import com.arturo.budgetservice.entity.Budget;
+import com.arturo.budgetservice.enums.BudgetPeriod;
+import com.arturo.budgetservice.repository.BudgetRepository;
+import com.arturo.budgetservice.repository.BudgetRolloverRepository;
+import com.arturo.budgetservice.repository.BudgetRolloverRepository.ExpiredBudget;
+import com.arturo.budgetservice.service.BudgetRolloverService.ChunkResult;
+import com.arturo.budgetservice.service.SpentCounterService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+//Renovación de un bloque de presupuestos vencidos: cadenas de fin de mes, salto de períodos y arrastre
+class BudgetRolloverServiceImplTest {
+
+    private BudgetRolloverRepository budgetRolloverRepository;
+    private BudgetRolloverServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        budgetRolloverRepository = mock(BudgetRolloverRepository.class);
+        service = new BudgetRolloverServiceImpl(
+                budgetRolloverRepository, mock(BudgetRepository.class), mock(SpentCounterService.class));
+    }
+
+    @Test
+    void monthEndChainStaysOnMonthEnd() {
+        LocalDate anchor = LocalDate.of(2026, 1, 31);
+        // Segundo período de la cadena: 28 de febrero - 30 de marzo
+        ExpiredBudget expired = budget(1L, BudgetPeriod.MENSUAL, anchor,
+                LocalDate.of(2026, 2, 28), LocalDate.of(2026, 3, 30));
+
+        Budget renewal = rolloverOne(LocalDate.of(2026, 3, 31), expired);
+
+        assertThat(renewal.getStartDate()).isEqualTo(LocalDate.of(2026, 3, 31));
+        assertThat(renewal.getEndDate()).isEqualTo(LocalDate.of(2026, 4, 29));
+        assertThat(renewal.getPeriodAnchor()).isEqualTo(anchor);
+        assertThat(renewal.getPreviousBudgetId()).isEqualTo(1L);
+    }
+
+    @Test
+    void february29ChainReturnsToFebruary29() {
+        LocalDate anchor = LocalDate.of(2024, 2, 29);
+        ExpiredBudget expired = budget(1L, BudgetPeriod.ANUAL, anchor,
+                LocalDate.of(2027, 2, 28), LocalDate.of(2028, 2, 28));
+
+        Budget renewal = rolloverOne(LocalDate.of(2028, 2, 29), expired);
+
+        assertThat(renewal.getStartDate()).isEqualTo(LocalDate.of(2028, 2, 29));
+        assertThat(renewal.getEndDate()).isEqualTo(LocalDate.of(2029, 2, 27));
+        assertThat(renewal.getPeriodAnchor()).isEqualTo(anchor);
+    }
+
+    @Test
+    void budgetWithoutAnchorStartsChainAtItsStart() {
+        ExpiredBudget expired = budget(1L, BudgetPeriod.MENSUAL, null,
+                LocalDate.of(2026, 1, 31), LocalDate.of(2026, 2, 27));
+
+        Budget renewal = rolloverOne(LocalDate.of(2026, 2, 28), expired);
+
+        assertThat(renewal.getStartDate()).isEqualTo(LocalDate.of(2026, 2, 28));
+        assertThat(renewal.getEndDate()).isEqualTo(LocalDate.of(2026, 3, 30));
+        assertThat(renewal.getPeriodAnchor()).isEqualTo(LocalDate.of(2026, 1, 31));
+    }
+
+    @Test
+    void handPickedDatesStartNewChainNextDay() {
+        ExpiredBudget expired = budget(1L, BudgetPeriod.MENSUAL, null,
+                LocalDate.of(2026, 1, 10), LocalDate.of(2026, 2, 20));
+
+        Budget renewal = rolloverOne(LocalDate.of(2026, 2, 21), expired);
+
+        assertThat(renewal.getStartDate()).isEqualTo(LocalDate.of(2026, 2, 21));
+        assertThat(renewal.getEndDate()).isEqualTo(LocalDate.of(2026, 3, 20));
+        assertThat(renewal.getPeriodAnchor()).isEqualTo(LocalDate.of(2026, 2, 21));
+    }
+
+    @Test
+    void lateRolloverJumpsToPeriodContainingToday() {
+        ExpiredBudget expired = budget(1L, BudgetPeriod.MENSUAL, LocalDate.of(2026, 1, 1),
+                LocalDate.of(2026, 1, 1), LocalDate.of(2026, 1, 31));
+
+        Budget renewal = rolloverOne(LocalDate.of(2026, 4, 15), expired);
+
+        assertThat(renewal.getStartDate()).isEqualTo(LocalDate.of(2026, 4, 1));
+        assertThat(renewal.getEndDate()).isEqualTo(LocalDate.of(2026, 4, 30));
+    }
+
+    @Test
+    void lateRolloverDoesNotCarryOver() {
+        // Los períodos no son consecutivos: no se arrastra y no hace falta el gasto
+        ExpiredBudget expired = carryOver(1L, "500.00", null, null,
+                LocalDate.of(2026, 1, 1), LocalDate.of(2026, 1, 31));
+
+        Budget renewal = rolloverOne(LocalDate.of(2026, 3, 10), expired);
+
+        assertThat(renewal.getStartDate()).isEqualTo(LocalDate.of(2026, 3, 1));
+        assertThat(renewal.getAmount()).isEqualByComparingTo("500.00");
+        assertThat(renewal.getCarriedOver()).isNull();
+    }
+
+    @Test
+    void carriesOverUnspentAmount() {
+        ExpiredBudget expired = carryOver(1L, "500.00", null, "320.00",
+                LocalDate.of(2026, 1, 1), LocalDate.of(2026, 1, 31));
+
+        Budget renewal = rolloverOne(LocalDate.of(2026, 2, 1), expired);
+
+        assertThat(renewal.getAmount()).isEqualByComparingTo("680.00");
+        assertThat(renewal.getCarriedOver()).isEqualByComparingTo("180.00");
+        assertThat(renewal.getCarryOver()).isTrue();
+    }
+
+    @Test
+    void carryOverStartsFromBaseAmountAndNeverGoesNegative() {
+        // 600 = 500 de base + 100 arrastrados del período anterior; se gastó más que el total
+        ExpiredBudget expired = carryOver(1L, "600.00", "100.00", "650.00",
+                LocalDate.of(2026, 1, 1), LocalDate.of(2026, 1, 31));
+
+        Budget renewal = rolloverOne(LocalDate.of(2026, 2, 1), expired);
+
+        assertThat(renewal.getAmount()).isEqualByComparingTo("500.00");
+        assertThat(renewal.getCarriedOver()).isEqualByComparingTo("0");
+    }
+
+    @Test
+    void carryOverWithoutSpentIsSkipped() {
+        ExpiredBudget withoutSpent = carryOver(1L, "500.00", null, null,
+                LocalDate.of(2026, 1, 1), LocalDate.of(2026, 1, 31));
+        ExpiredBudget plain = budget(2L, BudgetPeriod.MENSUAL, null,
+                LocalDate.of(2026, 1, 1), LocalDate.of(2026, 1, 31));
+        when(budgetRolloverRepository.lockExpired(any(), any(), any(), anyInt()))
+                .thenReturn(List.of(withoutSpent, plain));
+
+        ChunkResult result = service.rolloverChunk(LocalDate.of(2026, 2, 1), LocalDate.MIN, 0L, 10);
+
+        assertThat(result.budgets()).isEqualTo(2);
+        assertThat(result.renewed()).isEqualTo(1);
+        assertThat(result.skipped()).isEqualTo(1);
+        assertThat(result.lastId()).isEqualTo(2L);
+        verify(budgetRolloverRepository).deactivate(List.of(2L));
+    }
+
+    @Test
+    void emptyChunkKeepsPosition() {
+        LocalDate afterDate = LocalDate.of(2026, 1, 31);
+        when(budgetRolloverRepository.lockExpired(any(), any(), any(), anyInt())).thenReturn(List.of());
+
+        ChunkResult result = service.rolloverChunk(LocalDate.of(2026, 2, 1), afterDate, 7L, 10);
+
+        assertThat(result).isEqualTo(new ChunkResult(0, 0, 0, afterDate, 7L));
+        verify(budgetRolloverRepository, never()).insertRenewals(anyList());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Budget rolloverOne(LocalDate today, ExpiredBudget expired) {
+        when(budgetRolloverRepository.lockExpired(any(), any(), any(), anyInt())).thenReturn(List.of(expired));
+
+        ChunkResult result = service.rolloverChunk(today, LocalDate.MIN, 0L, 10);
+
+        assertThat(result.renewed()).isEqualTo(1);
+        ArgumentCaptor<List<Budget>> renewals = ArgumentCaptor.forClass(List.class);
+        verify(budgetRolloverRepository).insertRenewals(renewals.capture());
+        verify(budgetRolloverRepository).deactivate(List.of(expired.id()));
+        assertThat(renewals.getValue()).hasSize(1);
+        return renewals.getValue().get(0);
+    }
+
+    private ExpiredBudget budget(Long id, BudgetPeriod period, LocalDate anchor, LocalDate start, LocalDate end) {
+        return new ExpiredBudget(id, 7L, "Comida", 3L, new BigDecimal("500.00"), start, end, period, anchor,
+                new BigDecimal("80.00"), false, null, null);
+    }
+
+    private ExpiredBudget carryOver(Long id, String amount, String carriedOver, String spent,
+                                    LocalDate start, LocalDate end) {
+        return new ExpiredBudget(id, 7L, "Comida", 3L, new BigDecimal(amount), start, end, BudgetPeriod.MENSUAL,
+                start, new BigDecimal("80.00"), true,
+                carriedOver != null ? new BigDecimal(carriedOver) : null,
+                spent != null ? new BigDecimal(spent) : null);
+    }
+}
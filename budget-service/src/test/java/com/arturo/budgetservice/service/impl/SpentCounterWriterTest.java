@@ -0,0 +1,202 @@
+package com.arturo.budgetservice.service.impl;
+
+import com.arturo.budgetservice.dto.SpentEventDTO;
+import com.arturo.budgetservice.dto.SpentSnapshotDTO;
+import com.arturo.budgetservice.entity.Budget;
+import com.arturo.budgetservice.entity.OutboxCursor;
+import com.arturo.budgetservice.repository.AppliedOutboxEventRepository;
+import com.arturo.budgetservice.repository.BudgetRepository;
+import com.arturo.budgetservice.repository.OutboxCursorRepository;
+import com.arturo.budgetservice.service.BudgetAlertEngine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+//Ventana de eventos fuera de orden del poller y recálculo del gasto con el cursor bloqueado
+class SpentCounterWriterTest {
+
+    private static final Long USER_ID = 7L;
+    private static final Long CATEGORY_ID = 5L;
+    private static final LocalDate DAY = LocalDate.of(2026, 1, 15);
+    private static final long CURSOR = 1000L; // Con overlap 100, la ventana empieza en 900
+
+    private BudgetRepository budgetRepository;
+    private OutboxCursorRepository outboxCursorRepository;
+    private AppliedOutboxEventRepository appliedOutboxEventRepository;
+    private BudgetAlertEngine budgetAlertEngine;
+    private SimpleMeterRegistry meterRegistry;
+    private SpentCounterWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        budgetRepository = mock(BudgetRepository.class);
+        outboxCursorRepository = mock(OutboxCursorRepository.class);
+        appliedOutboxEventRepository = mock(AppliedOutboxEventRepository.class);
+        budgetAlertEngine = mock(BudgetAlertEngine.class);
+        meterRegistry = new SimpleMeterRegistry();
+        writer = new SpentCounterWriter(budgetRepository, outboxCursorRepository,
+                appliedOutboxEventRepository, budgetAlertEngine, meterRegistry);
+        ReflectionTestUtils.setField(writer, "overlap", 100);
+        ReflectionTestUtils.setField(writer, "snapshotChunkSize", 25);
+
+        OutboxCursor cursor = new OutboxCursor(SpentCounterWriter.CURSOR_NAME, CURSOR, null);
+        when(outboxCursorRepository.findByNameForUpdate(SpentCounterWriter.CURSOR_NAME)).thenReturn(Optional.of(cursor));
+        when(outboxCursorRepository.findByNameForShare(SpentCounterWriter.CURSOR_NAME)).thenReturn(Optional.of(cursor));
+    }
+
+    @Test
+    void appliesOnlyEventsMissingFromWindow() {
+        when(appliedOutboxEventRepository.findIdsAfter(900L)).thenReturn(new HashSet<>(Set.of(950L)));
+
+        long cursor = writer.applyEvents(List.of(
+                event(850L, "1.00"),   // bajo la ventana: ya aplicado
+                event(950L, "2.00"),   // en applied_outbox_events
+                event(960L, "3.00"),   // confirmado tarde, dentro de la ventana
+                event(1001L, "4.00"),
+                event(1001L, "4.00"),  // repetido en la misma lectura
+                event(1002L, "5.00")));
+
+        assertThat(cursor).isEqualTo(1002L);
+        verify(budgetRepository).applySpentDelta(USER_ID, CATEGORY_ID, DAY, new BigDecimal("3.00"), 960L);
+        verify(budgetRepository).applySpentDelta(USER_ID, CATEGORY_ID, DAY, new BigDecimal("4.00"), 1001L);
+        verify(budgetRepository).applySpentDelta(USER_ID, CATEGORY_ID, DAY, new BigDecimal("5.00"), 1002L);
+        verify(budgetRepository, never()).applySpentDelta(any(), any(), any(), any(), eq(850L));
+        verify(budgetRepository, never()).applySpentDelta(any(), any(), any(), any(), eq(950L));
+        verify(appliedOutboxEventRepository).insertAll(List.of(960L, 1001L, 1002L));
+        verify(appliedOutboxEventRepository).deleteUpTo(902L);
+        verify(budgetAlertEngine).requestEvaluation(Set.of(USER_ID));
+    }
+
+    @Test
+    void lateEventDoesNotMoveCursorBack() {
+        when(appliedOutboxEventRepository.findIdsAfter(900L)).thenReturn(new HashSet<>());
+
+        long cursor = writer.applyEvents(List.of(event(940L, "3.00")));
+
+        assertThat(cursor).isEqualTo(CURSOR);
+        verify(appliedOutboxEventRepository).insertAll(List.of(940L));
+        assertThat(meterRegistry.summary("budget.spent_sync.late_event_lag").count()).isEqualTo(1);
+        assertThat(meterRegistry.summary("budget.spent_sync.late_event_lag").max()).isEqualTo(60.0);
+    }
+
+    @Test
+    void nothingToApplyLeavesCursorUntouched() {
+        when(appliedOutboxEventRepository.findIdsAfter(900L)).thenReturn(new HashSet<>(Set.of(950L)));
+
+        long cursor = writer.applyEvents(List.of(event(850L, "1.00"), event(950L, "2.00")));
+
+        assertThat(cursor).isEqualTo(CURSOR);
+        verify(budgetRepository, never()).applySpentDelta(any(), any(), any(), any(), anyLong());
+        verify(appliedOutboxEventRepository, never()).insertAll(anyList());
+        verify(outboxCursorRepository, never()).save(any());
+        verify(budgetAlertEngine, never()).requestEvaluation(anyCollection());
+    }
+
+    @Test
+    void rebaseRetriesWhenCursorMoved() {
+        Integer drifted = writer.rebase(USER_ID, List.of(budget(null)), List.of(snapshot()),
+                List.of(), Set.of(), CURSOR - 1);
+
+        assertThat(drifted).isNull();
+        verify(budgetRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void rebaseRetriesWhenPollerAppliedUnseenEvent() {
+        // 960 se confirmó y se aplicó después de la lectura, sin mover el cursor
+        when(appliedOutboxEventRepository.findIdsAfter(900L)).thenReturn(new HashSet<>(Set.of(950L, 960L)));
+
+        Integer drifted = writer.rebase(USER_ID, List.of(budget(null)), List.of(snapshot()),
+                List.of(event(950L, "10.00")), Set.of(950L), CURSOR);
+
+        assertThat(drifted).isNull();
+        verify(budgetRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void rebaseAlignsSnapshotWithAppliedEvents() {
+        Budget budget = budget(null);
+
+        Integer drifted = rebaseWithGap(budget);
+
+        // 300 del snapshot - 30 (incluido, sin aplicar) + 20 (aplicado, no incluido) + 5 (bajo la ventana)
+        assertThat(drifted).isZero();
+        assertThat(budget.getSpent()).isEqualByComparingTo("295.00");
+        assertThat(budget.getSpentEventId()).isEqualTo(800L);
+        verify(budgetRepository).saveAll(List.of(budget));
+        verify(budgetAlertEngine).requestEvaluation(List.of(USER_ID));
+    }
+
+    @Test
+    void rebaseCountsDrift() {
+        Budget aligned = budget(new BigDecimal("295.00"));
+        Budget drifted = budget(new BigDecimal("290.00"));
+
+        assertThat(rebaseWithGap(aligned)).isZero();
+        assertThat(rebaseWithGap(drifted)).isEqualTo(1);
+        assertThat(drifted.getSpent()).isEqualByComparingTo("295.00");
+    }
+
+    @Test
+    void rebaseIgnoresEventsOutsideBudget() {
+        when(appliedOutboxEventRepository.findIdsAfter(900L)).thenReturn(new HashSet<>(Set.of(960L)));
+        SpentEventDTO otherCategory = new SpentEventDTO(960L, USER_ID, 99L, DAY, new BigDecimal("20.00"));
+        SpentEventDTO otherMonth = new SpentEventDTO(990L, USER_ID, CATEGORY_ID, DAY.plusMonths(1), new BigDecimal("30.00"));
+        Budget budget = budget(null);
+
+        writer.rebase(USER_ID, List.of(budget), List.of(snapshot()),
+                List.of(otherCategory, otherMonth), Set.of(960L, 990L), CURSOR);
+
+        assertThat(budget.getSpent()).isEqualByComparingTo("300.00");
+    }
+
+    private Integer rebaseWithGap(Budget budget) {
+        when(appliedOutboxEventRepository.findIdsAfter(900L)).thenReturn(new HashSet<>(Set.of(950L, 960L)));
+        List<SpentEventDTO> gap = List.of(
+                event(850L, "5.00"),   // sobre settledId, bajo la ventana: aplicado, no incluido
+                event(950L, "10.00"),  // incluido y aplicado: no cambia
+                event(960L, "20.00"),  // aplicado, no incluido
+                event(990L, "30.00")); // incluido, sin aplicar: lo sumará el poller
+        return writer.rebase(USER_ID, List.of(budget), List.of(snapshot()),
+                gap, Set.of(850L, 950L, 960L, 990L), CURSOR);
+    }
+
+    private SpentSnapshotDTO snapshot() {
+        return new SpentSnapshotDTO(CURSOR, 800L, List.of(950L, 990L), List.of(new BigDecimal("300.00")));
+    }
+
+    private Budget budget(BigDecimal spent) {
+        Budget budget = new Budget();
+        budget.setId(1L);
+        budget.setUserId(USER_ID);
+        budget.setCategoryId(CATEGORY_ID);
+        budget.setStartDate(DAY.withDayOfMonth(1));
+        budget.setEndDate(DAY.withDayOfMonth(DAY.lengthOfMonth()));
+        budget.setSpent(spent);
+        budget.setSpentEventId(spent != null ? 800L : null);
+        return budget;
+    }
+
+    private SpentEventDTO event(long id, String amount) {
+        return new SpentEventDTO(id, USER_ID, CATEGORY_ID, DAY, new BigDecimal(amount));
+    }
+}
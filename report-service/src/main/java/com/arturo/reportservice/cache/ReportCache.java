@@ -0,0 +1,131 @@
+package com.arturo.reportservice.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/*
+  Caché en memoria de reportes por (usuario, tipo de reporte, parámetros).
+  Los reportes de cada usuario se agrupan en un contenedor propio; cuando transaction-service publica
+  un cambio en los datos del usuario (ver ReportCacheInvalidator) el contenedor se descarta entero.
+  Un reporte solo se guarda si su contenedor sigue siendo el vigente al terminar de calcularse,
+  así un cálculo que empezó antes de un cambio nunca queda en caché con datos anteriores.
+  Los períodos cerrados (meses anteriores al actual) se conservan mucho más tiempo que los abiertos.
+  Si la sincronización con transaction-service está atrasada, la caché no se usa.
+ */
+@Component
+@Slf4j
+public class ReportCache {
+
+    // userId -> reportes en caché del usuario
+    private final Map<Long, UserReports> users = new ConcurrentHashMap<>();
+    private final AtomicInteger size = new AtomicInteger(); // Reportes en caché (aproximado)
+
+    private volatile long lastSyncAt; // Último momento en que se leyeron los cambios de usuarios (0 = nunca)
+
+    @Value("${report.cache.max-size:5000}")
+    private int maxSize; // Máximo de reportes en memoria
+
+    @Value("${report.cache.open-ttl-ms:300000}")
+    private long openTtlMs; // Vida de un reporte que incluye el mes actual (o datos que no son de transacciones)
+
+    @Value("${report.cache.closed-ttl-ms:86400000}")
+    private long closedTtlMs; // Vida de un reporte de meses cerrados
+
+    @Value("${report.cache.max-staleness-ms:30000}")
+    private long maxStalenessMs; // Sin leer cambios durante este tiempo, la caché deja de usarse
+
+    // Devuelve el reporte en caché o lo calcula con loader y lo guarda
+    @SuppressWarnings("unchecked")
+    public <T> T getOrCompute(ReportKey key, boolean closedPeriod, Supplier<T> loader) {
+        long now = System.currentTimeMillis();
+        if (!isSynchronized(now)) {
+            return loader.get();
+        }
+
+        UserReports reports = users.computeIfAbsent(key.userId(), id -> new UserReports());
+        CachedReport cached = reports.entries.get(key);
+        if (cached != null) {
+            if (cached.expiresAt() > now) {
+                return (T) cached.value();
+            }
+            if (reports.entries.remove(key, cached)) {
+                size.decrementAndGet();
+            }
+        }
+
+        T value = loader.get();
+        long ttl = closedPeriod ? closedTtlMs : openTtlMs;
+        put(key, reports, new CachedReport(value, System.currentTimeMillis() + ttl));
+        return value;
+    }
+
+    // Descarta todos los reportes del usuario (sus datos cambiaron)
+    public void invalidate(Long userId) {
+        UserReports removed = users.remove(userId);
+        if (removed != null) {
+            size.addAndGet(-removed.entries.size());
+        }
+    }
+
+    public void clear() {
+        users.clear();
+        size.set(0);
+    }
+
+    // Registra una lectura correcta de los cambios; si la caché estaba desactualizada se vacía
+    public void markSynchronized() {
+        long now = System.currentTimeMillis();
+        if (!isSynchronized(now)) {
+            clear();
+            log.info("Caché de reportes sincronizada con transaction-service");
+        }
+        lastSyncAt = now;
+    }
+
+    private boolean isSynchronized(long now) {
+        return lastSyncAt > 0 && now - lastSyncAt <= maxStalenessMs;
+    }
+
+    // Guarda el reporte solo si el contenedor del usuario sigue vigente;
+    // si la caché está llena primero elimina los vencidos y, si sigue llena, no lo guarda
+    private void put(ReportKey key, UserReports reports, CachedReport report) {
+        if (size.get() >= maxSize) {
+            purgeExpired(System.currentTimeMillis());
+            if (size.get() >= maxSize) {
+                return;
+            }
+        }
+        if (users.get(key.userId()) != reports) {
+            return; // Los datos del usuario cambiaron mientras se calculaba el reporte
+        }
+        if (reports.entries.put(key, report) == null) {
+            size.incrementAndGet();
+        }
+    }
+
+    private void purgeExpired(long now) {
+        users.forEach((userId, reports) -> {
+            reports.entries.forEach((key, cached) -> {
+                if (cached.expiresAt() <= now && reports.entries.remove(key, cached)) {
+                    size.decrementAndGet();
+                }
+            });
+            if (reports.entries.isEmpty()) {
+                users.remove(userId, reports);
+            }
+        });
+    }
+
+    private static final class UserReports {
+        private final Map<ReportKey, CachedReport> entries = new ConcurrentHashMap<>();
+    }
+
+    private record CachedReport(Object value, long expiresAt) {
+    }
+}
@@ -0,0 +1,11 @@
+package com.arturo.reportservice.cache;
+
+import java.util.List;
+
+// Clave de un reporte en caché: usuario, tipo de reporte y parámetros (fechas, año/mes, categoría)
+public record ReportKey(Long userId, String report, List<Object> params) {
+
+    public static ReportKey of(Long userId, String report, Object... params) {
+        return new ReportKey(userId, report, List.of(params));
+    }
+}
@@ -1,8 +1,11 @@
 package com.arturo.reportservice.client;
 
 import com.arturo.reportservice.dto.BalanceDTO;
+import com.arturo.reportservice.dto.DailyTotalDTO;
+import com.arturo.reportservice.dto.MonthlyTrendDTO;
 import com.arturo.reportservice.dto.PageResponse;
 import com.arturo.reportservice.dto.TransactionDTO;
+import com.arturo.reportservice.dto.UserChangeDTO;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -10,6 +13,7 @@ import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 
 import java.time.LocalDate;
+import java.util.List;
 
 @FeignClient(name = "transaction-service")
 public interface TransactionClient {
@@ -38,4 +42,39 @@ public interface TransactionClient {
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "1000") int size
     );
-}
\ No newline at end of file
+    
+    @GetMapping("/transactions/daily")
+    List<DailyTotalDTO> getDailyTotals(
+            @RequestHeader("X-User-Id") Long userId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate
+    );
+    
+    @GetMapping("/transactions/trend")
+    List<MonthlyTrendDTO> getMonthlyTrend(
+            @RequestHeader("X-User-Id") Long userId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) String type
+    );
+    
+    // Cantidad de transacciones de una categoría en el período (contadores del rollup, sin descargar filas)
+    @GetMapping("/transactions/count")
+    Long countTransactions(
+            @RequestHeader("X-User-Id") Long userId,
+            @RequestParam String categoryName,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) String type
+    );
+    
+    // Cambios de datos de usuarios (endpoint interno): invalidan los reportes en caché (ver ReportCacheInvalidator)
+    @GetMapping("/internal/user-changes")
+    List<UserChangeDTO> getUserChanges(
+            @RequestParam Long afterId,
+            @RequestParam int limit
+    );
+    
+    @GetMapping("/internal/user-changes/last")
+    Long getLastUserChangeId();
+}
@@ -0,0 +1,29 @@
+package com.arturo.reportservice.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class ReportExecutorConfig {
+
+    // Pool acotado para las llamadas remotas (Feign) que se ejecutan en paralelo al generar reportes
+    @Bean(name = "reportExecutor")
+    public ThreadPoolTaskExecutor reportExecutor(
+            @Value("${report.executor.pool-size:16}") int poolSize,
+            @Value("${report.executor.queue-capacity:200}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("report-exec-");
+        // Si la cola se llena, la llamada se ejecuta en el hilo de la petición (contrapresión en lugar de error)
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.initialize();
+        return executor;
+    }
+}
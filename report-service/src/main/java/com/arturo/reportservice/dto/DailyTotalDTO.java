@@ -0,0 +1,17 @@
+package com.arturo.reportservice.dto;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyTotalDTO {
+    private LocalDate date;
+    private String type;
+    private Long count;
+    private BigDecimal total;
+}
@@ -0,0 +1,17 @@
+package com.arturo.reportservice.dto;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class MonthlyTrendDTO {
+    private Integer year;
+    private Integer month;
+    private String categoryName;
+    private String type;
+    private BigDecimal total;
+}
@@ -0,0 +1,12 @@
+package com.arturo.reportservice.dto;
+
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserChangeDTO {
+    private Long id;
+    private Long userId;
+}
@@ -0,0 +1,12 @@
+package com.arturo.reportservice.exception;
+
+public class ServiceTimeoutException extends RuntimeException {
+
+    public ServiceTimeoutException(String message) {
+        super(message);
+    }
+
+    public ServiceTimeoutException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,68 @@
+package com.arturo.reportservice.executor;
+
+import com.arturo.reportservice.exception.ServiceTimeoutException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/*
+  Motor de ejecución de reportes: lanza en paralelo las llamadas independientes a otros
+  microservicios (TransactionClient, BudgetClient) sobre un pool acotado, con un timeout por llamada,
+  y luego permite unir los resultados. Así la latencia de un reporte es la de la llamada más lenta
+  y no la suma de todas.
+ */
+@Component
+@Slf4j
+public class ReportExecutionEngine {
+
+    private final Executor executor;
+    private final long callTimeoutMs;
+
+    public ReportExecutionEngine(@Qualifier("reportExecutor") Executor executor,
+                                 @Value("${report.executor.call-timeout-ms:5000}") long callTimeoutMs) {
+        this.executor = executor;
+        this.callTimeoutMs = callTimeoutMs;
+    }
+
+    // Programa una llamada remota en el pool; falla con TimeoutException si supera el tiempo máximo
+    public <T> CompletableFuture<T> submit(Supplier<T> call) {
+        return CompletableFuture.supplyAsync(call, executor)
+                .orTimeout(callTimeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    // Espera el resultado de una llamada y relanza la excepción original (por ejemplo FeignException)
+    public <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceTimeoutException("La generación del reporte fue interrumpida", e);
+        } catch (ExecutionException e) {
+            throw unwrap(e.getCause());
+        }
+    }
+
+    private RuntimeException unwrap(Throwable cause) {
+        if (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        if (cause instanceof TimeoutException) {
+            log.warn("Una llamada remota superó el tiempo máximo de {} ms", callTimeoutMs);
+            return new ServiceTimeoutException(
+                    "Un servicio externo no respondió en " + callTimeoutMs + " ms", cause);
+        }
+        if (cause instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        }
+        return new IllegalStateException(cause);
+    }
+}
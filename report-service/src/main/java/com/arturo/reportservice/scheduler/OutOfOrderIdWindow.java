@@ -0,0 +1,54 @@
+package com.arturo.reportservice.scheduler;
+
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+//Ventana de ids de un consumidor que lee en orden una tabla con ids AUTO_INCREMENT (cambios de usuarios)
+//Los ids se asignan al insertar pero se vuelven visibles al confirmar: un id menor puede aparecer después
+//de uno mayor. El consumidor relee desde readFrom() (cursor - overlap) y accept() descarta lo ya procesado:
+//- hasta readFrom() todo se da por procesado (se supone que ninguna confirmación llega más tarde que overlap)
+//- dentro de la ventana los ids se recuerdan uno a uno
+//No es seguro para hilos: quien lo usa debe sincronizar el acceso
+final class OutOfOrderIdWindow {
+
+    private final int overlap;
+    private final NavigableSet<Long> seen = new TreeSet<>(); //Ids procesados por encima de readFrom()
+    private long cursor;                                     //Mayor id procesado
+
+    OutOfOrderIdWindow(long cursor, int overlap) {
+        this.cursor = cursor;
+        this.overlap = overlap;
+    }
+
+    //Inicio (exclusivo) de la relectura para un cursor dado
+    static long readFrom(long cursor, int overlap) {
+        return Math.max(cursor - overlap, 0L);
+    }
+
+    long cursor() {
+        return cursor;
+    }
+
+    long readFrom() {
+        return readFrom(cursor, overlap);
+    }
+
+    boolean contains(long id) {
+        return id <= readFrom() || seen.contains(id);
+    }
+
+    //Devuelve true si el id no estaba procesado: lo registra y, si es el mayor, avanza el cursor
+    boolean accept(long id) {
+        if (contains(id)) {
+            return false;
+        }
+        seen.add(id);
+        cursor = Math.max(cursor, id);
+        return true;
+    }
+
+    //Olvida los ids que quedaron por debajo de la ventana
+    void prune() {
+        seen.headSet(readFrom(), true).clear();
+    }
+}
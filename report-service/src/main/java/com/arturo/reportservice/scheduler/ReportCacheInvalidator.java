@@ -0,0 +1,59 @@
+package com.arturo.reportservice.scheduler;
+
+import com.arturo.reportservice.cache.ReportCache;
+import com.arturo.reportservice.client.TransactionClient;
+import com.arturo.reportservice.dto.UserChangeDTO;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/*
+  Lee en orden los cambios de datos de usuarios que publica transaction-service y descarta
+  los reportes en caché de cada usuario que cambió.
+  Los ids se asignan al insertar pero se vuelven visibles al confirmar, así que un id menor puede
+  aparecer después de uno mayor: OutOfOrderIdWindow relee una ventana de ids ya vistos (overlap)
+  y solo deja pasar los que no se habían visto.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ReportCacheInvalidator {
+
+    private final TransactionClient transactionClient;
+    private final ReportCache reportCache;
+
+    private OutOfOrderIdWindow window; // Cambios procesados (null = todavía no se leyó el punto de partida)
+
+    @Value("${report.cache.poll-batch-size:500}")
+    private int batchSize;
+
+    @Value("${report.cache.poll-overlap:100}")
+    private int overlap; // Ids anteriores al cursor que se vuelven a revisar (debe ser menor que batchSize)
+
+    @Scheduled(fixedDelayString = "${report.cache.poll-interval-ms:2000}")
+    public void poll() {
+        try {
+            if (window == null) {
+                // La caché arranca vacía: basta empezar desde el último cambio existente
+                window = new OutOfOrderIdWindow(transactionClient.getLastUserChangeId(), overlap);
+            }
+            List<UserChangeDTO> changes;
+            do {
+                changes = transactionClient.getUserChanges(window.readFrom(), batchSize);
+                for (UserChangeDTO change : changes) {
+                    if (window.accept(change.getId())) {
+                        reportCache.invalidate(change.getUserId());
+                    }
+                }
+                window.prune();
+            } while (changes.size() == batchSize);
+            reportCache.markSynchronized();
+        } catch (Exception e) {
+            log.warn("No se pudieron leer los cambios de usuarios: {}", e.getMessage());
+        }
+    }
+}
@@ -1,12 +1,17 @@
 package com.arturo.reportservice.service.impl;
 
+import com.arturo.reportservice.cache.ReportCache;
+import com.arturo.reportservice.cache.ReportKey;
 import com.arturo.reportservice.client.BudgetClient;
 import com.arturo.reportservice.client.TransactionClient;
 import com.arturo.reportservice.dto.BalanceDTO;
 import com.arturo.reportservice.dto.BudgetSummaryDTO;
+import com.arturo.reportservice.dto.DailyTotalDTO;
+import com.arturo.reportservice.dto.MonthlyTrendDTO;
 import com.arturo.reportservice.dto.PageResponse;
 import com.arturo.reportservice.dto.TransactionDTO;
 import com.arturo.reportservice.dto.response.*;
+import com.arturo.reportservice.executor.ReportExecutionEngine;
 import com.arturo.reportservice.service.ReportService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -19,6 +24,7 @@ import java.time.YearMonth;
 import java.time.format.TextStyle;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 @Service
@@ -29,16 +35,35 @@ public class ReportServiceImpl implements ReportService {
     // Clientes Feign para comunicar este microservicio con otros (microservicios externos)
     private final TransactionClient transactionClient; // Para obtener transacciones, balances, etc.
     private final BudgetClient budgetClient;           // Para obtener presupuestos y resúmenes
+    private final ReportExecutionEngine executionEngine; // Ejecuta en paralelo las llamadas remotas independientes
+    private final ReportCache reportCache;               // Reportes ya calculados, invalidados por los cambios de cada usuario
 
     // Método 1: Obtiene los datos del dashboard principal del usuario
+    // Incluye el resumen de presupuestos y las transacciones recientes, así que nunca se trata como período cerrado
     @Override
     public DashboardData getDashboardData(Long userId, LocalDate startDate, LocalDate endDate) {
+        return reportCache.getOrCompute(ReportKey.of(userId, "dashboard", startDate, endDate), false,
+                () -> buildDashboardData(userId, startDate, endDate));
+    }
+
+    private DashboardData buildDashboardData(Long userId, LocalDate startDate, LocalDate endDate) {
         log.info("Obteniendo datos del dashboard para el usuario {} del {} al {}", userId, startDate, endDate);
 
         DashboardData dashboard = new DashboardData(); // DTO que se enviará como respuesta
 
+        // Lanzar en paralelo todas las consultas independientes a otros microservicios
+        CompletableFuture<BalanceDTO> balanceFuture = executionEngine.submit(
+                () -> transactionClient.getBalance(userId, startDate, endDate));
+        CompletableFuture<BudgetSummaryDTO> budgetSummaryFuture = executionEngine.submit(
+                () -> budgetClient.getBudgetSummary(userId));
+        CompletableFuture<PageResponse<TransactionDTO>> recentTransactionsFuture = executionEngine.submit(
+                () -> transactionClient.getAllTransactions(userId, 0, 5, "transactionDate", "DESC"));
+        // Solo se necesita el total de transacciones: basta una página de tamaño 1 (el COUNT viene en totalElements)
+        CompletableFuture<PageResponse<TransactionDTO>> allTransactionsFuture = executionEngine.submit(
+                () -> transactionClient.getTransactionsByDateRange(userId, startDate, endDate, 0, 1));
+
         // Obtener el balance general desde el transaction-service
-        BalanceDTO balance = transactionClient.getBalance(userId, startDate, endDate);
+        BalanceDTO balance = executionEngine.await(balanceFuture);
         dashboard.setTotalIngresos(balance.getTotalIngresos());
         dashboard.setTotalGastos(balance.getTotalGastos());
         dashboard.setBalance(balance.getBalance());
@@ -76,7 +101,7 @@ public class ReportServiceImpl implements ReportService {
 
         // Resumen de presupuestos (consulta al budget-service)
         try {
-            BudgetSummaryDTO budgetSummary = budgetClient.getBudgetSummary(userId);
+            BudgetSummaryDTO budgetSummary = executionEngine.await(budgetSummaryFuture);
             dashboard.setTotalPresupuestos(budgetSummary.getTotalBudgets());
             dashboard.setPresupuestosActivos(budgetSummary.getActiveBudgets());
             dashboard.setPresupuestosEnRiesgo(
@@ -93,13 +118,11 @@ public class ReportServiceImpl implements ReportService {
         }
 
         // Obtener las 5 transacciones más recientes
-        PageResponse<TransactionDTO> recentTransactions = transactionClient.getAllTransactions(
-                userId, 0, 5, "transactionDate", "DESC");
+        PageResponse<TransactionDTO> recentTransactions = executionEngine.await(recentTransactionsFuture);
         dashboard.setTransaccionesRecientes(recentTransactions.getContent());
 
         // Obtener todas las transacciones del período para estadísticas generales
-        PageResponse<TransactionDTO> allTransactions = transactionClient.getTransactionsByDateRange(
-                userId, startDate, endDate, 0, 1000);
+        PageResponse<TransactionDTO> allTransactions = executionEngine.await(allTransactionsFuture);
         dashboard.setTotalTransacciones((int) allTransactions.getTotalElements());
 
         // Calcular gasto promedio diario
@@ -126,6 +149,12 @@ public class ReportServiceImpl implements ReportService {
     // Método 2: Obtiene el resumen mensual (ingresos, gastos y balances)
     @Override
     public MonthlySummary getMonthlySummary(Long userId, int year, int month) {
+        return reportCache.getOrCompute(ReportKey.of(userId, "monthly-summary", year, month),
+                isClosed(YearMonth.of(year, month).atEndOfMonth()),
+                () -> buildMonthlySummary(userId, year, month));
+    }
+
+    private MonthlySummary buildMonthlySummary(Long userId, int year, int month) {
         log.info("Obteniendo resumen mensual para el usuario {} - {}/{}", userId, year, month);
 
         YearMonth yearMonth = YearMonth.of(year, month);
@@ -137,23 +166,41 @@ public class ReportServiceImpl implements ReportService {
         summary.setMonth(month);
         summary.setMonthName(yearMonth.getMonth().getDisplayName(TextStyle.FULL, Locale.forLanguageTag("es")));
 
-        // Balance del mes desde transaction-service
-        BalanceDTO balance = transactionClient.getBalance(userId, startDate, endDate);
+        // Balance del mes y serie diaria (ya sumada por día y tipo) desde transaction-service, en paralelo
+        CompletableFuture<BalanceDTO> balanceFuture = executionEngine.submit(
+                () -> transactionClient.getBalance(userId, startDate, endDate));
+        CompletableFuture<List<DailyTotalDTO>> dailyTotalsFuture = executionEngine.submit(
+                () -> transactionClient.getDailyTotals(userId, startDate, endDate));
+
+        // Repartir la serie diaria (como máximo 31 x 2 filas) en totales por día y conteos por tipo
+        int daysInMonth = yearMonth.lengthOfMonth();
+        BigDecimal[] ingresosPorDia = new BigDecimal[daysInMonth];
+        BigDecimal[] gastosPorDia = new BigDecimal[daysInMonth];
+        Arrays.fill(ingresosPorDia, BigDecimal.ZERO);
+        Arrays.fill(gastosPorDia, BigDecimal.ZERO);
+        long ingresoCount = 0;
+        long gastoCount = 0;
+
+        for (DailyTotalDTO dailyTotal : executionEngine.await(dailyTotalsFuture)) {
+            int dia = dailyTotal.getDate().getDayOfMonth() - 1;
+            if ("INGRESO".equals(dailyTotal.getType())) {
+                ingresoCount += dailyTotal.getCount();
+                ingresosPorDia[dia] = ingresosPorDia[dia].add(dailyTotal.getTotal());
+            } else if ("GASTO".equals(dailyTotal.getType())) {
+                gastoCount += dailyTotal.getCount();
+                gastosPorDia[dia] = gastosPorDia[dia].add(dailyTotal.getTotal());
+            }
+        }
+
+        BalanceDTO balance = executionEngine.await(balanceFuture);
         summary.setTotalIngresos(balance.getTotalIngresos());
         summary.setTotalGastos(balance.getTotalGastos());
         summary.setBalance(balance.getBalance());
         summary.setGastosPorCategoria(balance.getGastosPorCategoria());
         summary.setIngresosPorCategoria(balance.getIngresosPorCategoria());
 
-        // Obtener todas las transacciones del mes
-        PageResponse<TransactionDTO> transactions = transactionClient.getTransactionsByDateRange(
-                userId, startDate, endDate, 0, 1000);
-        List<TransactionDTO> allTransactions = transactions.getContent();
-        summary.setCantidadTransacciones(allTransactions.size());
-
-        // Contar ingresos y gastos
-        long ingresoCount = allTransactions.stream().filter(t -> "INGRESO".equals(t.getType())).count();
-        long gastoCount = allTransactions.stream().filter(t -> "GASTO".equals(t.getType())).count();
+        // Cantidad de transacciones, ingresos y gastos
+        summary.setCantidadTransacciones((int) (ingresoCount + gastoCount));
         summary.setCantidadIngresos((int) ingresoCount);
         summary.setCantidadGastos((int) gastoCount);
 
@@ -173,22 +220,11 @@ public class ReportServiceImpl implements ReportService {
         }
 
         // Balance diario (ingresos/gastos por día)
-        List<DailyBalance> balanceDiario = new ArrayList<>();
-        Map<LocalDate, List<TransactionDTO>> transactionsByDate = allTransactions.stream()
-                .collect(Collectors.groupingBy(TransactionDTO::getTransactionDate));
+        List<DailyBalance> balanceDiario = new ArrayList<>(daysInMonth);
 
         for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
-            List<TransactionDTO> dayTransactions = transactionsByDate.getOrDefault(date, Collections.emptyList());
-
-            BigDecimal dayIngresos = dayTransactions.stream()
-                    .filter(t -> "INGRESO".equals(t.getType()))
-                    .map(TransactionDTO::getAmount)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-            BigDecimal dayGastos = dayTransactions.stream()
-                    .filter(t -> "GASTO".equals(t.getType()))
-                    .map(TransactionDTO::getAmount)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+            BigDecimal dayIngresos = ingresosPorDia[date.getDayOfMonth() - 1];
+            BigDecimal dayGastos = gastosPorDia[date.getDayOfMonth() - 1];
 
             BigDecimal dayBalance = dayIngresos.subtract(dayGastos);
 
@@ -204,13 +240,34 @@ public class ReportServiceImpl implements ReportService {
     @Override
     public CategoryAnalysis getCategoryAnalysis(Long userId, String categoryName,
                                                 LocalDate startDate, LocalDate endDate) {
+        return reportCache.getOrCompute(
+                ReportKey.of(userId, "category-analysis", categoryName, startDate, endDate),
+                isClosed(endDate),
+                () -> buildCategoryAnalysis(userId, categoryName, startDate, endDate));
+    }
+
+    private CategoryAnalysis buildCategoryAnalysis(Long userId, String categoryName,
+                                                   LocalDate startDate, LocalDate endDate) {
         log.info("Analizando categoría '{}' para el usuario {} entre {} y {}", categoryName, userId, startDate, endDate);
 
         CategoryAnalysis analysis = new CategoryAnalysis();
         analysis.setCategoryName(categoryName);
 
+        // Lanzar en paralelo el balance, la cantidad de gastos y la tendencia de los últimos 6 meses
+        LocalDate trendStartDate = endDate.minusMonths(5).withDayOfMonth(1);
+        LocalDate trendEndDate = YearMonth.from(endDate).atEndOfMonth();
+
+        CompletableFuture<BalanceDTO> balanceFuture = executionEngine.submit(
+                () -> transactionClient.getBalance(userId, startDate, endDate));
+        CompletableFuture<List<MonthlyTrendDTO>> trendFuture = executionEngine.submit(
+                () -> transactionClient.getMonthlyTrend(userId, trendStartDate, trendEndDate, "GASTO"));
+
+        // Cantidad de gastos de esa categoría en el período, contada por transaction-service
+        CompletableFuture<Long> countFuture = executionEngine.submit(
+                () -> transactionClient.countTransactions(userId, categoryName, startDate, endDate, "GASTO"));
+
         // Obtener balance general
-        BalanceDTO balance = transactionClient.getBalance(userId, startDate, endDate);
+        BalanceDTO balance = executionEngine.await(balanceFuture);
 
         // Gasto total de la categoría
         BigDecimal categorySpent = balance.getGastosPorCategoria()
@@ -227,37 +284,32 @@ public class ReportServiceImpl implements ReportService {
             analysis.setPercentage(BigDecimal.ZERO);
         }
 
-        // Filtrar transacciones de esa categoría
-        PageResponse<TransactionDTO> transactions = transactionClient.getTransactionsByDateRange(
-                userId, startDate, endDate, 0, 1000);
-        List<TransactionDTO> categoryTransactions = transactions.getContent().stream()
-                .filter(t -> t.getCategory() != null &&
-                        categoryName.equals(t.getCategory().getName()) &&
-                        "GASTO".equals(t.getType()))
-                .collect(Collectors.toList());
-        analysis.setTransactionCount(categoryTransactions.size());
+        // Transacciones de esa categoría
+        long categoryTransactionCount = executionEngine.await(countFuture);
+        analysis.setTransactionCount((int) categoryTransactionCount);
 
         // Promedio por transacción
-        if (!categoryTransactions.isEmpty()) {
+        if (categoryTransactionCount > 0) {
             BigDecimal average = categorySpent
-                    .divide(BigDecimal.valueOf(categoryTransactions.size()), 2, RoundingMode.HALF_UP);
+                    .divide(BigDecimal.valueOf(categoryTransactionCount), 2, RoundingMode.HALF_UP);
             analysis.setAverageTransaction(average);
         } else {
             analysis.setAverageTransaction(BigDecimal.ZERO);
         }
 
-        // Tendencia de los últimos 6 meses
+        // Tendencia de los últimos 6 meses (una sola consulta agrupada por mes y categoría)
+        Map<YearMonth, BigDecimal> spentByMonth = executionEngine.await(trendFuture).stream()
+                .filter(t -> categoryName.equals(t.getCategoryName()))
+                .collect(Collectors.toMap(
+                        t -> YearMonth.of(t.getYear(), t.getMonth()),
+                        MonthlyTrendDTO::getTotal,
+                        BigDecimal::add));
+
         List<MonthlySpending> monthlyTrend = new ArrayList<>();
-        LocalDate trendStartDate = endDate.minusMonths(5).withDayOfMonth(1);
 
         for (int i = 0; i < 6; i++) {
             YearMonth ym = YearMonth.from(trendStartDate.plusMonths(i));
-            LocalDate monthStart = ym.atDay(1);
-            LocalDate monthEnd = ym.atEndOfMonth();
-
-            BalanceDTO monthBalance = transactionClient.getBalance(userId, monthStart, monthEnd);
-            BigDecimal monthAmount = monthBalance.getGastosPorCategoria()
-                    .getOrDefault(categoryName, BigDecimal.ZERO);
+            BigDecimal monthAmount = spentByMonth.getOrDefault(ym, BigDecimal.ZERO);
 
             monthlyTrend.add(new MonthlySpending(
                     ym.getYear(),
@@ -282,13 +334,28 @@ public class ReportServiceImpl implements ReportService {
     public ComparisonData comparePeriods(Long userId,
                                          LocalDate period1Start, LocalDate period1End,
                                          LocalDate period2Start, LocalDate period2End) {
+        return reportCache.getOrCompute(
+                ReportKey.of(userId, "comparison", period1Start, period1End, period2Start, period2End),
+                isClosed(period1End) && isClosed(period2End),
+                () -> buildComparison(userId, period1Start, period1End, period2Start, period2End));
+    }
+
+    private ComparisonData buildComparison(Long userId,
+                                           LocalDate period1Start, LocalDate period1End,
+                                           LocalDate period2Start, LocalDate period2End) {
         log.info("Comparando periodos para el usuario {}: [{} a {}] vs [{} a {}]",
                 userId, period1Start, period1End, period2Start, period2End);
 
         ComparisonData comparison = new ComparisonData();
 
+        // Consultar ambos períodos en paralelo
+        CompletableFuture<BalanceDTO> balance1Future = executionEngine.submit(
+                () -> transactionClient.getBalance(userId, period1Start, period1End));
+        CompletableFuture<BalanceDTO> balance2Future = executionEngine.submit(
+                () -> transactionClient.getBalance(userId, period2Start, period2End));
+
         // Período 1
-        BalanceDTO balance1 = transactionClient.getBalance(userId, period1Start, period1End);
+        BalanceDTO balance1 = executionEngine.await(balance1Future);
         comparison.setPeriod1StartDate(period1Start);
         comparison.setPeriod1EndDate(period1End);
         comparison.setPeriod1Ingresos(balance1.getTotalIngresos());
@@ -296,7 +363,7 @@ public class ReportServiceImpl implements ReportService {
         comparison.setPeriod1Balance(balance1.getBalance());
 
         // Período 2
-        BalanceDTO balance2 = transactionClient.getBalance(userId, period2Start, period2End);
+        BalanceDTO balance2 = executionEngine.await(balance2Future);
         comparison.setPeriod2StartDate(period2Start);
         comparison.setPeriod2EndDate(period2End);
         comparison.setPeriod2Ingresos(balance2.getTotalIngresos());
@@ -320,6 +387,11 @@ public class ReportServiceImpl implements ReportService {
         return comparison;
     }
 
+    // Un período está cerrado si termina antes del mes actual (el análisis de categoría incluye el mes de endDate)
+    private boolean isClosed(LocalDate endDate) {
+        return endDate.isBefore(YearMonth.now().atDay(1));
+    }
+
     // Método auxiliar para calcular el cambio porcentual entre dos valores
     private BigDecimal calculatePercentageChange(BigDecimal oldValue, BigDecimal newValue) {
         if (oldValue.compareTo(BigDecimal.ZERO) == 0) {
@@ -0,0 +1,51 @@
+package com.arturo.transactionservice.controller;
+
+import com.arturo.transactionservice.dto.request.SpentAmountRequest;
+import com.arturo.transactionservice.dto.response.SpentEventResponse;
+import com.arturo.transactionservice.dto.response.SpentSnapshotResponse;
+import com.arturo.transactionservice.service.SpentSyncService;
+import com.arturo.transactionservice.service.TransactionService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+//Endpoints internos para budget-service: no se exponen a través del api-gateway
+@RestController
+@RequestMapping("/internal/spent")
+@RequiredArgsConstructor
+@Slf4j
+public class SpentSyncController {
+
+    private static final String BUDGET_CONSUMER = "budget-service";
+
+    private final SpentSyncService spentSyncService;
+    private final TransactionService transactionService;
+
+    @GetMapping("/events")
+    //Eventos de gasto posteriores al último id procesado por budget-service
+    public ResponseEntity<List<SpentEventResponse>> getEvents(
+            @RequestParam(defaultValue = "0") Long afterId,
+            @RequestParam(defaultValue = "500") int limit) {
+        int size = Math.min(Math.max(limit, 1), 1000);
+        return ResponseEntity.ok(spentSyncService.getEventsAfter(afterId, size));
+    }
+
+    @PutMapping("/events/acknowledged")
+    //Id hasta el que budget-service ya no relee eventos: la purga del outbox no pasa de él
+    public ResponseEntity<Void> acknowledgeEvents(@RequestParam Long upToId) {
+        spentSyncService.acknowledge(BUDGET_CONSUMER, upToId);
+        return ResponseEntity.noContent().build();
+    }
+
+    @PostMapping("/snapshot")
+    //Montos gastados de varias consultas y el último evento del outbox ya incluido en ellos
+    public ResponseEntity<SpentSnapshotResponse> getSnapshot(
+            @RequestBody List<SpentAmountRequest> requests,
+            @RequestHeader("X-User-Id") Long userId) {
+        log.info("Snapshot de gasto para el usuario {} ({} consultas)", userId, requests.size());
+        return ResponseEntity.ok(transactionService.getSpentSnapshot(userId, requests));
+    }
+}
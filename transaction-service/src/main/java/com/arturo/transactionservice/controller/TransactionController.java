@@ -1,25 +1,42 @@
 package com.arturo.transactionservice.controller;
 
+import com.arturo.transactionservice.dto.request.SpentAmountRequest;
 import com.arturo.transactionservice.dto.request.TransactionRequest;
 import com.arturo.transactionservice.dto.response.BalanceResponse;
+import com.arturo.transactionservice.dto.response.DailyTotalResponse;
+import com.arturo.transactionservice.dto.response.ImportResultResponse;
 import com.arturo.transactionservice.dto.response.MessageResponse;
+import com.arturo.transactionservice.dto.response.MonthlyTrendResponse;
 import com.arturo.transactionservice.dto.response.TransactionResponse;
+import com.arturo.transactionservice.dto.response.TransactionScrollResponse;
 import com.arturo.transactionservice.enums.TransactionType;
+import com.arturo.transactionservice.exception.BadRequestException;
+import com.arturo.transactionservice.pagination.TransactionSort;
+import com.arturo.transactionservice.service.TransactionImportService;
 import com.arturo.transactionservice.service.TransactionService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.List;
 
 @RestController
 @RequestMapping("/transactions")
@@ -27,7 +44,11 @@ import java.time.LocalDate;
 @Slf4j
 public class TransactionController {
     
+    private static final int MAX_SCROLL_SIZE = 100;
+    
     private final TransactionService transactionService;
+    private final TransactionImportService transactionImportService;
+    private final ObjectMapper objectMapper;
     
     @PostMapping
     //Crear transaccion
@@ -39,6 +60,28 @@ public class TransactionController {
         return new ResponseEntity<>(response, HttpStatus.CREATED);// 201 Created
     }
     
+    @PostMapping("/import")
+    //Importar muchas transacciones en una sola petición (arreglo JSON)
+    //Las filas inválidas se informan en la respuesta y el resto se inserta
+    public ResponseEntity<ImportResultResponse> importTransactions(
+            @RequestBody List<TransactionRequest> requests,
+            @RequestHeader("X-User-Id") Long userId) {
+        log.info("Importación JSON de {} transacciones para el usuario: {}", requests.size(), userId);
+        return ResponseEntity.ok(transactionImportService.importTransactions(requests, userId));
+    }
+    
+    @PostMapping(value = "/import/csv", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    //Importar transacciones desde un archivo CSV (campo "file")
+    public ResponseEntity<ImportResultResponse> importTransactionsCsv(
+            @RequestParam("file") MultipartFile file,
+            @RequestHeader("X-User-Id") Long userId) throws IOException {
+        log.info("Importación CSV '{}' para el usuario: {}", file.getOriginalFilename(), userId);
+        if (file.isEmpty()) {
+            throw new BadRequestException("El archivo CSV está vacío.");
+        }
+        return ResponseEntity.ok(transactionImportService.importCsv(file.getInputStream(), userId));
+    }
+    
     @PutMapping("/{id}")
     //Actualizar transacción
     public ResponseEntity<TransactionResponse> updateTransaction(
@@ -72,68 +115,144 @@ public class TransactionController {
     
     @GetMapping
     //Obtener todas las transacciones(paginadas y ordenadas)
-    public ResponseEntity<Page<TransactionResponse>> getAllTransactions(
+    public ResponseEntity<Slice<TransactionResponse>> getAllTransactions(
             @RequestHeader("X-User-Id") Long userId,
             @RequestParam(defaultValue = "0") int page, //Página actual
             @RequestParam(defaultValue = "10") int size,//Cantidad por página
-            @RequestParam(defaultValue = "transactionDate") String sortBy,//Campo de orden
-            @RequestParam(defaultValue = "DESC") String sortDir) { //Dirección del orden
+            @RequestParam(defaultValue = "transactionDate") String sortBy,//Campo de orden: date, amount o category
+            @RequestParam(defaultValue = "DESC") String sortDir, //Dirección del orden
+            @RequestParam(defaultValue = "true") boolean withCount) { //false = Slice sin COUNT (sin totalElements/totalPages)
         log.info("Obtener todas las transacciones para el usuario: {}", userId);
-        // Crea el objeto Pageable con orden dinámico
-        Sort sort = sortDir.equalsIgnoreCase("ASC") ? 
-                Sort.by(sortBy).ascending() : Sort.by(sortBy).descending();
+        // Solo se aceptan órdenes respaldados por un índice; el resto se rechaza antes de consultar
+        Sort sort = TransactionSort.resolve(sortBy, sortDir);
         Pageable pageable = PageRequest.of(page, size, sort);
         
-        Page<TransactionResponse> transactions = transactionService.getAllTransactions(userId, pageable);
+        Slice<TransactionResponse> transactions = transactionService.getAllTransactions(userId, pageable, withCount);
         return ResponseEntity.ok(transactions);
     }
     
+    @GetMapping("/scroll")
+    //Obtener todas las transacciones por cursor (de la más reciente a la más antigua)
+    //El costo por página no depende de la profundidad: no hay OFFSET ni COUNT
+    public ResponseEntity<TransactionScrollResponse> scrollTransactions(
+            @RequestHeader("X-User-Id") Long userId,
+            @RequestParam(required = false) String cursor, //nextCursor de la página anterior; vacío = primera página
+            @RequestParam(defaultValue = "10") int size) {
+        log.info("Recorrer transacciones por cursor para el usuario: {}", userId);
+        return ResponseEntity.ok(transactionService.scrollTransactions(userId, cursor, scrollSize(size)));
+    }
+    
     @GetMapping("/type/{type}")
     //Obtener por tipo(ingreso/gasto)
-    public ResponseEntity<Page<TransactionResponse>> getTransactionsByType(
+    public ResponseEntity<Slice<TransactionResponse>> getTransactionsByType(
             @PathVariable TransactionType type,// Enum: INGRESO o GASTO
             @RequestHeader("X-User-Id") Long userId,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "true") boolean withCount) {
         log.info("Obtener transacciones por tipo {} Para el usuario: {}", type, userId);
         
-        Pageable pageable = PageRequest.of(page, size, Sort.by("transactionDate").descending());
-        Page<TransactionResponse> transactions = transactionService.getTransactionsByType(
-                userId, type, pageable);
+        Pageable pageable = PageRequest.of(page, size, TransactionSort.DATE.toSort(Sort.Direction.DESC));
+        Slice<TransactionResponse> transactions = transactionService.getTransactionsByType(
+                userId, type, pageable, withCount);
         return ResponseEntity.ok(transactions);
     }
     
+    @GetMapping("/type/{type}/scroll")
+    //Obtener por tipo, por cursor
+    public ResponseEntity<TransactionScrollResponse> scrollTransactionsByType(
+            @PathVariable TransactionType type,
+            @RequestHeader("X-User-Id") Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+        log.info("Recorrer transacciones por tipo {} para el usuario: {}", type, userId);
+        return ResponseEntity.ok(transactionService.scrollTransactionsByType(userId, type, cursor, scrollSize(size)));
+    }
+    
     @GetMapping("/date-range")
     //Obtener por rangos de fechas
-    public ResponseEntity<Page<TransactionResponse>> getTransactionsByDateRange(
+    public ResponseEntity<Slice<TransactionResponse>> getTransactionsByDateRange(
             @RequestHeader("X-User-Id") Long userId,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,// Fecha inicio
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,// Fecha fin
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "true") boolean withCount) {
         log.info("Obtener transacciones para el usuario {} de {} a {}", userId, startDate, endDate);
         
-        Pageable pageable = PageRequest.of(page, size, Sort.by("transactionDate").descending());
-        Page<TransactionResponse> transactions = transactionService.getTransactionsByDateRange(
-                userId, startDate, endDate, pageable);
+        Pageable pageable = PageRequest.of(page, size, TransactionSort.DATE.toSort(Sort.Direction.DESC));
+        Slice<TransactionResponse> transactions = transactionService.getTransactionsByDateRange(
+                userId, startDate, endDate, pageable, withCount);
         return ResponseEntity.ok(transactions);
     }
     
+    @GetMapping("/date-range/scroll")
+    //Obtener por rango de fechas, por cursor
+    public ResponseEntity<TransactionScrollResponse> scrollTransactionsByDateRange(
+            @RequestHeader("X-User-Id") Long userId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+        log.info("Recorrer transacciones para el usuario {} de {} a {}", userId, startDate, endDate);
+        return ResponseEntity.ok(transactionService.scrollTransactionsByDateRange(
+                userId, startDate, endDate, cursor, scrollSize(size)));
+    }
+    
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    //Exportar todas las transacciones del rango como NDJSON (una transacción JSON por línea)
+    //Sin paginación ni COUNT: las filas se leen de un cursor y se escriben a medida que llegan
+    public ResponseEntity<StreamingResponseBody> exportTransactions(
+            @RequestHeader("X-User-Id") Long userId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        log.info("Exportar transacciones para el usuario {} de {} a {}", userId, startDate, endDate);
+        
+        StreamingResponseBody body = outputStream -> {
+            OutputStream out = new BufferedOutputStream(outputStream);
+            transactionService.streamTransactionsByDateRange(userId, startDate, endDate, transaction -> {
+                try {
+                    out.write(objectMapper.writeValueAsBytes(transaction));
+                    out.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            out.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+    
     @GetMapping("/category/{categoryId}")
     //Obtener por categoría
-    public ResponseEntity<Page<TransactionResponse>> getTransactionsByCategory(
+    public ResponseEntity<Slice<TransactionResponse>> getTransactionsByCategory(
             @PathVariable Long categoryId,
             @RequestHeader("X-User-Id") Long userId,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "true") boolean withCount) {
         log.info("Obtener transacciones por categoría {} para el usuario: {}", categoryId, userId);
         
-        Pageable pageable = PageRequest.of(page, size, Sort.by("transactionDate").descending());
-        Page<TransactionResponse> transactions = transactionService.getTransactionsByCategory(
-                userId, categoryId, pageable);
+        Pageable pageable = PageRequest.of(page, size, TransactionSort.DATE.toSort(Sort.Direction.DESC));
+        Slice<TransactionResponse> transactions = transactionService.getTransactionsByCategory(
+                userId, categoryId, pageable, withCount);
         return ResponseEntity.ok(transactions);
     }
     
+    @GetMapping("/category/{categoryId}/scroll")
+    //Obtener por categoría, por cursor
+    public ResponseEntity<TransactionScrollResponse> scrollTransactionsByCategory(
+            @PathVariable Long categoryId,
+            @RequestHeader("X-User-Id") Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+        log.info("Recorrer transacciones por categoría {} para el usuario: {}", categoryId, userId);
+        return ResponseEntity.ok(transactionService.scrollTransactionsByCategory(
+                userId, categoryId, cursor, scrollSize(size)));
+    }
+    
     @GetMapping("/balance")
     //calcular balance(ingresos-gastos)
     public ResponseEntity<BalanceResponse> getBalance(
@@ -158,4 +277,60 @@ public class TransactionController {
         BigDecimal spent = transactionService.calculateSpentAmount(userId, categoryId, startDate, endDate);
         return ResponseEntity.ok(spent);
     }
+    
+    @PostMapping("/calculate-spent/batch")
+    //Calcular el total gastado de varias consultas (categoría, rango de fechas) en una sola llamada
+    //Devuelve los montos en el mismo orden que las consultas recibidas
+    public ResponseEntity<List<BigDecimal>> calculateSpentAmounts(
+            @RequestHeader("X-User-Id") Long userId,
+            @RequestBody List<SpentAmountRequest> requests) {
+        log.info("Calcular {} cantidades gastadas para el usuario {}", requests.size(), userId);
+        
+        List<BigDecimal> spentAmounts = transactionService.calculateSpentAmounts(userId, requests);
+        return ResponseEntity.ok(spentAmounts);
+    }
+    
+    @GetMapping("/daily")
+    //Serie diaria: cantidad y total por día y tipo en el rango
+    public ResponseEntity<List<DailyTotalResponse>> getDailyTotals(
+            @RequestHeader("X-User-Id") Long userId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        log.info("Obtener serie diaria para el usuario {} de {} a {}", userId, startDate, endDate);
+        
+        List<DailyTotalResponse> dailyTotals = transactionService.getDailyTotals(userId, startDate, endDate);
+        return ResponseEntity.ok(dailyTotals);
+    }
+    
+    @GetMapping("/trend")
+    //Totales por mes y categoría en el rango (opcional por tipo)
+    public ResponseEntity<List<MonthlyTrendResponse>> getMonthlyTrend(
+            @RequestHeader("X-User-Id") Long userId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) TransactionType type) {
+        log.info("Obtener tendencia mensual para el usuario {} de {} a {}", userId, startDate, endDate);
+        
+        List<MonthlyTrendResponse> trend = transactionService.getMonthlyTrend(userId, startDate, endDate, type);
+        return ResponseEntity.ok(trend);
+    }
+    
+    @GetMapping("/count")
+    //Cantidad de transacciones de una categoría en el rango (opcional por tipo)
+    public ResponseEntity<Long> countTransactionsByCategory(
+            @RequestHeader("X-User-Id") Long userId,
+            @RequestParam String categoryName,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) TransactionType type) {
+        log.info("Contar transacciones de '{}' para el usuario {} de {} a {}", categoryName, userId, startDate, endDate);
+        
+        long count = transactionService.countTransactionsByCategory(userId, categoryName, type, startDate, endDate);
+        return ResponseEntity.ok(count);
+    }
+    
+    //Tamaño de página por cursor entre 1 y MAX_SCROLL_SIZE
+    private int scrollSize(int size) {
+        return Math.max(1, Math.min(size, MAX_SCROLL_SIZE));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,33 @@
+package com.arturo.transactionservice.controller;
+
+import com.arturo.transactionservice.dto.response.UserChangeResponse;
+import com.arturo.transactionservice.service.UserChangeService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+//Endpoints internos para report-service: no se exponen a través del api-gateway
+@RestController
+@RequestMapping("/internal/user-changes")
+@RequiredArgsConstructor
+public class UserChangeController {
+
+    private final UserChangeService userChangeService;
+
+    @GetMapping
+    //Cambios de datos de usuarios posteriores a un id (versiones para invalidar la caché de reportes)
+    public ResponseEntity<List<UserChangeResponse>> getChanges(
+            @RequestParam(defaultValue = "0") Long afterId,
+            @RequestParam(defaultValue = "500") int limit) {
+        int size = Math.min(Math.max(limit, 1), 1000);
+        return ResponseEntity.ok(userChangeService.getChangesAfter(afterId, size));
+    }
+
+    @GetMapping("/last")
+    //Último id de cambio (punto de partida de un consumidor que arranca con la caché vacía)
+    public ResponseEntity<Long> getLastChangeId() {
+        return ResponseEntity.ok(userChangeService.getLastChangeId());
+    }
+}
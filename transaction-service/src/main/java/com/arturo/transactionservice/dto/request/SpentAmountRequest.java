@@ -0,0 +1,22 @@
+package com.arturo.transactionservice.dto.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class SpentAmountRequest {
+
+    //Categoría a consultar; si es null se suman los gastos de todas las categorías
+    private Long categoryId;
+
+    private LocalDate startDate;
+
+    private LocalDate endDate;
+}
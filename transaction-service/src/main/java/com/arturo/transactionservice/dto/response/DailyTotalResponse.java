@@ -0,0 +1,22 @@
+package com.arturo.transactionservice.dto.response;
+
+import com.arturo.transactionservice.enums.TransactionType;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyTotalResponse {
+
+    private LocalDate date;
+    private TransactionType type;
+    private Long count;
+    private BigDecimal total;
+}
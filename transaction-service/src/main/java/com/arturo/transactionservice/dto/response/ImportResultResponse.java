@@ -0,0 +1,20 @@
+package com.arturo.transactionservice.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportResultResponse {
+
+    private int totalRows;
+    private int importedRows;
+    private int failedRows;
+    private List<ImportRowErrorResponse> errors; //Filas rechazadas con el motivo; las demás se importan
+}
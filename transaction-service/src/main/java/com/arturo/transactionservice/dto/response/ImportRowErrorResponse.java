@@ -0,0 +1,16 @@
+package com.arturo.transactionservice.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportRowErrorResponse {
+
+    private int row; //Número de fila (1 = primera transacción; en CSV no cuenta la cabecera)
+    private String message;
+}
@@ -0,0 +1,22 @@
+package com.arturo.transactionservice.dto.response;
+
+import com.arturo.transactionservice.enums.TransactionType;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class MonthlyTrendResponse {
+
+    private Integer year;
+    private Integer month;
+    private String categoryName;
+    private TransactionType type;
+    private BigDecimal total;
+}
@@ -0,0 +1,22 @@
+package com.arturo.transactionservice.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class SpentEventResponse {
+
+    private Long id;
+    private Long userId;
+    private Long categoryId;
+    private LocalDate transactionDate;
+    private BigDecimal amountDelta;
+}
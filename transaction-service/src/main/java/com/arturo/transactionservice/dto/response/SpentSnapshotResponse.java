@@ -0,0 +1,29 @@
+package com.arturo.transactionservice.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class SpentSnapshotResponse {
+
+    //Último evento del outbox visible cuando se calcularon los montos
+    private Long lastEventId;
+
+    //Todos los eventos con id <= settledEventId están incluidos en los montos; por encima, solo los de includedEventIds
+    private Long settledEventId;
+
+    //Eventos del usuario en (settledEventId, lastEventId] incluidos en los montos
+    //(un id menor que lastEventId puede no estarlo si su transacción todavía no se había confirmado)
+    private List<Long> includedEventIds;
+
+    //Montos gastados, en el mismo orden que las consultas recibidas
+    private List<BigDecimal> amounts;
+}
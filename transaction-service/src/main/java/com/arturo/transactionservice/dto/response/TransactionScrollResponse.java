@@ -0,0 +1,20 @@
+package com.arturo.transactionservice.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionScrollResponse {
+
+    private List<TransactionResponse> content;
+    private int size;
+    private boolean hasNext;
+    private String nextCursor; //Token para pedir la página siguiente (null en la última página)
+}
@@ -0,0 +1,30 @@
+package com.arturo.transactionservice.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+//Id del outbox hasta el que un consumidor ya no relee eventos
+//La purga del outbox no elimina eventos por encima del menor de estos ids
+@Entity
+@Table(name = "outbox_consumers")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxConsumer {
+
+    @Id
+    @Column(length = 50)
+    private String name;
+
+    @Column(name = "acknowledged_id", nullable = false)
+    private Long acknowledgedId;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -17,7 +17,15 @@ import java.time.LocalDateTime;
         @Index(name = "idx_user_id", columnList = "user_id"), //Crea indicies en columnas usadas frecuentemente en busquedas, para mejorar rendimiendo
         @Index(name = "idx_transaction_date", columnList = "transaction_date"),
         @Index(name = "idx_type", columnList = "type"),
-        @Index(name = "idx_user_date", columnList = "user_id, transaction_date")
+        //Series recurrentes (ver db/migration/V4__recurring_series.sql)
+        @Index(name = "uk_recurrence_source_date", columnList = "recurrence_source_id, transaction_date", unique = true),
+        @Index(name = "idx_next_occurrence", columnList = "next_occurrence_date, id"),
+        //Paginación por cursor sobre (transaction_date, id) (ver db/migration/V5__keyset_pagination_indexes.sql)
+        @Index(name = "idx_user_date_id", columnList = "user_id, transaction_date, id"),
+        @Index(name = "idx_user_type_date_id", columnList = "user_id, type, transaction_date, id"),
+        @Index(name = "idx_user_cat_date_id", columnList = "user_id, category_id, transaction_date, id"),
+        //Orden por monto (ver db/migration/V6__sort_indexes.sql)
+        @Index(name = "idx_user_amount_id", columnList = "user_id, amount, id")
 })
 @Getter
 @Setter
@@ -62,6 +70,18 @@ public class Transaction {
     @Column(name = "recurring_frequency")
     private RecurringFrequency recurringFrequency;
 
+    //Transacción recurrente de la que se generó esta ocurrencia (null si se creó directamente)
+    @Column(name = "recurrence_source_id")
+    private Long recurrenceSourceId;
+
+    //Solo en transacciones recurrentes: próxima ocurrencia pendiente de generar (marca de agua de la serie)
+    @Column(name = "next_occurrence_date")
+    private LocalDate nextOccurrenceDate;
+
+    //Solo en transacciones recurrentes: ocurrencias ya generadas
+    @Column(name = "occurrence_count", nullable = false)
+    private Integer occurrenceCount = 0;
+
     @Column(name = "created_at" , nullable = false , updatable = false)
     private LocalDateTime createdAt;
 
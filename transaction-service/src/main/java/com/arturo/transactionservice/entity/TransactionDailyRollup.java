@@ -0,0 +1,49 @@
+package com.arturo.transactionservice.entity;
+
+import com.arturo.transactionservice.enums.TransactionType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+//Total y cantidad de transacciones de un usuario por día, tipo y categoría
+//Se mantiene con upserts en la misma transacción que modifica las transacciones (ver DailyRollupService)
+@Entity
+@Table(name = "transaction_daily_rollup", indexes = {
+        @Index(name = "idx_rollup_user_cat_type_day", columnList = "user_id, category_id, type, day, total")
+})
+@IdClass(TransactionDailyRollupId.class)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionDailyRollup {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Id
+    @Column(name = "day")
+    private LocalDate day;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(name = "type")
+    private TransactionType type;
+
+    @Id
+    @Column(name = "category_id")
+    private Long categoryId;
+
+    @Column(name = "total", nullable = false, precision = 15, scale = 2)
+    private BigDecimal total;
+
+    //Puede quedar en 0 tras eliminar transacciones; la reconstrucción borra esas filas
+    @Column(name = "transaction_count", nullable = false)
+    private Long transactionCount;
+}
@@ -0,0 +1,25 @@
+package com.arturo.transactionservice.entity;
+
+import com.arturo.transactionservice.enums.TransactionType;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+//Clave compuesta de TransactionDailyRollup
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+public class TransactionDailyRollupId implements Serializable {
+
+    private Long userId;
+    private LocalDate day;
+    private TransactionType type;
+    private Long categoryId;
+}
@@ -0,0 +1,50 @@
+package com.arturo.transactionservice.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+//Evento de cambio en el gasto de un usuario (outbox)
+//Se escribe en la misma transacción que crea, actualiza o elimina un GASTO,
+//y budget-service lo lee en orden de id para mantener sus contadores de gasto
+@Entity
+@Table(name = "transaction_outbox", indexes = {
+        @Index(name = "idx_outbox_created_at", columnList = "created_at")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionOutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "category_id", nullable = false)
+    private Long categoryId;
+
+    @Column(name = "transaction_date", nullable = false)
+    private LocalDate transactionDate;
+
+    //Variación del gasto: positiva al crear, negativa al eliminar (una actualización genera ambas)
+    @Column(name = "amount_delta", nullable = false, precision = 12, scale = 2)
+    private BigDecimal amountDelta;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,38 @@
+package com.arturo.transactionservice.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+//Marca de cambio en los datos de un usuario
+//Se escribe en la misma transacción que modifica sus transacciones; el id creciente es la versión
+//que report-service usa para descartar los reportes en caché del usuario
+@Entity
+@Table(name = "user_change_events", indexes = {
+        @Index(name = "idx_user_change_created_at", columnList = "created_at")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserChangeEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
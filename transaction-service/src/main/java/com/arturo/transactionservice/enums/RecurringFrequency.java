@@ -1,8 +1,21 @@
 package com.arturo.transactionservice.enums;
 
+import java.time.LocalDate;
+
 public enum RecurringFrequency { //Frecuencia Recurrente
     DAILY,
     WEEKLY,
     MONTHLY,
-    YEARLY
-}
\ No newline at end of file
+    YEARLY;
+
+    //Fecha de la ocurrencia número n de una serie que empieza en 'start' (n = 1 es un período después)
+    //Se calcula siempre desde el inicio: una serie del 31 de enero cae el 28/29 de febrero y vuelve al 31 de marzo
+    public LocalDate occurrence(LocalDate start, long n) {
+        return switch (this) {
+            case DAILY -> start.plusDays(n);
+            case WEEKLY -> start.plusWeeks(n);
+            case MONTHLY -> start.plusMonths(n);
+            case YEARLY -> start.plusYears(n);
+        };
+    }
+}
@@ -0,0 +1,42 @@
+package com.arturo.transactionservice.pagination;
+
+import com.arturo.transactionservice.entity.Transaction;
+import com.arturo.transactionservice.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+//Posición de la paginación por cursor: la última transacción entregada (fecha, id)
+//El cliente la recibe como un token opaco (Base64 URL) y la devuelve para pedir la página siguiente
+public record TransactionCursor(LocalDate transactionDate, Long id) {
+
+    //Posición inicial: antes de la transacción más reciente posible
+    public static final TransactionCursor FIRST = new TransactionCursor(LocalDate.of(9999, 12, 31), Long.MAX_VALUE);
+
+    public static TransactionCursor after(Transaction transaction) {
+        return new TransactionCursor(transaction.getTransactionDate(), transaction.getId());
+    }
+
+    //Token vacío o ausente = primera página
+    public static TransactionCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return FIRST;
+        }
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = value.indexOf(':');
+            return new TransactionCursor(
+                    LocalDate.parse(value.substring(0, separator)),
+                    Long.parseLong(value.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException ex) {
+            throw new BadRequestException("Cursor de paginación inválido.");
+        }
+    }
+
+    public String encode() {
+        String value = transactionDate + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
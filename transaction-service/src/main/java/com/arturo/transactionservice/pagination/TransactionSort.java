@@ -0,0 +1,48 @@
+package com.arturo.transactionservice.pagination;
+
+import com.arturo.transactionservice.exception.BadRequestException;
+import org.springframework.data.domain.Sort;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+//Campos por los que se puede ordenar el listado de transacciones
+//Cada orden tiene un índice compuesto que empieza por user_id y termina en id (desempate estable),
+//así MySQL recorre el índice en orden en lugar de ordenar todo el historial del usuario
+//(ver db/migration/V5__keyset_pagination_indexes.sql y V6__sort_indexes.sql)
+public enum TransactionSort {
+    DATE("transactionDate", "transactionDate"), //idx_user_date_id
+    AMOUNT("amount", "amount"),                 //idx_user_amount_id
+    CATEGORY("category", "category.id", "transactionDate"); //idx_user_cat_date_id
+
+    private final String param;
+    private final String[] properties;
+
+    TransactionSort(String param, String... properties) {
+        this.param = param;
+        this.properties = properties;
+    }
+
+    public Sort toSort(Sort.Direction direction) {
+        return Sort.by(direction, properties).and(Sort.by(direction, "id"));
+    }
+
+    //Traduce los parámetros sortBy/sortDir; cualquier otro campo o dirección es un 400
+    //"date" y "transactionDate" son equivalentes (el segundo es el valor que ya usan los clientes)
+    public static Sort resolve(String sortBy, String sortDir) {
+        Sort.Direction direction = Sort.Direction.fromOptionalString(sortDir)
+                .orElseThrow(() -> new BadRequestException("Dirección de orden no válida: " + sortDir
+                        + ". Valores permitidos: ASC, DESC."));
+        String field = "date".equalsIgnoreCase(sortBy) ? DATE.param : sortBy;
+        TransactionSort sort = Arrays.stream(values())
+                .filter(value -> value.param.equalsIgnoreCase(field))
+                .findFirst()
+                .orElseThrow(() -> new BadRequestException("No se puede ordenar por '" + sortBy
+                        + "'. Campos permitidos: " + allowedFields() + "."));
+        return sort.toSort(direction);
+    }
+
+    private static String allowedFields() {
+        return "date, " + Arrays.stream(values()).map(value -> value.param).collect(Collectors.joining(", "));
+    }
+}
@@ -0,0 +1,114 @@
+package com.arturo.transactionservice.registry;
+
+import com.arturo.transactionservice.dto.response.CategoryDTO;
+import com.arturo.transactionservice.entity.Category;
+import com.arturo.transactionservice.enums.TransactionType;
+import com.arturo.transactionservice.exception.ResourceNotFoundException;
+import com.arturo.transactionservice.repository.CategoryRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/*
+  Registro en memoria de las categorías. La tabla es pequeña y casi no cambia (se llena con
+  las categorías predeterminadas), así que se carga completa y las búsquedas por id, nombre o tipo
+  no consultan la base de datos.
+  Cada recarga construye un Snapshot nuevo e inmutable y lo publica de una sola vez (volatile):
+  los lectores nunca ven un registro a medio actualizar y no necesitan sincronización.
+  Los CategoryDTO se comparten entre peticiones y no deben modificarse.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CategoryRegistry {
+
+    private final CategoryRepository categoryRepository;
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    @PostConstruct
+    //Carga inicial al arrancar la aplicación
+    public void init() {
+        refresh();
+    }
+
+    @Scheduled(fixedDelayString = "${transaction.category-registry.refresh-ms:300000}")
+    //Recarga periódica para tomar cambios hechos por otra instancia o directamente en la base de datos
+    public void scheduledRefresh() {
+        refresh();
+    }
+
+    //Vuelve a leer la tabla de categorías; debe llamarse después de crear o modificar categorías
+    public void refresh() {
+        List<CategoryDTO> categories = categoryRepository.findAll().stream()
+                .map(CategoryRegistry::toDTO)
+                .collect(Collectors.toList());
+        snapshot = new Snapshot(categories);
+        log.debug("Registro de categorías cargado: {} categorías", categories.size());
+    }
+
+    public List<CategoryDTO> getAll() {
+        return snapshot.all();
+    }
+
+    public List<CategoryDTO> getByType(TransactionType type) {
+        return snapshot.byType().getOrDefault(type, List.of());
+    }
+
+    public Optional<CategoryDTO> findById(Long id) {
+        return Optional.ofNullable(snapshot.byId().get(id));
+    }
+
+    public Optional<CategoryDTO> findByName(String name) {
+        return Optional.ofNullable(snapshot.byName().get(name.toLowerCase(Locale.ROOT)));
+    }
+
+    //Categoría por id o ResourceNotFoundException si no existe
+    public CategoryDTO getById(Long id) {
+        return findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Categoría no encontrada"));
+    }
+
+    public static CategoryDTO toDTO(Category category) {
+        return new CategoryDTO(
+                category.getId(),
+                category.getName(),
+                category.getDescription(),
+                category.getType(),
+                category.getIconName(),
+                category.getColorHex(),
+                category.getIsDefault()
+        );
+    }
+
+    //Índices de una versión del registro (todas las colecciones son inmutables)
+    private record Snapshot(List<CategoryDTO> all,
+                            Map<Long, CategoryDTO> byId,
+                            Map<String, CategoryDTO> byName,
+                            Map<TransactionType, List<CategoryDTO>> byType) {
+
+        static final Snapshot EMPTY = new Snapshot(List.of());
+
+        Snapshot(List<CategoryDTO> categories) {
+            this(List.copyOf(categories),
+                    Map.copyOf(categories.stream()
+                            .collect(Collectors.toMap(CategoryDTO::getId, c -> c))),
+                    Map.copyOf(categories.stream()
+                            .collect(Collectors.toMap(c -> c.getName().toLowerCase(Locale.ROOT), c -> c, (a, b) -> a))),
+                    Map.copyOf(categories.stream()
+                            .collect(Collectors.groupingBy(CategoryDTO::getType,
+                                    () -> new EnumMap<>(TransactionType.class),
+                                    Collectors.collectingAndThen(Collectors.toList(), List::copyOf)))));
+        }
+    }
+}
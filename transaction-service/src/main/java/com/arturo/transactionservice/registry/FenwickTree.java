@@ -0,0 +1,36 @@
+package com.arturo.transactionservice.registry;
+
+//Árbol de Fenwick (Binary Indexed Tree) sobre posiciones 0..size-1 con valores en centavos
+//add y prefix cuestan O(log size); la suma de cualquier rango es prefix(to) - prefix(from - 1)
+//No es seguro para hilos: quien lo usa debe sincronizar el acceso
+final class FenwickTree {
+
+    private final long[] tree; //Índices 1..size; tree[0] no se usa
+
+    FenwickTree(int size) {
+        this.tree = new long[size + 1];
+    }
+
+    int size() {
+        return tree.length - 1;
+    }
+
+    void add(int index, long delta) {
+        for (int i = index + 1; i < tree.length; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    //Suma de las posiciones 0..index (0 si index < 0)
+    long prefix(int index) {
+        long sum = 0;
+        for (int i = Math.min(index + 1, tree.length - 1); i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    long range(int from, int to) {
+        return from > to ? 0 : prefix(to) - prefix(from - 1);
+    }
+}
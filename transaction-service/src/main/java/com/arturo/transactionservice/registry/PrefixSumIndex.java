@@ -0,0 +1,326 @@
+package com.arturo.transactionservice.registry;
+
+import com.arturo.transactionservice.enums.TransactionType;
+import com.arturo.transactionservice.repository.TransactionDailyRollupRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+  Sumas acumuladas por usuario, tipo y categoría sobre los días, en memoria.
+  Cada usuario tiene un árbol de Fenwick por (tipo, categoría) y uno por tipo (todas las categorías),
+  indexados por días desde el primer día con movimientos. El total de cualquier rango es
+  cum[end] - cum[start - 1], en O(log días) sin importar cuántas transacciones tenga el historial.
+  Se carga desde transaction_daily_rollup la primera vez que se consulta un usuario y después se
+  actualiza con los mismos deltas que el rollup, al confirmarse cada transacción.
+  Los deltas solo llegan a la instancia que hizo el cambio, así que el índice solo es correcto con una única
+  instancia de transaction-service: está desactivado por defecto (enabled) y las consultas usan el rollup.
+  Detrás de una ruta balanceada un cambio hecho en otra instancia no se vería hasta que vence la carga (ttl-ms).
+  La memoria se limita con max-cells: cada árbol ocupa un long por día del historial del usuario (más los días
+  futuros reservados); un usuario que no cabe se sigue consultando en el rollup.
+  Una carga no se publica si durante ella había una transacción del usuario sin terminar: la lectura pudo
+  ver su delta ya confirmado en el rollup antes de que afterCommit lo sume a memoria (se contaría dos veces).
+  Si un usuario no está disponible (cargándose, caché llena o un cambio cae fuera del rango de días)
+  las consultas devuelven vacío y quien llama usa el rollup en la base de datos.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PrefixSumIndex {
+
+    private final TransactionDailyRollupRepository rollupRepository;
+
+    //userId -> sumas del usuario
+    private final Map<Long, UserSums> users = new ConcurrentHashMap<>();
+
+    //userId -> deltas registrados en transacciones que todavía no terminaron
+    private final Map<Long, Integer> inFlight = new ConcurrentHashMap<>();
+
+    //Posiciones (longs) ocupadas por todos los árboles en memoria
+    private final AtomicLong cells = new AtomicLong();
+
+    @Value("${transaction.prefix-sums.enabled:false}")
+    private boolean enabled; //Solo con una única instancia (ver arriba)
+
+    @Value("${transaction.prefix-sums.max-users:2000}")
+    private int maxUsers; //Máximo de usuarios en memoria
+
+    @Value("${transaction.prefix-sums.max-cells:20000000}")
+    private long maxCells; //Máximo de posiciones entre todos los árboles (8 bytes cada una)
+
+    @Value("${transaction.prefix-sums.ttl-ms:60000}")
+    private long ttlMs; //Vida de cada carga; después se vuelve a leer el rollup
+
+    @Value("${transaction.prefix-sums.future-days:400}")
+    private int futureDays; //Días reservados después de hoy (transacciones con fecha futura)
+
+    //Total por (tipo, categoría) en el rango; solo incluye categorías con movimientos
+    public Optional<Map<SumKey, BigDecimal>> totalsByCategory(Long userId, LocalDate startDate, LocalDate endDate) {
+        UserSums sums = load(userId);
+        if (sums == null) {
+            return Optional.empty();
+        }
+        synchronized (sums) {
+            Map<SumKey, BigDecimal> totals = new HashMap<>();
+            sums.trees.forEach((key, tree) -> {
+                if (key.categoryId() != null) {
+                    long cents = sums.range(tree, startDate, endDate);
+                    if (cents != 0) {
+                        totals.put(key, BigDecimal.valueOf(cents, 2));
+                    }
+                }
+            });
+            return Optional.of(totals);
+        }
+    }
+
+    //Total de un tipo en el rango (categoryId null = todas las categorías)
+    public Optional<BigDecimal> total(Long userId, TransactionType type, Long categoryId,
+                                      LocalDate startDate, LocalDate endDate) {
+        UserSums sums = load(userId);
+        if (sums == null) {
+            return Optional.empty();
+        }
+        synchronized (sums) {
+            FenwickTree tree = sums.trees.get(new SumKey(type, categoryId));
+            long cents = tree == null ? 0 : sums.range(tree, startDate, endDate);
+            return Optional.of(BigDecimal.valueOf(cents, 2));
+        }
+    }
+
+    //Aplica un delta cuando la transacción actual se confirme (lo mismo que se sumó al rollup)
+    public void applyAfterCommit(Long userId, LocalDate day, TransactionType type, Long categoryId, BigDecimal delta) {
+        if (!enabled) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evict(userId);
+            return;
+        }
+        //Cuenta desde antes de confirmar hasta después de aplicar: load() descarta lo leído mientras tanto
+        inFlight.merge(userId, 1, Integer::sum);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                try {
+                    if (status == STATUS_COMMITTED) {
+                        apply(userId, day, type, categoryId, delta);
+                    }
+                } finally {
+                    inFlight.computeIfPresent(userId, (id, count) -> count > 1 ? count - 1 : null);
+                }
+            }
+        });
+    }
+
+    //Descarta al usuario cuando la transacción actual se confirme (por ejemplo tras reconstruir su rollup)
+    public void evictAfterCommit(List<Long> userIds) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            userIds.forEach(this::evict);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                userIds.forEach(PrefixSumIndex.this::evict);
+            }
+        });
+    }
+
+    public void evict(Long userId) {
+        UserSums sums = users.get(userId);
+        if (sums != null) {
+            discard(userId, sums);
+        }
+    }
+
+    //Quita las sumas del usuario y libera sus posiciones; una carga en curso ya no se publica
+    private void discard(Long userId, UserSums sums) {
+        synchronized (sums) {
+            users.remove(userId, sums);
+            sums.stale = true;
+            cells.addAndGet(-sums.cells);
+            sums.cells = 0;
+        }
+    }
+
+    private void apply(Long userId, LocalDate day, TransactionType type, Long categoryId, BigDecimal delta) {
+        UserSums sums = users.get(userId);
+        if (sums == null) {
+            return; //No está en memoria: se cargará completo desde el rollup
+        }
+        synchronized (sums) {
+            if (sums.stale) {
+                return; //Ya descartado
+            }
+            if (sums.loading) {
+                sums.stale = true; //La lectura en curso puede no incluir este cambio
+                return;
+            }
+            int index = sums.index(day);
+            if (index < 0 || index >= sums.size) {
+                //Fecha anterior al primer día o más allá del espacio reservado: se vuelve a cargar con otro rango
+                discard(userId, sums);
+                return;
+            }
+            long before = sums.cells;
+            long cents = toCents(delta);
+            sums.tree(new SumKey(type, categoryId)).add(index, cents);
+            sums.tree(new SumKey(type, null)).add(index, cents);
+            cells.addAndGet(sums.cells - before); //Categoría nueva: un árbol más
+        }
+    }
+
+    //Devuelve las sumas del usuario, cargándolas desde el rollup si hace falta; null si no están disponibles
+    private UserSums load(Long userId) {
+        if (!enabled) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        UserSums cached = users.get(userId);
+        if (cached != null) {
+            synchronized (cached) {
+                if (cached.loading) {
+                    return null;
+                }
+                if (cached.expiresAt > now) {
+                    return cached;
+                }
+            }
+            discard(userId, cached);
+        }
+        if (users.size() >= maxUsers) {
+            discardExpired(now);
+            if (users.size() >= maxUsers) {
+                return null;
+            }
+        }
+
+        //Se publica vacío antes de leer: los cambios confirmados durante la lectura lo marcan como desactualizado
+        UserSums sums = new UserSums();
+        if (users.putIfAbsent(userId, sums) != null) {
+            return null;
+        }
+        List<Object[]> rows;
+        try {
+            rows = rollupRepository.findUserTotals(userId);
+        } catch (RuntimeException ex) {
+            discard(userId, sums);
+            throw ex;
+        }
+
+        LocalDate first = LocalDate.now();
+        for (Object[] data : rows) {
+            LocalDate day = (LocalDate) data[0];
+            if (day.isBefore(first)) {
+                first = day;
+            }
+        }
+        LocalDate last = LocalDate.now().plusDays(futureDays);
+        for (Object[] data : rows) {
+            LocalDate day = (LocalDate) data[0];
+            if (day.isAfter(last)) {
+                last = day.plusDays(futureDays);
+            }
+        }
+
+        //Un árbol por (tipo, categoría) y uno por tipo, cada uno con una posición por día
+        int size = (int) ChronoUnit.DAYS.between(first, last) + 1;
+        Set<SumKey> keys = new HashSet<>();
+        for (Object[] data : rows) {
+            keys.add(new SumKey((TransactionType) data[1], (Long) data[2]));
+            keys.add(new SumKey((TransactionType) data[1], null));
+        }
+        long needed = (long) keys.size() * size;
+        if (cells.get() + needed > maxCells) {
+            discardExpired(now);
+            if (cells.get() + needed > maxCells) {
+                log.debug("Sumas acumuladas del usuario {} fuera de memoria: {} posiciones", userId, needed);
+                discard(userId, sums);
+                return null;
+            }
+        }
+
+        synchronized (sums) {
+            //Desactualizada, o una transacción del usuario pudo confirmarse sin que su delta llegara todavía a memoria
+            if (sums.stale || inFlight.containsKey(userId)) {
+                discard(userId, sums);
+                return null;
+            }
+            sums.origin = first;
+            sums.size = size;
+            for (Object[] data : rows) {
+                int index = sums.index((LocalDate) data[0]);
+                TransactionType type = (TransactionType) data[1];
+                long cents = toCents((BigDecimal) data[3]);
+                sums.tree(new SumKey(type, (Long) data[2])).add(index, cents);
+                sums.tree(new SumKey(type, null)).add(index, cents);
+            }
+            cells.addAndGet(sums.cells);
+            sums.expiresAt = now + ttlMs;
+            sums.loading = false;
+        }
+        log.debug("Sumas acumuladas cargadas para el usuario {}: {} filas, {} días", userId, rows.size(), sums.size);
+        return sums;
+    }
+
+    private void discardExpired(long now) {
+        users.forEach((userId, sums) -> {
+            if (!sums.loading && sums.expiresAt <= now) {
+                discard(userId, sums);
+            }
+        });
+    }
+
+    private static long toCents(BigDecimal amount) {
+        return amount.movePointRight(2).longValueExact();
+    }
+
+    //Tipo y categoría de un árbol (categoryId null = todas las categorías del tipo)
+    public record SumKey(TransactionType type, Long categoryId) {
+    }
+
+    //Sumas de un usuario; se accede sincronizando sobre la instancia
+    private static final class UserSums {
+        private final Map<SumKey, FenwickTree> trees = new HashMap<>();
+        private LocalDate origin;
+        private int size;
+        private boolean loading = true;
+        private boolean stale;
+        private long expiresAt;
+        private long cells; //Posiciones de sus árboles
+
+        private int index(LocalDate day) {
+            return (int) ChronoUnit.DAYS.between(origin, day);
+        }
+
+        private FenwickTree tree(SumKey key) {
+            return trees.computeIfAbsent(key, k -> {
+                cells += size;
+                return new FenwickTree(size);
+            });
+        }
+
+        //Total del rango recortado a los días representados
+        private long range(FenwickTree tree, LocalDate startDate, LocalDate endDate) {
+            int from = Math.max(index(startDate), 0);
+            int to = (int) Math.min(ChronoUnit.DAYS.between(origin, endDate), size - 1L);
+            return tree.range(from, to);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.arturo.transactionservice.repository;
+
+import com.arturo.transactionservice.entity.OutboxConsumer;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+
+public interface OutboxConsumerRepository extends JpaRepository<OutboxConsumer, String> {
+
+    //Registra la posición del consumidor; nunca retrocede (varias instancias confirman en cualquier orden)
+    @Modifying
+    @Query(value = "INSERT INTO outbox_consumers (name, acknowledged_id, updated_at) VALUES (:name, :upToId, NOW(6)) " +
+                   "ON DUPLICATE KEY UPDATE acknowledged_id = GREATEST(acknowledged_id, VALUES(acknowledged_id)), " +
+                   "updated_at = VALUES(updated_at)",
+           nativeQuery = true)
+    int acknowledge(@Param("name") String name, @Param("upToId") Long upToId);
+
+    //Menor posición confirmada entre los consumidores (vacío si ninguno confirmó todavía)
+    @Query("SELECT MIN(c.acknowledgedId) FROM OutboxConsumer c")
+    Optional<Long> findMinAcknowledgedId();
+}
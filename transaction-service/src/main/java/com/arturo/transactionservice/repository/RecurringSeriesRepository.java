@@ -0,0 +1,85 @@
+package com.arturo.transactionservice.repository;
+
+import com.arturo.transactionservice.enums.RecurringFrequency;
+import com.arturo.transactionservice.enums.TransactionType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+
+//Acceso JDBC a las series recurrentes: se recorren millones de filas por bloques sin cargar entidades
+@Repository
+@RequiredArgsConstructor
+public class RecurringSeriesRepository {
+
+    //Bloquea las series pendientes del bloque; SKIP LOCKED permite que varias instancias avancen sin repetir series
+    private static final String LOCK_DUE_SERIES =
+            "SELECT id, user_id, category_id, type, amount, transaction_date, description, " +
+            "recurring_frequency, next_occurrence_date, occurrence_count " +
+            "FROM transactions " +
+            "WHERE next_occurrence_date <= ? " +
+            "AND (next_occurrence_date > ? OR (next_occurrence_date = ? AND id > ?)) " +
+            "ORDER BY next_occurrence_date, id " +
+            "LIMIT ? FOR UPDATE SKIP LOCKED";
+
+    private static final String UPDATE_PROGRESS =
+            "UPDATE transactions SET next_occurrence_date = ?, occurrence_count = ? WHERE id = ?";
+
+    private static final RowMapper<RecurringSeries> SERIES_MAPPER = (rs, rowNum) -> new RecurringSeries(
+            rs.getLong("id"),
+            rs.getLong("user_id"),
+            rs.getLong("category_id"),
+            TransactionType.valueOf(rs.getString("type")),
+            rs.getBigDecimal("amount"),
+            rs.getDate("transaction_date").toLocalDate(),
+            rs.getString("description"),
+            RecurringFrequency.valueOf(rs.getString("recurring_frequency")),
+            rs.getDate("next_occurrence_date").toLocalDate(),
+            rs.getInt("occurrence_count")
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${transaction.import.batch-size:1000}")
+    private int batchSize; //Filas por sentencia batch
+
+    //Series con ocurrencias pendientes hasta 'today', a partir de la posición (afterDate, afterId)
+    //Debe llamarse dentro de una transacción: las filas quedan bloqueadas hasta el commit
+    public List<RecurringSeries> lockDueSeries(LocalDate today, LocalDate afterDate, Long afterId, int limit) {
+        return jdbcTemplate.query(LOCK_DUE_SERIES, SERIES_MAPPER,
+                Date.valueOf(today), Date.valueOf(afterDate), Date.valueOf(afterDate), afterId, limit);
+    }
+
+    //Avanza la marca de agua de cada serie
+    public void updateProgress(List<RecurringSeries> series) {
+        jdbcTemplate.batchUpdate(UPDATE_PROGRESS, series, batchSize, (ps, s) -> {
+            ps.setDate(1, Date.valueOf(s.nextOccurrenceDate()));
+            ps.setInt(2, s.occurrenceCount());
+            ps.setLong(3, s.id());
+        });
+    }
+
+    //Transacción recurrente origen de una serie
+    public record RecurringSeries(Long id,
+                                  Long userId,
+                                  Long categoryId,
+                                  TransactionType type,
+                                  BigDecimal amount,
+                                  LocalDate startDate,
+                                  String description,
+                                  RecurringFrequency frequency,
+                                  LocalDate nextOccurrenceDate,
+                                  int occurrenceCount) {
+
+        public RecurringSeries withProgress(LocalDate next, int count) {
+            return new RecurringSeries(id, userId, categoryId, type, amount, startDate, description,
+                    frequency, next, count);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.arturo.transactionservice.repository;
+
+import com.arturo.transactionservice.entity.Transaction;
+import com.arturo.transactionservice.enums.TransactionType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+//Inserciones masivas con JDBC: Hibernate no agrupa INSERTs cuando el id es IDENTITY,
+//así que la importación usa batchUpdate (con rewriteBatchedStatements el driver envía un INSERT multi-fila)
+@Repository
+@RequiredArgsConstructor
+public class TransactionBatchRepository {
+
+    private static final String INSERT_TRANSACTION =
+            "INSERT INTO transactions (user_id, category_id, type, amount, transaction_date, description, " +
+            "is_recurring, recurring_frequency, next_occurrence_date, recurrence_source_id, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_OUTBOX_EVENT =
+            "INSERT INTO transaction_outbox (user_id, category_id, transaction_date, amount_delta, created_at) " +
+            "VALUES (?, ?, ?, ?, ?)";
+
+    private static final String UPSERT_DAILY_ROLLUP =
+            "INSERT INTO transaction_daily_rollup (user_id, day, type, category_id, total, transaction_count) " +
+            "VALUES (?, ?, ?, ?, ?, ?) AS delta ON DUPLICATE KEY UPDATE " +
+            "total = transaction_daily_rollup.total + delta.total, " +
+            "transaction_count = transaction_daily_rollup.transaction_count + delta.transaction_count";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${transaction.import.batch-size:1000}")
+    private int batchSize; //Filas por sentencia batch
+
+    //Inserta las transacciones (sin id: lo asigna la base de datos)
+    //Se usa para importaciones y para las ocurrencias de transacciones recurrentes
+    public void insertTransactions(List<Transaction> transactions) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_TRANSACTION, transactions, batchSize, (ps, transaction) -> {
+            ps.setLong(1, transaction.getUserId());
+            ps.setLong(2, transaction.getCategory().getId());
+            ps.setString(3, transaction.getType().name());
+            ps.setBigDecimal(4, transaction.getAmount());
+            ps.setDate(5, Date.valueOf(transaction.getTransactionDate()));
+            ps.setString(6, transaction.getDescription());
+            ps.setBoolean(7, Boolean.TRUE.equals(transaction.getIsRecurring()));
+            if (transaction.getRecurringFrequency() != null) {
+                ps.setString(8, transaction.getRecurringFrequency().name());
+            } else {
+                ps.setNull(8, Types.VARCHAR);
+            }
+            if (transaction.getNextOccurrenceDate() != null) {
+                ps.setDate(9, Date.valueOf(transaction.getNextOccurrenceDate()));
+            } else {
+                ps.setNull(9, Types.DATE);
+            }
+            if (transaction.getRecurrenceSourceId() != null) {
+                ps.setLong(10, transaction.getRecurrenceSourceId());
+            } else {
+                ps.setNull(10, Types.BIGINT);
+            }
+            ps.setTimestamp(11, now);
+            ps.setTimestamp(12, now);
+        });
+    }
+
+    //Inserta un evento de outbox (gasto positivo) por cada transacción
+    public void insertOutboxEvents(List<Transaction> transactions) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_OUTBOX_EVENT, transactions, batchSize, (ps, transaction) -> {
+            ps.setLong(1, transaction.getUserId());
+            ps.setLong(2, transaction.getCategory().getId());
+            ps.setDate(3, Date.valueOf(transaction.getTransactionDate()));
+            ps.setBigDecimal(4, transaction.getAmount());
+            ps.setTimestamp(5, now);
+        });
+    }
+
+    //Suma los deltas a los totales diarios (una fila por usuario, día, tipo y categoría)
+    public void upsertDailyRollups(List<DailyRollupDelta> deltas) {
+        jdbcTemplate.batchUpdate(UPSERT_DAILY_ROLLUP, deltas, batchSize, (ps, delta) -> {
+            ps.setLong(1, delta.userId());
+            ps.setDate(2, Date.valueOf(delta.day()));
+            ps.setString(3, delta.type().name());
+            ps.setLong(4, delta.categoryId());
+            ps.setBigDecimal(5, delta.total());
+            ps.setLong(6, delta.count());
+        });
+    }
+
+    //Variación del total diario de un usuario en un día, tipo y categoría
+    public record DailyRollupDelta(Long userId, LocalDate day, TransactionType type, Long categoryId,
+                                   BigDecimal total, long count) {
+    }
+}
@@ -0,0 +1,154 @@
+package com.arturo.transactionservice.repository;
+
+import com.arturo.transactionservice.entity.TransactionDailyRollup;
+import com.arturo.transactionservice.entity.TransactionDailyRollupId;
+import com.arturo.transactionservice.enums.TransactionType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+//Consultas sobre los totales diarios: su costo depende de los días y categorías del rango,
+//no de la cantidad de transacciones
+public interface TransactionDailyRollupRepository extends JpaRepository<TransactionDailyRollup, TransactionDailyRollupId> {
+
+    //Suma un delta (total y cantidad) a la fila del día; la crea si no existe
+    @Modifying
+    @Query(value = "INSERT INTO transaction_daily_rollup (user_id, day, type, category_id, total, transaction_count) " +
+            "VALUES (:userId, :day, :type, :categoryId, :total, :count) AS delta " +
+            "ON DUPLICATE KEY UPDATE " +
+            "total = transaction_daily_rollup.total + delta.total, " +
+            "transaction_count = transaction_daily_rollup.transaction_count + delta.transaction_count",
+            nativeQuery = true)
+    void applyDelta(
+            @Param("userId") Long userId,
+            @Param("day") LocalDate day,
+            @Param("type") String type,
+            @Param("categoryId") Long categoryId,
+            @Param("total") BigDecimal total,
+            @Param("count") long count
+    );
+
+    // Balance: total por tipo y categoría en el rango
+    // [0] -> tipo, [1] -> id de la categoría, [2] -> total
+    @Query("SELECT r.type, r.categoryId, SUM(r.total) FROM TransactionDailyRollup r " +
+            "WHERE r.userId = :userId " +
+            "AND r.day BETWEEN :startDate AND :endDate " +
+            "GROUP BY r.type, r.categoryId " +
+            "HAVING SUM(r.transactionCount) > 0")
+    List<Object[]> calculateTotalsByTypeAndCategory(
+            @Param("userId") Long userId,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate
+    );
+
+    // Gasto total (opcional por categoría) en el rango
+    @Query("SELECT COALESCE(SUM(r.total), 0) FROM TransactionDailyRollup r " +
+            "WHERE r.userId = :userId " +
+            "AND (:categoryId IS NULL OR r.categoryId = :categoryId) " +
+            "AND r.type = :type " +
+            "AND r.day BETWEEN :startDate AND :endDate")
+    BigDecimal calculateTotalByCategoryAndDateRange(
+            @Param("userId") Long userId,
+            @Param("categoryId") Long categoryId,
+            @Param("type") TransactionType type,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate
+    );
+
+    // Total por categoría y día de un tipo (ya es una fila por categoría y día)
+    // [0] -> id de la categoría, [1] -> fecha, [2] -> total
+    @Query("SELECT r.categoryId, r.day, r.total FROM TransactionDailyRollup r " +
+            "WHERE r.userId = :userId " +
+            "AND r.type = :type " +
+            "AND r.day BETWEEN :startDate AND :endDate")
+    List<Object[]> findDailyTotalsByCategory(
+            @Param("userId") Long userId,
+            @Param("type") TransactionType type,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate
+    );
+
+    // Serie diaria: [0] -> fecha, [1] -> tipo, [2] -> cantidad de transacciones, [3] -> total
+    @Query("SELECT r.day, r.type, SUM(r.transactionCount), SUM(r.total) FROM TransactionDailyRollup r " +
+            "WHERE r.userId = :userId " +
+            "AND r.day BETWEEN :startDate AND :endDate " +
+            "GROUP BY r.day, r.type " +
+            "HAVING SUM(r.transactionCount) > 0 " +
+            "ORDER BY r.day")
+    List<Object[]> calculateDailyTotalsByType(
+            @Param("userId") Long userId,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate
+    );
+
+    // Tendencia mensual: [0] -> año, [1] -> mes, [2] -> nombre de la categoría, [3] -> tipo, [4] -> total
+    // Si type es null, incluye ingresos y gastos
+    @Query("SELECT YEAR(r.day), MONTH(r.day), c.name, r.type, SUM(r.total) " +
+            "FROM TransactionDailyRollup r JOIN Category c ON c.id = r.categoryId " +
+            "WHERE r.userId = :userId " +
+            "AND (:type IS NULL OR r.type = :type) " +
+            "AND r.day BETWEEN :startDate AND :endDate " +
+            "GROUP BY YEAR(r.day), MONTH(r.day), c.name, r.type " +
+            "HAVING SUM(r.transactionCount) > 0 " +
+            "ORDER BY YEAR(r.day), MONTH(r.day)")
+    List<Object[]> calculateMonthlyTotalsByCategory(
+            @Param("userId") Long userId,
+            @Param("type") TransactionType type,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate
+    );
+
+    // Cantidad de transacciones de una categoría (por nombre) en el rango, opcional por tipo
+    @Query("SELECT COALESCE(SUM(r.transactionCount), 0) " +
+            "FROM TransactionDailyRollup r JOIN Category c ON c.id = r.categoryId " +
+            "WHERE r.userId = :userId " +
+            "AND c.name = :categoryName " +
+            "AND (:type IS NULL OR r.type = :type) " +
+            "AND r.day BETWEEN :startDate AND :endDate")
+    Long countByCategoryNameAndDateRange(
+            @Param("userId") Long userId,
+            @Param("categoryName") String categoryName,
+            @Param("type") TransactionType type,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate
+    );
+
+    // Todos los totales de un usuario (carga de PrefixSumIndex)
+    // [0] -> fecha, [1] -> tipo, [2] -> id de la categoría, [3] -> total
+    @Query("SELECT r.day, r.type, r.categoryId, r.total FROM TransactionDailyRollup r " +
+            "WHERE r.userId = :userId " +
+            "AND r.transactionCount > 0")
+    List<Object[]> findUserTotals(@Param("userId") Long userId);
+
+    // Usuarios con transacciones, en orden de id a partir de afterUserId
+    // DISTINCT sobre el prefijo user_id de idx_user_date_id (V5): salta de un usuario al siguiente y corta en limit
+    @Query(value = "SELECT DISTINCT user_id FROM transactions WHERE user_id > :afterUserId " +
+            "ORDER BY user_id LIMIT :limit",
+            nativeQuery = true)
+    List<Long> findTransactionUserIdsAfter(@Param("afterUserId") Long afterUserId, @Param("limit") int limit);
+
+    // Usuarios con filas de totales (también los que ya no tienen transacciones), sobre la clave primaria
+    @Query(value = "SELECT DISTINCT user_id FROM transaction_daily_rollup WHERE user_id > :afterUserId " +
+            "ORDER BY user_id LIMIT :limit",
+            nativeQuery = true)
+    List<Long> findRollupUserIdsAfter(@Param("afterUserId") Long afterUserId, @Param("limit") int limit);
+
+    @Modifying
+    @Query(value = "DELETE FROM transaction_daily_rollup WHERE user_id IN (:userIds)", nativeQuery = true)
+    int deleteByUserIds(@Param("userIds") List<Long> userIds);
+
+    //Recalcula los totales desde las transacciones; INSERT ... SELECT bloquea las filas leídas,
+    //así ninguna escritura concurrente de estos usuarios queda fuera de la reconstrucción
+    @Modifying
+    @Query(value = "INSERT INTO transaction_daily_rollup (user_id, day, type, category_id, total, transaction_count) " +
+            "SELECT user_id, transaction_date, type, category_id, SUM(amount), COUNT(*) " +
+            "FROM transactions WHERE user_id IN (:userIds) " +
+            "GROUP BY user_id, transaction_date, type, category_id",
+            nativeQuery = true)
+    int rebuildByUserIds(@Param("userIds") List<Long> userIds);
+}
@@ -0,0 +1,33 @@
+package com.arturo.transactionservice.repository;
+
+import com.arturo.transactionservice.entity.TransactionOutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface TransactionOutboxRepository extends JpaRepository<TransactionOutboxEvent, Long> {
+
+    //Eventos posteriores a un id, en orden (el consumidor guarda el último id procesado)
+    List<TransactionOutboxEvent> findByIdGreaterThanOrderByIdAsc(Long afterId, Pageable pageable);
+
+    //Último id del outbox (0 si está vacío)
+    @Query("SELECT COALESCE(MAX(e.id), 0) FROM TransactionOutboxEvent e")
+    Long findLastEventId();
+
+    //Ids de los eventos de un usuario en (afterId, upToId]: los que un snapshot ya incluye dentro de la ventana
+    @Query("SELECT e.id FROM TransactionOutboxEvent e WHERE e.userId = :userId " +
+           "AND e.id > :afterId AND e.id <= :upToId ORDER BY e.id")
+    List<Long> findUserEventIds(@Param("userId") Long userId,
+                                @Param("afterId") Long afterId,
+                                @Param("upToId") Long upToId);
+
+    //Elimina los eventos antiguos que ya no necesita ningún consumidor (id hasta upToId)
+    @Modifying
+    @Query("DELETE FROM TransactionOutboxEvent e WHERE e.createdAt < :before AND e.id <= :upToId")
+    int deleteCreatedBefore(@Param("before") LocalDateTime before, @Param("upToId") Long upToId);
+}
@@ -2,15 +2,21 @@ package com.arturo.transactionservice.repository;
 
 import com.arturo.transactionservice.entity.Transaction;
 import com.arturo.transactionservice.enums.TransactionType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
 
@@ -85,28 +91,93 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
             @Param("endDate") LocalDate endDate
     );
 
+    //Recorrer las transacciones de un usuario en un rango de fechas con un cursor de solo avance
+    //Integer.MIN_VALUE como fetch size hace que el driver de MySQL entregue las filas una a una
+    //en lugar de cargar todo el resultado en memoria (no hay COUNT ni límite de filas)
+    //Debe consumirse dentro de una transacción y cerrarse al terminar (try-with-resources)
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    //La categoría no se une: las respuestas la toman del registro en memoria (CategoryRegistry)
+    @Query("SELECT t FROM Transaction t " +
+            "WHERE t.userId = :userId " +
+            "AND t.transactionDate BETWEEN :startDate AND :endDate " +
+            "ORDER BY t.transactionDate, t.id")
+    Stream<Transaction> streamByUserIdAndDateRange(
+            @Param("userId") Long userId,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate
+    );
+
     // Buscar por usuario y categoría
     Page<Transaction> findByUserIdAndCategoryId(Long userId, Long categoryId, Pageable pageable);
 
-    // Contar transacciones por usuario
-    long countByUserId(Long userId);
+    // Las mismas búsquedas sin la consulta COUNT: Slice solo indica si hay una página siguiente
+    Slice<Transaction> findSliceByUserId(Long userId, Pageable pageable);
 
-    //  AGREGAR ESTE MÉTODO AL FINAL
-    //Calcula el monto total gastado en una categoría específica (o todas)
-    //dentro de un rango de fechas.
-    // Si categoryId es null, calcula el total de gastos sin filtrar por categoría.
+    Slice<Transaction> findSliceByUserIdAndType(Long userId, TransactionType type, Pageable pageable);
 
-    @Query("SELECT COALESCE(SUM(t.amount), 0) FROM Transaction t " +
+    Slice<Transaction> findSliceByUserIdAndTransactionDateBetween(
+            Long userId, LocalDate startDate, LocalDate endDate, Pageable pageable);
+
+    Slice<Transaction> findSliceByUserIdAndCategoryId(Long userId, Long categoryId, Pageable pageable);
+
+    // Paginación por cursor (keyset): transacciones anteriores a la posición (date, id), de la más reciente a la más antigua
+    // Cada página cuesta lo mismo a cualquier profundidad: el índice se recorre desde el cursor (ver V5__keyset_pagination_indexes.sql)
+    // limit = tamaño de página + 1, para saber si hay una página siguiente
+    @Query("SELECT t FROM Transaction t " +
+            "WHERE t.userId = :userId " +
+            "AND (t.transactionDate < :date OR (t.transactionDate = :date AND t.id < :id)) " +
+            "ORDER BY t.transactionDate DESC, t.id DESC")
+    List<Transaction> findPageBefore(
+            @Param("userId") Long userId,
+            @Param("date") LocalDate date,
+            @Param("id") Long id,
+            Limit limit
+    );
+
+    @Query("SELECT t FROM Transaction t " +
             "WHERE t.userId = :userId " +
-            "AND (:categoryId IS NULL OR t.category.id = :categoryId) " +
             "AND t.type = :type " +
-            "AND t.transactionDate BETWEEN :startDate AND :endDate")
-    BigDecimal calculateSpentByCategoryAndDateRange(
+            "AND (t.transactionDate < :date OR (t.transactionDate = :date AND t.id < :id)) " +
+            "ORDER BY t.transactionDate DESC, t.id DESC")
+    List<Transaction> findPageByTypeBefore(
             @Param("userId") Long userId,
-            @Param("categoryId") Long categoryId,
             @Param("type") TransactionType type,
+            @Param("date") LocalDate date,
+            @Param("id") Long id,
+            Limit limit
+    );
+
+    @Query("SELECT t FROM Transaction t " +
+            "WHERE t.userId = :userId " +
+            "AND t.transactionDate BETWEEN :startDate AND :endDate " +
+            "AND (t.transactionDate < :date OR (t.transactionDate = :date AND t.id < :id)) " +
+            "ORDER BY t.transactionDate DESC, t.id DESC")
+    List<Transaction> findPageByDateRangeBefore(
+            @Param("userId") Long userId,
             @Param("startDate") LocalDate startDate,
-            @Param("endDate") LocalDate endDate
+            @Param("endDate") LocalDate endDate,
+            @Param("date") LocalDate date,
+            @Param("id") Long id,
+            Limit limit
     );
 
+    @Query("SELECT t FROM Transaction t " +
+            "WHERE t.userId = :userId " +
+            "AND t.category.id = :categoryId " +
+            "AND (t.transactionDate < :date OR (t.transactionDate = :date AND t.id < :id)) " +
+            "ORDER BY t.transactionDate DESC, t.id DESC")
+    List<Transaction> findPageByCategoryBefore(
+            @Param("userId") Long userId,
+            @Param("categoryId") Long categoryId,
+            @Param("date") LocalDate date,
+            @Param("id") Long id,
+            Limit limit
+    );
+
+    // Contar transacciones por usuario
+    long countByUserId(Long userId);
+
 }
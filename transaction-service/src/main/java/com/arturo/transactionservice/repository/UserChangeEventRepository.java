@@ -0,0 +1,26 @@
+package com.arturo.transactionservice.repository;
+
+import com.arturo.transactionservice.entity.UserChangeEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface UserChangeEventRepository extends JpaRepository<UserChangeEvent, Long> {
+
+    //Cambios posteriores a un id, en orden
+    List<UserChangeEvent> findByIdGreaterThanOrderByIdAsc(Long afterId, Pageable pageable);
+
+    //Último id de cambio (0 si no hay)
+    @Query("SELECT COALESCE(MAX(e.id), 0) FROM UserChangeEvent e")
+    Long findLastEventId();
+
+    //Elimina los cambios antiguos
+    @Modifying
+    @Query("DELETE FROM UserChangeEvent e WHERE e.createdAt < :before")
+    int deleteCreatedBefore(@Param("before") LocalDateTime before);
+}
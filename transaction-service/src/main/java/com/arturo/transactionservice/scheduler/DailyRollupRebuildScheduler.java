@@ -0,0 +1,37 @@
+package com.arturo.transactionservice.scheduler;
+
+import com.arturo.transactionservice.service.DailyRollupService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+//Reconstruye periódicamente transaction_daily_rollup desde las transacciones, por bloques de usuarios
+//Los totales se mantienen en línea; la reconstrucción solo corrige desvíos y limpia filas en 0
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DailyRollupRebuildScheduler {
+
+    private final DailyRollupService dailyRollupService;
+
+    @Value("${transaction.rollup.rebuild-chunk-size:200}")
+    private int chunkSize; //Usuarios por bloque (y por transacción)
+
+    @Scheduled(cron = "${transaction.rollup.rebuild-cron:0 0 4 * * *}")
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        int chunks = 0;
+        Long afterUserId = 0L;
+        try {
+            while ((afterUserId = dailyRollupService.rebuildChunk(afterUserId, chunkSize)) != null) {
+                chunks++;
+            }
+        } catch (Exception ex) {
+            log.error("Error reconstruyendo los totales diarios: {}", ex.getMessage());
+            return;
+        }
+        log.info("Totales diarios reconstruidos: {} bloques en {} ms", chunks, System.currentTimeMillis() - start);
+    }
+}
@@ -0,0 +1,81 @@
+package com.arturo.transactionservice.scheduler;
+
+import com.arturo.transactionservice.service.RecurringTransactionService;
+import com.arturo.transactionservice.service.RecurringTransactionService.ChunkResult;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+//Materializa las ocurrencias vencidas de las transacciones recurrentes recorriendo las series por bloques
+@Component
+@Slf4j
+public class RecurringTransactionScheduler {
+
+    //Posición inicial del recorrido: anterior a cualquier fecha válida en MySQL
+    private static final LocalDate START_DATE = LocalDate.of(1000, 1, 1);
+
+    private final RecurringTransactionService recurringTransactionService;
+    private final Counter seriesCounter;
+    private final Counter occurrencesCounter;
+    private final Timer runTimer;
+
+    @Value("${transaction.recurring.chunk-size:500}")
+    private int chunkSize; //Series por bloque (y por transacción)
+
+    public RecurringTransactionScheduler(RecurringTransactionService recurringTransactionService,
+                                         MeterRegistry meterRegistry) {
+        this.recurringTransactionService = recurringTransactionService;
+        this.seriesCounter = Counter.builder("transactions.recurring.series")
+                .description("Series recurrentes procesadas")
+                .register(meterRegistry);
+        this.occurrencesCounter = Counter.builder("transactions.recurring.occurrences")
+                .description("Ocurrencias de transacciones recurrentes generadas")
+                .register(meterRegistry);
+        this.runTimer = Timer.builder("transactions.recurring.run")
+                .description("Duración de cada ejecución de la materialización")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${transaction.recurring.cron:0 */15 * * * *}")
+    public void materializeDueOccurrences() {
+        runTimer.record(this::run);
+    }
+
+    private void run() {
+        LocalDate today = LocalDate.now();
+        LocalDate afterDate = START_DATE;
+        Long afterId = 0L;
+        long series = 0;
+        long occurrences = 0;
+        long start = System.nanoTime();
+
+        ChunkResult chunk;
+        do {
+            try {
+                chunk = recurringTransactionService.materializeChunk(today, afterDate, afterId, chunkSize);
+            } catch (Exception ex) {
+                //El bloque se revirtió; la marca de agua no avanzó y se reintenta en la próxima ejecución
+                log.error("Error materializando transacciones recurrentes: {}", ex.getMessage());
+                break;
+            }
+            seriesCounter.increment(chunk.series());
+            occurrencesCounter.increment(chunk.occurrences());
+            series += chunk.series();
+            occurrences += chunk.occurrences();
+            afterDate = chunk.lastDate();
+            afterId = chunk.lastId();
+        } while (chunk.series() == chunkSize);
+
+        if (series > 0) {
+            double seconds = Math.max((System.nanoTime() - start) / 1_000_000_000.0, 0.001);
+            log.info("Transacciones recurrentes: {} series, {} ocurrencias en {} s ({} ocurrencias/s)",
+                    series, occurrences, String.format("%.2f", seconds), Math.round(occurrences / seconds));
+        }
+    }
+}
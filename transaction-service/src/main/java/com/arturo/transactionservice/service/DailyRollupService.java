@@ -0,0 +1,16 @@
+package com.arturo.transactionservice.service;
+
+import com.arturo.transactionservice.entity.Transaction;
+
+import java.util.List;
+
+public interface DailyRollupService {
+
+    void recordCreated(Transaction transaction);
+
+    void recordCreatedAll(List<Transaction> transactions);
+
+    void recordDeleted(Transaction transaction);
+
+    Long rebuildChunk(Long afterUserId, int limit);
+}
@@ -0,0 +1,21 @@
+package com.arturo.transactionservice.service;
+
+import com.arturo.transactionservice.entity.Transaction;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface RecurringTransactionService {
+
+    void startSeries(Transaction transaction, LocalDate today);
+
+    void startImportedSeries(List<Transaction> transactions, LocalDate today);
+
+    void rescheduleSeries(Transaction transaction, LocalDate today);
+
+    ChunkResult materializeChunk(LocalDate today, LocalDate afterDate, Long afterId, int limit);
+
+    //Resultado de un bloque: series procesadas, ocurrencias creadas y posición para el siguiente bloque
+    record ChunkResult(int series, int occurrences, LocalDate lastDate, Long lastId) {
+    }
+}
@@ -0,0 +1,27 @@
+package com.arturo.transactionservice.service;
+
+import com.arturo.transactionservice.dto.response.SpentEventResponse;
+import com.arturo.transactionservice.entity.Transaction;
+
+import java.util.List;
+
+public interface SpentSyncService {
+
+    void recordCreated(Transaction transaction);
+
+    void recordCreatedAll(List<Transaction> transactions);
+
+    void recordDeleted(Transaction transaction);
+
+    Long getLastEventId();
+
+    Long getSettledEventId(Long lastEventId);
+
+    List<Long> getUserEventIds(Long userId, Long afterId, Long upToId);
+
+    List<SpentEventResponse> getEventsAfter(Long afterId, int limit);
+
+    void acknowledge(String consumer, Long upToId);
+
+    int purgeOldEvents();
+}
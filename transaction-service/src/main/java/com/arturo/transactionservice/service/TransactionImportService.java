@@ -0,0 +1,14 @@
+package com.arturo.transactionservice.service;
+
+import com.arturo.transactionservice.dto.request.TransactionRequest;
+import com.arturo.transactionservice.dto.response.ImportResultResponse;
+
+import java.io.InputStream;
+import java.util.List;
+
+public interface TransactionImportService {
+
+    ImportResultResponse importTransactions(List<TransactionRequest> requests, Long userId);
+
+    ImportResultResponse importCsv(InputStream csv, Long userId);
+}
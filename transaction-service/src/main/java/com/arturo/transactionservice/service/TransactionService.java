@@ -1,14 +1,21 @@
 package com.arturo.transactionservice.service;
 
+import com.arturo.transactionservice.dto.request.SpentAmountRequest;
 import com.arturo.transactionservice.dto.request.TransactionRequest;
 import com.arturo.transactionservice.dto.response.BalanceResponse;
+import com.arturo.transactionservice.dto.response.DailyTotalResponse;
+import com.arturo.transactionservice.dto.response.MonthlyTrendResponse;
+import com.arturo.transactionservice.dto.response.SpentSnapshotResponse;
 import com.arturo.transactionservice.dto.response.TransactionResponse;
+import com.arturo.transactionservice.dto.response.TransactionScrollResponse;
 import com.arturo.transactionservice.enums.TransactionType;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Consumer;
 
 public interface TransactionService {
     
@@ -20,16 +27,42 @@ public interface TransactionService {
     
     TransactionResponse getTransactionById(Long id, Long userId);
     
-    Page<TransactionResponse> getAllTransactions(Long userId, Pageable pageable);
+    Slice<TransactionResponse> getAllTransactions(Long userId, Pageable pageable, boolean withCount);
     
-    Page<TransactionResponse> getTransactionsByType(Long userId, TransactionType type, Pageable pageable);
+    Slice<TransactionResponse> getTransactionsByType(Long userId, TransactionType type, Pageable pageable,
+                                                     boolean withCount);
     
-    Page<TransactionResponse> getTransactionsByDateRange(Long userId, LocalDate startDate, 
-                                                         LocalDate endDate, Pageable pageable);
+    Slice<TransactionResponse> getTransactionsByDateRange(Long userId, LocalDate startDate, 
+                                                          LocalDate endDate, Pageable pageable, boolean withCount);
     
-    Page<TransactionResponse> getTransactionsByCategory(Long userId, Long categoryId, Pageable pageable);
+    Slice<TransactionResponse> getTransactionsByCategory(Long userId, Long categoryId, Pageable pageable,
+                                                         boolean withCount);
+    
+    TransactionScrollResponse scrollTransactions(Long userId, String cursor, int size);
+    
+    TransactionScrollResponse scrollTransactionsByType(Long userId, TransactionType type, String cursor, int size);
+    
+    TransactionScrollResponse scrollTransactionsByDateRange(Long userId, LocalDate startDate, LocalDate endDate,
+                                                            String cursor, int size);
+    
+    TransactionScrollResponse scrollTransactionsByCategory(Long userId, Long categoryId, String cursor, int size);
     
     BalanceResponse getBalance(Long userId, LocalDate startDate, LocalDate endDate);
     
     BigDecimal calculateSpentAmount(Long userId, Long categoryId, LocalDate startDate, LocalDate endDate);
+    
+    List<BigDecimal> calculateSpentAmounts(Long userId, List<SpentAmountRequest> requests);
+    
+    SpentSnapshotResponse getSpentSnapshot(Long userId, List<SpentAmountRequest> requests);
+    
+    void streamTransactionsByDateRange(Long userId, LocalDate startDate, LocalDate endDate,
+                                       Consumer<TransactionResponse> consumer);
+    
+    List<DailyTotalResponse> getDailyTotals(Long userId, LocalDate startDate, LocalDate endDate);
+    
+    List<MonthlyTrendResponse> getMonthlyTrend(Long userId, LocalDate startDate, LocalDate endDate,
+                                               TransactionType type);
+    
+    long countTransactionsByCategory(Long userId, String categoryName, TransactionType type,
+                                     LocalDate startDate, LocalDate endDate);
 }
\ No newline at end of file
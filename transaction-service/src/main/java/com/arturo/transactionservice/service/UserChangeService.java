@@ -0,0 +1,19 @@
+package com.arturo.transactionservice.service;
+
+import com.arturo.transactionservice.dto.response.UserChangeResponse;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface UserChangeService {
+
+    void recordChange(Long userId);
+
+    void recordChanges(Collection<Long> userIds);
+
+    Long getLastChangeId();
+
+    List<UserChangeResponse> getChangesAfter(Long afterId, int limit);
+
+    int purgeOldChanges();
+}
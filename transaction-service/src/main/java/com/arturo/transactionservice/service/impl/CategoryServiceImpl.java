@@ -4,6 +4,7 @@ import com.arturo.transactionservice.dto.response.CategoryDTO;
 import com.arturo.transactionservice.entity.Category;
 import com.arturo.transactionservice.enums.TransactionType;
 import com.arturo.transactionservice.exception.ResourceNotFoundException;
+import com.arturo.transactionservice.registry.CategoryRegistry;
 import com.arturo.transactionservice.repository.CategoryRepository;
 import com.arturo.transactionservice.service.CategoryService;
 import jakarta.annotation.PostConstruct;
@@ -14,7 +15,6 @@ import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -22,14 +22,13 @@ import java.util.stream.Collectors;
 public class CategoryServiceImpl implements CategoryService {
 
     private final CategoryRepository categoryRepository;
+    private final CategoryRegistry categoryRegistry;
+    //Las lecturas se responden desde el registro en memoria
 
     @Override
-    //Obtiene todas las categorías de la base de datos
-    //Usa un stream para convertir cada Category en un CategoryDTO
+    //Obtiene todas las categorías (registro en memoria, sin consultar la base de datos)
     public List<CategoryDTO> getAllCategories() {
-        return categoryRepository.findAll().stream()
-                .map(this::mapToDTO)
-                .collect(Collectors.toList());
+        return categoryRegistry.getAll();
     }
 
     //Filtra categorías según su tipo
@@ -38,9 +37,7 @@ public class CategoryServiceImpl implements CategoryService {
     //Ideal para mostrar al usuario solo las categorías que aplican a su tipo de transacción
     @Override
     public List<CategoryDTO> getCategoriesByType(TransactionType type) {
-        return categoryRepository.findByType(type).stream()
-                .map(this::mapToDTO)
-                .collect(Collectors.toList());
+        return categoryRegistry.getByType(type);
     }
 
     @Override
@@ -48,9 +45,8 @@ public class CategoryServiceImpl implements CategoryService {
     //Si no existe, lanza una Excepcion(el globalexception lo maneja)
     //Si existe, la convierto en CategoryDTO y la devuelve
     public CategoryDTO getCategoryById(Long id) {
-        Category category = categoryRepository.findById(id)
+        return categoryRegistry.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("No se encontró la categoría con el ID: " + id));
-        return mapToDTO(category);
     }
 
     @PostConstruct
@@ -98,6 +94,7 @@ public class CategoryServiceImpl implements CategoryService {
                     TransactionType.GASTO, "more_horiz", "#9E9E9E", true));
 
             categoryRepository.saveAll(defaultCategories);
+            categoryRegistry.refresh();
             log.info("Default categories initialized successfully!");
         }
     }
@@ -116,18 +113,4 @@ public class CategoryServiceImpl implements CategoryService {
         category.setIsDefault(isDefault);
         return category;
     }
-
-    //Convierte una entidad Category en su versión DTO
-    //Separa la capa de datos(entidad) de la capa presentación(lo que se envía como JSON)
-    private CategoryDTO mapToDTO(Category category) {
-        return new CategoryDTO(
-                category.getId(),
-                category.getName(),
-                category.getDescription(),
-                category.getType(),
-                category.getIconName(),
-                category.getColorHex(),
-                category.getIsDefault()
-        );
-    }
 }
@@ -0,0 +1,129 @@
+package com.arturo.transactionservice.service.impl;
+
+import com.arturo.transactionservice.entity.Transaction;
+import com.arturo.transactionservice.entity.TransactionDailyRollupId;
+import com.arturo.transactionservice.registry.PrefixSumIndex;
+import com.arturo.transactionservice.repository.TransactionBatchRepository;
+import com.arturo.transactionservice.repository.TransactionBatchRepository.DailyRollupDelta;
+import com.arturo.transactionservice.repository.TransactionDailyRollupRepository;
+import com.arturo.transactionservice.service.DailyRollupService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DailyRollupServiceImpl implements DailyRollupService {
+
+    //Orden fijo de las filas en los lotes: dos importaciones concurrentes bloquean las filas en el mismo orden
+    private static final Comparator<DailyRollupDelta> KEY_ORDER = Comparator
+            .comparing(DailyRollupDelta::userId)
+            .thenComparing(DailyRollupDelta::day)
+            .thenComparing(DailyRollupDelta::type)
+            .thenComparing(DailyRollupDelta::categoryId);
+
+    private final TransactionDailyRollupRepository rollupRepository;
+    //Totales diarios por usuario, día, tipo y categoría
+    private final TransactionBatchRepository transactionBatchRepository;
+    //Upserts por lotes (importaciones y transacciones recurrentes)
+    private final PrefixSumIndex prefixSumIndex;
+    //Recibe los mismos deltas al confirmarse la transacción
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    //Suma una transacción nueva a su día; debe llamarse dentro de la transacción que la guarda
+    public void recordCreated(Transaction transaction) {
+        apply(transaction, transaction.getAmount(), 1);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    //Agrupa el lote por día y categoría antes de escribir: una fila por clave en lugar de una por transacción
+    public void recordCreatedAll(List<Transaction> transactions) {
+        Map<TransactionDailyRollupId, DailyRollupDelta> deltas = new LinkedHashMap<>();
+        for (Transaction transaction : transactions) {
+            TransactionDailyRollupId key = new TransactionDailyRollupId(transaction.getUserId(),
+                    transaction.getTransactionDate(), transaction.getType(), transaction.getCategory().getId());
+            deltas.merge(key,
+                    new DailyRollupDelta(key.getUserId(), key.getDay(), key.getType(), key.getCategoryId(),
+                            transaction.getAmount(), 1),
+                    (a, b) -> new DailyRollupDelta(a.userId(), a.day(), a.type(), a.categoryId(),
+                            a.total().add(b.total()), a.count() + b.count()));
+        }
+        if (!deltas.isEmpty()) {
+            List<DailyRollupDelta> rows = new ArrayList<>(deltas.values());
+            rows.sort(KEY_ORDER);
+            transactionBatchRepository.upsertDailyRollups(rows);
+            rows.forEach(row -> prefixSumIndex.applyAfterCommit(
+                    row.userId(), row.day(), row.type(), row.categoryId(), row.total()));
+        }
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    //Resta una transacción de su día (eliminación o valores previos a una edición)
+    public void recordDeleted(Transaction transaction) {
+        apply(transaction, transaction.getAmount().negate(), -1);
+    }
+
+    private void apply(Transaction transaction, BigDecimal total, long count) {
+        rollupRepository.applyDelta(
+                transaction.getUserId(),
+                transaction.getTransactionDate(),
+                transaction.getType().name(),
+                transaction.getCategory().getId(),
+                total,
+                count);
+        prefixSumIndex.applyAfterCommit(transaction.getUserId(), transaction.getTransactionDate(),
+                transaction.getType(), transaction.getCategory().getId(), total);
+    }
+
+    @Override
+    @Transactional
+    //Reconstruye desde las transacciones los totales de un bloque de usuarios (corrige desvíos y borra filas en 0)
+    //Devuelve el último usuario procesado, o null si no quedan usuarios
+    public Long rebuildChunk(Long afterUserId, int limit) {
+        List<Long> userIds = nextUserIds(afterUserId, limit);
+        if (userIds.isEmpty()) {
+            return null;
+        }
+        rollupRepository.deleteByUserIds(userIds);
+        int rows = rollupRepository.rebuildByUserIds(userIds);
+        prefixSumIndex.evictAfterCommit(userIds);
+        log.debug("Totales diarios reconstruidos para {} usuarios ({} filas)", userIds.size(), rows);
+        return userIds.get(userIds.size() - 1);
+    }
+
+    //Usuarios a reconstruir (con transacciones o con filas de totales): cada tabla se pagina por su índice
+    //y las dos listas ordenadas se mezclan aquí, quedándose con los primeros 'limit' ids distintos
+    private List<Long> nextUserIds(Long afterUserId, int limit) {
+        List<Long> fromTransactions = rollupRepository.findTransactionUserIdsAfter(afterUserId, limit);
+        List<Long> fromRollup = rollupRepository.findRollupUserIdsAfter(afterUserId, limit);
+        List<Long> userIds = new ArrayList<>(limit);
+        int i = 0;
+        int j = 0;
+        while (userIds.size() < limit && (i < fromTransactions.size() || j < fromRollup.size())) {
+            Long next;
+            if (j >= fromRollup.size()
+                    || (i < fromTransactions.size() && fromTransactions.get(i) <= fromRollup.get(j))) {
+                next = fromTransactions.get(i++);
+            } else {
+                next = fromRollup.get(j++);
+            }
+            if (userIds.isEmpty() || !userIds.get(userIds.size() - 1).equals(next)) {
+                userIds.add(next);
+            }
+        }
+        return userIds;
+    }
+}
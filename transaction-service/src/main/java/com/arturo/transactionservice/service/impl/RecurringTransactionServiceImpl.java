@@ -0,0 +1,157 @@
+package com.arturo.transactionservice.service.impl;
+
+import com.arturo.transactionservice.entity.Transaction;
+import com.arturo.transactionservice.repository.CategoryRepository;
+import com.arturo.transactionservice.repository.RecurringSeriesRepository;
+import com.arturo.transactionservice.repository.RecurringSeriesRepository.RecurringSeries;
+import com.arturo.transactionservice.repository.TransactionBatchRepository;
+import com.arturo.transactionservice.service.DailyRollupService;
+import com.arturo.transactionservice.service.RecurringTransactionService;
+import com.arturo.transactionservice.service.SpentSyncService;
+import com.arturo.transactionservice.service.UserChangeService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RecurringTransactionServiceImpl implements RecurringTransactionService {
+
+    private final RecurringSeriesRepository recurringSeriesRepository;
+    //Lee y bloquea las series pendientes, y guarda su avance
+    private final TransactionBatchRepository transactionBatchRepository;
+    //Inserta las ocurrencias generadas en batch
+    private final CategoryRepository categoryRepository;
+    //Referencias a categorías sin consultarlas
+    private final SpentSyncService spentSyncService;
+    //Las ocurrencias de gasto se registran en el outbox como cualquier otra transacción
+    private final DailyRollupService dailyRollupService;
+    //Las ocurrencias se suman a los totales diarios en la misma transacción
+    private final UserChangeService userChangeService;
+    //Publica la nueva versión de los datos de cada usuario con ocurrencias nuevas
+
+    @Value("${transaction.recurring.max-occurrences-per-run:366}")
+    private int maxOccurrencesPerRun; //Tope por serie y bloque; una serie muy atrasada sigue en el siguiente
+
+    @Override
+    //Prepara una transacción recurrente nueva con la misma regla que rescheduleSeries: la serie empieza en la
+    //primera ocurrencia posterior a hoy, así una transacción con fecha pasada no genera las ocurrencias ya vencidas
+    public void startSeries(Transaction transaction, LocalDate today) {
+        rescheduleSeries(transaction, today);
+    }
+
+    @Override
+    //Un historial importado suele traer cada ocurrencia de una serie como fila recurrente (el alquiler de cada mes):
+    //solo la más reciente de cada cadena (tipo, categoría, monto, frecuencia y descripción) inicia la serie,
+    //las demás quedan como transacciones ya ocurridas
+    public void startImportedSeries(List<Transaction> transactions, LocalDate today) {
+        Map<List<Object>, Transaction> latest = new HashMap<>();
+        for (Transaction transaction : transactions) {
+            if (isSeries(transaction)) {
+                latest.merge(chainOf(transaction), transaction,
+                        (a, b) -> b.getTransactionDate().isAfter(a.getTransactionDate()) ? b : a);
+            }
+        }
+        for (Transaction transaction : transactions) {
+            if (isSeries(transaction) && latest.get(chainOf(transaction)) == transaction) {
+                rescheduleSeries(transaction, today);
+            } else {
+                clearSeries(transaction);
+            }
+        }
+    }
+
+    private List<Object> chainOf(Transaction transaction) {
+        return Arrays.asList(
+                transaction.getType(),
+                transaction.getCategory().getId(),
+                transaction.getAmount().stripTrailingZeros(),
+                transaction.getRecurringFrequency(),
+                transaction.getDescription());
+    }
+
+    @Override
+    //Tras editar una serie solo se generan ocurrencias futuras: las ya creadas se conservan
+    //y no se rellenan fechas pasadas, así no se duplican ocurrencias de la serie anterior
+    public void rescheduleSeries(Transaction transaction, LocalDate today) {
+        if (!isSeries(transaction)) {
+            clearSeries(transaction);
+            return;
+        }
+        int count = 0;
+        LocalDate next = transaction.getRecurringFrequency().occurrence(transaction.getTransactionDate(), 1);
+        while (!next.isAfter(today)) {
+            count++;
+            next = transaction.getRecurringFrequency().occurrence(transaction.getTransactionDate(), count + 1);
+        }
+        transaction.setOccurrenceCount(count);
+        transaction.setNextOccurrenceDate(next);
+    }
+
+    @Override
+    @Transactional
+    //Genera las ocurrencias pendientes de un bloque de series y avanza su marca de agua en la misma transacción:
+    //si el proceso se corta, el bloque se revierte entero y se retoma en la siguiente ejecución
+    public ChunkResult materializeChunk(LocalDate today, LocalDate afterDate, Long afterId, int limit) {
+        List<RecurringSeries> series = recurringSeriesRepository.lockDueSeries(today, afterDate, afterId, limit);
+        if (series.isEmpty()) {
+            return new ChunkResult(0, 0, afterDate, afterId);
+        }
+
+        List<Transaction> occurrences = new ArrayList<>();
+        List<RecurringSeries> progress = new ArrayList<>(series.size());
+        for (RecurringSeries s : series) {
+            int count = s.occurrenceCount();
+            LocalDate next = s.nextOccurrenceDate();
+            int generated = 0;
+            while (!next.isAfter(today) && generated < maxOccurrencesPerRun) {
+                occurrences.add(buildOccurrence(s, next));
+                generated++;
+                count++;
+                next = s.frequency().occurrence(s.startDate(), count + 1);
+            }
+            progress.add(s.withProgress(next, count));
+        }
+
+        transactionBatchRepository.insertTransactions(occurrences);
+        spentSyncService.recordCreatedAll(occurrences);
+        dailyRollupService.recordCreatedAll(occurrences);
+        userChangeService.recordChanges(occurrences.stream().map(Transaction::getUserId).toList());
+        recurringSeriesRepository.updateProgress(progress);
+
+        RecurringSeries last = series.get(series.size() - 1);
+        return new ChunkResult(series.size(), occurrences.size(), last.nextOccurrenceDate(), last.id());
+    }
+
+    private Transaction buildOccurrence(RecurringSeries series, LocalDate date) {
+        Transaction occurrence = new Transaction();
+        occurrence.setUserId(series.userId());
+        occurrence.setCategory(categoryRepository.getReferenceById(series.categoryId()));
+        occurrence.setType(series.type());
+        occurrence.setAmount(series.amount());
+        occurrence.setTransactionDate(date);
+        occurrence.setDescription(series.description());
+        occurrence.setIsRecurring(false);
+        occurrence.setRecurrenceSourceId(series.id());
+        return occurrence;
+    }
+
+    private boolean isSeries(Transaction transaction) {
+        return Boolean.TRUE.equals(transaction.getIsRecurring()) && transaction.getRecurringFrequency() != null;
+    }
+
+    private void clearSeries(Transaction transaction) {
+        transaction.setOccurrenceCount(0);
+        transaction.setNextOccurrenceDate(null);
+    }
+}
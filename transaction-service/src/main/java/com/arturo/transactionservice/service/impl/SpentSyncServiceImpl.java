@@ -0,0 +1,143 @@
+package com.arturo.transactionservice.service.impl;
+
+import com.arturo.transactionservice.dto.response.SpentEventResponse;
+import com.arturo.transactionservice.entity.Transaction;
+import com.arturo.transactionservice.entity.TransactionOutboxEvent;
+import com.arturo.transactionservice.enums.TransactionType;
+import com.arturo.transactionservice.repository.OutboxConsumerRepository;
+import com.arturo.transactionservice.repository.TransactionBatchRepository;
+import com.arturo.transactionservice.repository.TransactionOutboxRepository;
+import com.arturo.transactionservice.service.SpentSyncService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SpentSyncServiceImpl implements SpentSyncService {
+
+    private final TransactionOutboxRepository outboxRepository;
+    //Outbox con los cambios de gasto que lee budget-service
+    private final TransactionBatchRepository transactionBatchRepository;
+    //Inserción por lotes de eventos (importaciones)
+    private final OutboxConsumerRepository outboxConsumerRepository;
+    //Posición confirmada por cada consumidor: límite de la purga
+
+    @Value("${transaction.outbox.retention-days:7}")
+    private int retentionDays;
+
+    @Value("${transaction.outbox.snapshot-window:1000}")
+    private int snapshotWindow;
+    //Ids por debajo del último visible que todavía pueden confirmarse tarde (AUTO_INCREMENT se asigna
+    //al insertar pero se ve al confirmar); por debajo de la ventana se asume que todo está confirmado
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    //Registra el gasto de una transacción nueva (solo GASTO afecta a los presupuestos)
+    //Debe llamarse dentro de la transacción que guarda la transacción
+    public void recordCreated(Transaction transaction) {
+        record(transaction, transaction.getAmount());
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    //Registra el gasto de un lote de transacciones nuevas con un INSERT por lotes
+    public void recordCreatedAll(List<Transaction> transactions) {
+        List<Transaction> expenses = transactions.stream()
+                .filter(transaction -> transaction.getType() == TransactionType.GASTO)
+                .collect(Collectors.toList());
+        if (!expenses.isEmpty()) {
+            transactionBatchRepository.insertOutboxEvents(expenses);
+        }
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    //Registra que el gasto de una transacción deja de existir (eliminación o valores previos a una edición)
+    public void recordDeleted(Transaction transaction) {
+        record(transaction, transaction.getAmount().negate());
+    }
+
+    private void record(Transaction transaction, BigDecimal delta) {
+        if (transaction.getType() != TransactionType.GASTO) {
+            return;
+        }
+        TransactionOutboxEvent event = new TransactionOutboxEvent();
+        event.setUserId(transaction.getUserId());
+        event.setCategoryId(transaction.getCategory().getId());
+        event.setTransactionDate(transaction.getTransactionDate());
+        event.setAmountDelta(delta);
+        outboxRepository.save(event);
+    }
+
+    @Override
+    //Último id del outbox visible para la transacción actual
+    public Long getLastEventId() {
+        return outboxRepository.findLastEventId();
+    }
+
+    @Override
+    //Id hasta el que se asume que todos los eventos están confirmados (fuera de la ventana de confirmación tardía)
+    public Long getSettledEventId(Long lastEventId) {
+        return Math.max(lastEventId - snapshotWindow, 0L);
+    }
+
+    @Override
+    //Eventos del usuario visibles en (afterId, upToId] para la transacción actual
+    public List<Long> getUserEventIds(Long userId, Long afterId, Long upToId) {
+        return outboxRepository.findUserEventIds(userId, afterId, upToId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    //Eventos posteriores al último id procesado por el consumidor
+    public List<SpentEventResponse> getEventsAfter(Long afterId, int limit) {
+        return outboxRepository.findByIdGreaterThanOrderByIdAsc(afterId, PageRequest.of(0, limit)).stream()
+                .map(event -> new SpentEventResponse(
+                        event.getId(),
+                        event.getUserId(),
+                        event.getCategoryId(),
+                        event.getTransactionDate(),
+                        event.getAmountDelta()))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional
+    //Guarda el id hasta el que el consumidor ya no relee eventos
+    public void acknowledge(String consumer, Long upToId) {
+        outboxConsumerRepository.acknowledge(consumer, upToId);
+    }
+
+    @Override
+    @Transactional
+    @Scheduled(cron = "${transaction.outbox.purge-cron:0 30 3 * * *}")
+    //Elimina periódicamente los eventos más antiguos que el período de retención que ya no puede releer nadie:
+    //ni un consumidor (por debajo de su posición confirmada) ni un recálculo (fuera de la ventana del snapshot)
+    public int purgeOldEvents() {
+        Optional<Long> acknowledged = outboxConsumerRepository.findMinAcknowledgedId();
+        if (acknowledged.isEmpty()) {
+            log.info("Outbox sin purgar: ningún consumidor ha confirmado su posición");
+            return 0;
+        }
+        long upToId = Math.min(acknowledged.get(), getSettledEventId(getLastEventId()));
+        int deleted = outboxRepository.deleteCreatedBefore(
+                LocalDateTime.now().minusDays(retentionDays), upToId);
+        if (deleted > 0) {
+            log.info("Eventos de outbox eliminados: {} (hasta el id {})", deleted, upToId);
+        }
+        return deleted;
+    }
+}
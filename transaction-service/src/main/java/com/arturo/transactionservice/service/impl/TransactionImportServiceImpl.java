@@ -0,0 +1,267 @@
+package com.arturo.transactionservice.service.impl;
+
+import com.arturo.transactionservice.dto.request.TransactionRequest;
+import com.arturo.transactionservice.dto.response.CategoryDTO;
+import com.arturo.transactionservice.dto.response.ImportResultResponse;
+import com.arturo.transactionservice.dto.response.ImportRowErrorResponse;
+import com.arturo.transactionservice.entity.Transaction;
+import com.arturo.transactionservice.enums.RecurringFrequency;
+import com.arturo.transactionservice.enums.TransactionType;
+import com.arturo.transactionservice.exception.BadRequestException;
+import com.arturo.transactionservice.registry.CategoryRegistry;
+import com.arturo.transactionservice.repository.CategoryRepository;
+import com.arturo.transactionservice.repository.TransactionBatchRepository;
+import com.arturo.transactionservice.service.DailyRollupService;
+import com.arturo.transactionservice.service.RecurringTransactionService;
+import com.arturo.transactionservice.service.SpentSyncService;
+import com.arturo.transactionservice.service.TransactionImportService;
+import com.arturo.transactionservice.service.UserChangeService;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TransactionImportServiceImpl implements TransactionImportService {
+
+    private final CategoryRegistry categoryRegistry;
+    //Valida las categorías en memoria (no una consulta por fila)
+    private final CategoryRepository categoryRepository;
+    //Referencias a categorías para armar las entidades sin consultarlas
+    private final TransactionBatchRepository transactionBatchRepository;
+    //Inserta las filas válidas con JDBC batch
+    private final SpentSyncService spentSyncService;
+    //Registra el gasto importado en el outbox de budget-service
+    private final RecurringTransactionService recurringTransactionService;
+    //Las transacciones recurrentes importadas empiezan su serie como las creadas una a una
+    private final DailyRollupService dailyRollupService;
+    //Suma las filas importadas a los totales diarios en la misma transacción
+    private final UserChangeService userChangeService;
+    //Publica la nueva versión de los datos del usuario
+    private final Validator validator;
+    //Aplica las mismas validaciones que POST /transactions (@NotNull, @DecimalMin, etc.)
+
+    @Value("${transaction.import.max-rows:100000}")
+    private int maxRows;
+
+    @Override
+    @Transactional
+    //Importa una lista de transacciones: las filas inválidas se informan y las válidas se insertan juntas
+    public ImportResultResponse importTransactions(List<TransactionRequest> requests, Long userId) {
+        List<ParsedRow> rows = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            rows.add(new ParsedRow(i + 1, requests.get(i)));
+        }
+        return importRows(rows, new ArrayList<>(), userId);
+    }
+
+    @Override
+    @Transactional
+    //Importa un CSV con cabecera: categoryId,type,amount,transactionDate[,description,isRecurring,recurringFrequency]
+    public ImportResultResponse importCsv(InputStream csv, Long userId) {
+        List<ParsedRow> rows = new ArrayList<>();
+        List<ImportRowErrorResponse> errors = new ArrayList<>();
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(csv, StandardCharsets.UTF_8))) {
+            String headerLine = reader.readLine();
+            if (headerLine == null) {
+                throw new BadRequestException("El archivo CSV está vacío.");
+            }
+            Map<String, Integer> columns = parseHeader(headerLine);
+
+            String line;
+            int rowNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                rowNumber++;
+                checkRowLimit(rowNumber);
+                try {
+                    rows.add(new ParsedRow(rowNumber, toRequest(splitCsvLine(line), columns)));
+                } catch (IllegalArgumentException ex) {
+                    errors.add(new ImportRowErrorResponse(rowNumber, ex.getMessage()));
+                }
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+
+        return importRows(rows, errors, userId);
+    }
+
+    private ImportResultResponse importRows(List<ParsedRow> rows, List<ImportRowErrorResponse> errors, Long userId) {
+        int totalRows = rows.size() + errors.size();
+        checkRowLimit(totalRows);
+        log.info("Importando {} transacciones para el usuario {}", totalRows, userId);
+
+        List<Transaction> transactions = new ArrayList<>(rows.size());
+        for (ParsedRow row : rows) {
+            TransactionRequest request = row.request();
+
+            Set<ConstraintViolation<TransactionRequest>> violations = validator.validate(request);
+            if (!violations.isEmpty()) {
+                String message = violations.stream()
+                        .map(ConstraintViolation::getMessage)
+                        .sorted()
+                        .collect(Collectors.joining(" "));
+                errors.add(new ImportRowErrorResponse(row.number(), message));
+                continue;
+            }
+
+            CategoryDTO category = categoryRegistry.findById(request.getCategoryId()).orElse(null);
+            if (category == null) {
+                errors.add(new ImportRowErrorResponse(row.number(), "Categoría no encontrada"));
+                continue;
+            }
+            if (!category.getType().equals(request.getType())) {
+                errors.add(new ImportRowErrorResponse(row.number(),
+                        "El tipo de categoría no coincide con el tipo de transacción."));
+                continue;
+            }
+
+            Transaction transaction = new Transaction();
+            transaction.setUserId(userId);
+            transaction.setCategory(categoryRepository.getReferenceById(category.getId()));
+            transaction.setType(request.getType());
+            transaction.setAmount(request.getAmount());
+            transaction.setTransactionDate(request.getTransactionDate());
+            transaction.setDescription(request.getDescription());
+            transaction.setIsRecurring(request.getIsRecurring());
+            transaction.setRecurringFrequency(request.getRecurringFrequency());
+            transactions.add(transaction);
+        }
+        // Una serie por cadena de filas recurrentes, sin rellenar fechas pasadas
+        recurringTransactionService.startImportedSeries(transactions, LocalDate.now());
+
+        if (!transactions.isEmpty()) {
+            transactionBatchRepository.insertTransactions(transactions);
+            spentSyncService.recordCreatedAll(transactions);
+            dailyRollupService.recordCreatedAll(transactions);
+            userChangeService.recordChange(userId);
+        }
+
+        errors.sort((a, b) -> Integer.compare(a.getRow(), b.getRow()));
+        log.info("Importación terminada para el usuario {}: {} importadas, {} con errores",
+                userId, transactions.size(), errors.size());
+
+        return new ImportResultResponse(totalRows, transactions.size(), errors.size(), errors);
+    }
+
+    private void checkRowLimit(int rows) {
+        if (rows > maxRows) {
+            throw new BadRequestException("La importación supera el máximo de " + maxRows + " filas.");
+        }
+    }
+
+    //Posición de cada columna según la cabecera (sin distinguir mayúsculas)
+    static Map<String, Integer> parseHeader(String headerLine) {
+        List<String> names = splitCsvLine(headerLine);
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        for (String required : List.of("categoryid", "type", "amount", "transactiondate")) {
+            if (!columns.containsKey(required)) {
+                throw new BadRequestException("Falta la columna '" + required + "' en la cabecera del CSV.");
+            }
+        }
+        return columns;
+    }
+
+    //Convierte los campos de una fila en un TransactionRequest; lanza IllegalArgumentException con el motivo
+    static TransactionRequest toRequest(List<String> fields, Map<String, Integer> columns) {
+        TransactionRequest request = new TransactionRequest();
+        try {
+            request.setCategoryId(parse(fields, columns, "categoryid", Long::valueOf));
+            request.setAmount(parse(fields, columns, "amount", BigDecimal::new));
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Número inválido en categoryId o amount.");
+        }
+        try {
+            request.setTransactionDate(parse(fields, columns, "transactiondate", LocalDate::parse));
+        } catch (RuntimeException ex) {
+            throw new IllegalArgumentException("Fecha inválida (formato esperado: AAAA-MM-DD).");
+        }
+        try {
+            request.setType(parse(fields, columns, "type",
+                    value -> TransactionType.valueOf(value.toUpperCase(Locale.ROOT))));
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Tipo inválido (valores permitidos: INGRESO, GASTO).");
+        }
+        try {
+            request.setRecurringFrequency(parse(fields, columns, "recurringfrequency",
+                    value -> RecurringFrequency.valueOf(value.toUpperCase(Locale.ROOT))));
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Frecuencia de recurrencia inválida.");
+        }
+        request.setDescription(parse(fields, columns, "description", Function.identity()));
+        Boolean isRecurring = parse(fields, columns, "isrecurring", Boolean::valueOf);
+        request.setIsRecurring(isRecurring != null ? isRecurring : false);
+        return request;
+    }
+
+    //Valor de una columna convertido; null si la columna no existe o está vacía
+    private static <T> T parse(List<String> fields, Map<String, Integer> columns, String column, Function<String, T> parser) {
+        Integer index = columns.get(column);
+        if (index == null || index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : parser.apply(value);
+    }
+
+    //Separa una línea CSV por comas respetando los valores entre comillas ("a, b" y "" como comilla escapada)
+    static List<String> splitCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        fields.add(current.toString());
+        return fields;
+    }
+
+    private record ParsedRow(int number, TransactionRequest request) {
+    }
+}
@@ -1,29 +1,49 @@
 package com.arturo.transactionservice.service.impl;
 
+import com.arturo.transactionservice.dto.request.SpentAmountRequest;
 import com.arturo.transactionservice.dto.request.TransactionRequest;
 import com.arturo.transactionservice.dto.response.BalanceResponse;
 import com.arturo.transactionservice.dto.response.CategoryDTO;
+import com.arturo.transactionservice.dto.response.DailyTotalResponse;
+import com.arturo.transactionservice.dto.response.MonthlyTrendResponse;
+import com.arturo.transactionservice.dto.response.SpentSnapshotResponse;
 import com.arturo.transactionservice.dto.response.TransactionResponse;
+import com.arturo.transactionservice.dto.response.TransactionScrollResponse;
 import com.arturo.transactionservice.entity.Category;
 import com.arturo.transactionservice.entity.Transaction;
 import com.arturo.transactionservice.enums.TransactionType;
 import com.arturo.transactionservice.exception.BadRequestException;
 import com.arturo.transactionservice.exception.ResourceNotFoundException;
+import com.arturo.transactionservice.pagination.TransactionCursor;
+import com.arturo.transactionservice.registry.CategoryRegistry;
+import com.arturo.transactionservice.registry.PrefixSumIndex;
 import com.arturo.transactionservice.repository.CategoryRepository;
+import com.arturo.transactionservice.repository.TransactionDailyRollupRepository;
 import com.arturo.transactionservice.repository.TransactionRepository;
+import com.arturo.transactionservice.service.DailyRollupService;
+import com.arturo.transactionservice.service.RecurringTransactionService;
+import com.arturo.transactionservice.service.SpentSyncService;
 import com.arturo.transactionservice.service.TransactionService;
+import com.arturo.transactionservice.service.UserChangeService;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -33,7 +53,23 @@ public class TransactionServiceImpl implements TransactionService {
     private final TransactionRepository transactionRepository;
     //maneja las consultas sobre la tabla de transacciones
     private final CategoryRepository categoryRepository;
-    //Permite obtener información de las categorías
+    //Permite obtener referencias a categorías sin consultarlas
+    private final CategoryRegistry categoryRegistry;
+    //Categorías en memoria para validar y armar las respuestas sin consultar la base de datos
+    private final EntityManager entityManager;
+    //Permite liberar del contexto de persistencia las filas ya procesadas al recorrer un stream
+    private final SpentSyncService spentSyncService;
+    //Registra en el outbox los cambios de gasto para los contadores de budget-service
+    private final RecurringTransactionService recurringTransactionService;
+    //Mantiene la marca de agua de las series recurrentes
+    private final DailyRollupService dailyRollupService;
+    //Mantiene los totales diarios en la misma transacción que modifica las transacciones
+    private final TransactionDailyRollupRepository rollupRepository;
+    //Balances, gastos y series se calculan sobre los totales diarios
+    private final PrefixSumIndex prefixSumIndex;
+    //Sumas acumuladas en memoria: balance y gasto de cualquier rango sin recorrer los días
+    private final UserChangeService userChangeService;
+    //Publica la nueva versión de los datos del usuario (invalida los reportes en caché)
     
     @Override
     @Transactional
@@ -41,14 +77,8 @@ public class TransactionServiceImpl implements TransactionService {
     public TransactionResponse createTransaction(TransactionRequest request, Long userId) {
         log.info("Creación de transacciones para el usuario: {}", userId);
         
-        // Validar categoría
-        Category category = categoryRepository.findById(request.getCategoryId())
-                .orElseThrow(() -> new ResourceNotFoundException("Categoría no encontrada"));
-        
-        // Validar que el tipo de transacción coincida con el tipo de categoría
-        if (!category.getType().equals(request.getType())) {
-            throw new BadRequestException("El tipo de categoría no coincide con el tipo de transacción.");
-        }
+        // Validar categoría y que el tipo de transacción coincida con el tipo de categoría
+        Category category = resolveCategory(request);
         
         // Crear transacción
         Transaction transaction = new Transaction();
@@ -60,8 +90,12 @@ public class TransactionServiceImpl implements TransactionService {
         transaction.setDescription(request.getDescription());
         transaction.setIsRecurring(request.getIsRecurring());
         transaction.setRecurringFrequency(request.getRecurringFrequency());
+        recurringTransactionService.startSeries(transaction, LocalDate.now());
         
         Transaction savedTransaction = transactionRepository.save(transaction);
+        spentSyncService.recordCreated(savedTransaction);
+        dailyRollupService.recordCreated(savedTransaction);
+        userChangeService.recordChange(userId);
         log.info("Transacción creada correctamente con el ID: {}", savedTransaction.getId());
         
         return mapToResponse(savedTransaction);
@@ -82,12 +116,15 @@ public class TransactionServiceImpl implements TransactionService {
         }
         
         // Validar categoría
-        Category category = categoryRepository.findById(request.getCategoryId())
-                .orElseThrow(() -> new ResourceNotFoundException("Categoría no encontrada"));
+        Category category = resolveCategory(request);
         
-        if (!category.getType().equals(request.getType())) {
-            throw new BadRequestException("El tipo de categoría no coincide con el tipo de transacción.");
-        }
+        // Revertir el gasto con los valores anteriores antes de modificarlos
+        spentSyncService.recordDeleted(transaction);
+        dailyRollupService.recordDeleted(transaction);
+        
+        boolean scheduleChanged = !request.getTransactionDate().equals(transaction.getTransactionDate())
+                || !Objects.equals(request.getIsRecurring(), transaction.getIsRecurring())
+                || request.getRecurringFrequency() != transaction.getRecurringFrequency();
         
         // Actualizar campos
         transaction.setCategory(category);
@@ -97,8 +134,18 @@ public class TransactionServiceImpl implements TransactionService {
         transaction.setDescription(request.getDescription());
         transaction.setIsRecurring(request.getIsRecurring());
         transaction.setRecurringFrequency(request.getRecurringFrequency());
+        if (scheduleChanged) {
+            recurringTransactionService.rescheduleSeries(transaction, LocalDate.now());
+            // Una ocurrencia movida de fecha deja de pertenecer a su serie
+            if (transaction.getRecurrenceSourceId() != null && !Boolean.TRUE.equals(transaction.getIsRecurring())) {
+                transaction.setRecurrenceSourceId(null);
+            }
+        }
         
         Transaction updatedTransaction = transactionRepository.save(transaction);
+        spentSyncService.recordCreated(updatedTransaction);
+        dailyRollupService.recordCreated(updatedTransaction);
+        userChangeService.recordChange(userId);
         log.info("Transacción actualizada exitosamente");
         
         return mapToResponse(updatedTransaction);
@@ -117,6 +164,9 @@ public class TransactionServiceImpl implements TransactionService {
             throw new BadRequestException("La transacción no pertenece al usuario");
         }
         
+        spentSyncService.recordDeleted(transaction);
+        dailyRollupService.recordDeleted(transaction);
+        userChangeService.recordChange(userId);
         transactionRepository.delete(transaction);
         log.info("Transacción eliminada exitosamente");
     }
@@ -136,71 +186,139 @@ public class TransactionServiceImpl implements TransactionService {
     
     @Override
     //Devuelve todas las transacciones del usuario
-    public Page<TransactionResponse> getAllTransactions(Long userId, Pageable pageable) {
-        Page<Transaction> transactions = transactionRepository.findByUserId(userId, pageable);
+    //Sin withCount se omite la consulta COUNT y se devuelve un Slice
+    public Slice<TransactionResponse> getAllTransactions(Long userId, Pageable pageable, boolean withCount) {
+        Slice<Transaction> transactions = withCount
+                ? transactionRepository.findByUserId(userId, pageable)
+                : transactionRepository.findSliceByUserId(userId, pageable);
         return transactions.map(this::mapToResponse);
     }
     
     @Override
     //Filtra por tipo (INGRESO o GASTO)
-    public Page<TransactionResponse> getTransactionsByType(Long userId, TransactionType type, 
-                                                           Pageable pageable) {
-        Page<Transaction> transactions = transactionRepository.findByUserIdAndType(
-                userId, type, pageable);
+    public Slice<TransactionResponse> getTransactionsByType(Long userId, TransactionType type, 
+                                                            Pageable pageable, boolean withCount) {
+        Slice<Transaction> transactions = withCount
+                ? transactionRepository.findByUserIdAndType(userId, type, pageable)
+                : transactionRepository.findSliceByUserIdAndType(userId, type, pageable);
         return transactions.map(this::mapToResponse);
     }
     
     @Override
     //Filtra entre dos fechas(startDate - endDate)
-    public Page<TransactionResponse> getTransactionsByDateRange(Long userId, LocalDate startDate, 
-                                                                LocalDate endDate, Pageable pageable) {
-        Page<Transaction> transactions = transactionRepository.findByUserIdAndTransactionDateBetween(
-                userId, startDate, endDate, pageable);
+    public Slice<TransactionResponse> getTransactionsByDateRange(Long userId, LocalDate startDate, 
+                                                                 LocalDate endDate, Pageable pageable,
+                                                                 boolean withCount) {
+        Slice<Transaction> transactions = withCount
+                ? transactionRepository.findByUserIdAndTransactionDateBetween(userId, startDate, endDate, pageable)
+                : transactionRepository.findSliceByUserIdAndTransactionDateBetween(
+                        userId, startDate, endDate, pageable);
         return transactions.map(this::mapToResponse);
     }
     
     @Override
     //Filtra por categoría.
-    public Page<TransactionResponse> getTransactionsByCategory(Long userId, Long categoryId, 
-                                                               Pageable pageable) {
-        Page<Transaction> transactions = transactionRepository.findByUserIdAndCategoryId(
-                userId, categoryId, pageable);
+    public Slice<TransactionResponse> getTransactionsByCategory(Long userId, Long categoryId, 
+                                                                Pageable pageable, boolean withCount) {
+        Slice<Transaction> transactions = withCount
+                ? transactionRepository.findByUserIdAndCategoryId(userId, categoryId, pageable)
+                : transactionRepository.findSliceByUserIdAndCategoryId(userId, categoryId, pageable);
         return transactions.map(this::mapToResponse);
     }
     
+    @Override
+    //Paginación por cursor: la página siguiente empieza después de la última transacción entregada
+    public TransactionScrollResponse scrollTransactions(Long userId, String cursor, int size) {
+        TransactionCursor position = TransactionCursor.decode(cursor);
+        return toScrollResponse(transactionRepository.findPageBefore(
+                userId, position.transactionDate(), position.id(), Limit.of(size + 1)), size);
+    }
+    
+    @Override
+    public TransactionScrollResponse scrollTransactionsByType(Long userId, TransactionType type,
+                                                              String cursor, int size) {
+        TransactionCursor position = TransactionCursor.decode(cursor);
+        return toScrollResponse(transactionRepository.findPageByTypeBefore(
+                userId, type, position.transactionDate(), position.id(), Limit.of(size + 1)), size);
+    }
+    
+    @Override
+    public TransactionScrollResponse scrollTransactionsByDateRange(Long userId, LocalDate startDate,
+                                                                   LocalDate endDate, String cursor, int size) {
+        TransactionCursor position = TransactionCursor.decode(cursor);
+        return toScrollResponse(transactionRepository.findPageByDateRangeBefore(
+                userId, startDate, endDate, position.transactionDate(), position.id(), Limit.of(size + 1)), size);
+    }
+    
+    @Override
+    public TransactionScrollResponse scrollTransactionsByCategory(Long userId, Long categoryId,
+                                                                  String cursor, int size) {
+        TransactionCursor position = TransactionCursor.decode(cursor);
+        return toScrollResponse(transactionRepository.findPageByCategoryBefore(
+                userId, categoryId, position.transactionDate(), position.id(), Limit.of(size + 1)), size);
+    }
+    
+    //Se pide una fila de más: si llega, hay página siguiente y el cursor apunta a la última entregada
+    private TransactionScrollResponse toScrollResponse(List<Transaction> rows, int size) {
+        boolean hasNext = rows.size() > size;
+        List<Transaction> page = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = hasNext ? TransactionCursor.after(page.get(page.size() - 1)).encode() : null;
+        return new TransactionScrollResponse(
+                page.stream().map(this::mapToResponse).toList(), page.size(), hasNext, nextCursor);
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    //Recorre las transacciones del rango fila por fila y entrega cada una al consumer
+    //Cada entidad se desacopla del contexto después de procesarla, así la memoria no crece con el resultado
+    public void streamTransactionsByDateRange(Long userId, LocalDate startDate, LocalDate endDate,
+                                              Consumer<TransactionResponse> consumer) {
+        log.info("Exportando transacciones del usuario {} de {} a {}", userId, startDate, endDate);
+
+        try (Stream<Transaction> transactions = transactionRepository.streamByUserIdAndDateRange(
+                userId, startDate, endDate)) {
+            transactions.forEach(transaction -> {
+                consumer.accept(mapToResponse(transaction));
+                entityManager.detach(transaction);
+            });
+        }
+    }
+    
     @Override
     //Calcula el balance general del usuario en un rango de fechas
     public BalanceResponse getBalance(Long userId, LocalDate startDate, LocalDate endDate) {
         log.info("Cálculo del saldo para el usuario {} de {} a {}", userId, startDate, endDate);
 
-        //Calcular totales de ingresos y gastos
-        BigDecimal totalIngresos = transactionRepository.calculateTotalByTypeAndDateRange(
-                userId, TransactionType.INGRESO, startDate, endDate);
-        
-        BigDecimal totalGastos = transactionRepository.calculateTotalByTypeAndDateRange(
-                userId, TransactionType.GASTO, startDate, endDate);
+        //Totales por tipo y categoría desde las sumas acumuladas en memoria (cum[end] - cum[start - 1]);
+        //si el usuario no está disponible, una sola consulta agrupada sobre los totales diarios.
+        //Los subtotales por tipo se suman aquí y los nombres salen del registro de categorías
+        List<Object[]> rows = prefixSumIndex.totalsByCategory(userId, startDate, endDate)
+                .map(totals -> totals.entrySet().stream()
+                        .map(entry -> new Object[]{entry.getKey().type(), entry.getKey().categoryId(), entry.getValue()})
+                        .toList())
+                .orElseGet(() -> rollupRepository.calculateTotalsByTypeAndCategory(userId, startDate, endDate));
 
-        //Calcular balance general
-        BigDecimal balance = totalIngresos.subtract(totalGastos);
-        
-        // Calcular gastos por categoría
-        List<Object[]> gastosData = transactionRepository.calculateTotalByCategory(
-                userId, TransactionType.GASTO, startDate, endDate);
-        
+        BigDecimal totalIngresos = BigDecimal.ZERO;
+        BigDecimal totalGastos = BigDecimal.ZERO;
         Map<String, BigDecimal> gastosPorCategoria = new HashMap<>();
-        for (Object[] data : gastosData) {
-            gastosPorCategoria.put((String) data[0], (BigDecimal) data[1]);
-        }
-        
-        // Calcular ingresos por categoría
-        List<Object[]> ingresosData = transactionRepository.calculateTotalByCategory(
-                userId, TransactionType.INGRESO, startDate, endDate);
-        //Convertir esos resultados en mapas (Map<String, BigDecimal>):
         Map<String, BigDecimal> ingresosPorCategoria = new HashMap<>();
 
-        for (Object[] data : ingresosData) {
-            ingresosPorCategoria.put((String) data[0], (BigDecimal) data[1]);
+        for (Object[] data : rows) {
+            TransactionType type = (TransactionType) data[0];
+            String categoryName = categoryName((Long) data[1]);
+            BigDecimal total = (BigDecimal) data[2];
+
+            if (type == TransactionType.INGRESO) {
+                totalIngresos = totalIngresos.add(total);
+                ingresosPorCategoria.put(categoryName, total);
+            } else {
+                totalGastos = totalGastos.add(total);
+                gastosPorCategoria.put(categoryName, total);
+            }
         }
+
+        //Calcular balance general
+        BigDecimal balance = totalIngresos.subtract(totalGastos);
         //Devuelve un objeto BalanceResponse
         return new BalanceResponse(
                 totalIngresos,
@@ -219,7 +337,12 @@ public class TransactionServiceImpl implements TransactionService {
         log.info("Calculando el importe gastado por el usuario {} - categoría: {} desde {} hasta {}",
                 userId, categoryId, startDate, endDate);
 
-        return transactionRepository.calculateSpentByCategoryAndDateRange(
+        Optional<BigDecimal> indexed = prefixSumIndex.total(
+                userId, TransactionType.GASTO, categoryId, startDate, endDate);
+        if (indexed.isPresent()) {
+            return indexed.get();
+        }
+        return rollupRepository.calculateTotalByCategoryAndDateRange(
                 userId,
                 categoryId,  // Puede ser null (el query lo maneja)
                 TransactionType.GASTO,
@@ -227,18 +350,167 @@ public class TransactionServiceImpl implements TransactionService {
                 endDate
         );
     }
+
+    @Override
+    //Calcula el gasto de varias consultas (categoría, rango) con una sola consulta agrupada
+    //Se piden los totales por categoría y día en el rango que cubre a todas las consultas
+    //y luego cada consulta suma los días y la categoría que le corresponden
+    //Devuelve los montos en el mismo orden en que llegaron las consultas
+    public List<BigDecimal> calculateSpentAmounts(Long userId, List<SpentAmountRequest> requests) {
+        log.info("Calculando {} importes gastados para el usuario {}", requests.size(), userId);
+
+        //Con las sumas acumuladas en memoria cada consulta es cum[end] - cum[start - 1]
+        List<BigDecimal> indexed = new ArrayList<>(requests.size());
+        for (SpentAmountRequest request : requests) {
+            if (request.getStartDate() == null || request.getEndDate() == null) {
+                break; //La validación está en el cálculo sobre el rollup
+            }
+            Optional<BigDecimal> spent = prefixSumIndex.total(userId, TransactionType.GASTO,
+                    request.getCategoryId(), request.getStartDate(), request.getEndDate());
+            if (spent.isEmpty()) {
+                break;
+            }
+            indexed.add(spent.get());
+        }
+        if (indexed.size() == requests.size()) {
+            return indexed;
+        }
+        return calculateSpentAmountsFromRollup(userId, requests);
+    }
+
+    //Calcula el gasto de varias consultas sobre los totales diarios en la base de datos
+    private List<BigDecimal> calculateSpentAmountsFromRollup(Long userId, List<SpentAmountRequest> requests) {
+        if (requests.isEmpty()) {
+            return List.of();
+        }
+
+        LocalDate minStart = null;
+        LocalDate maxEnd = null;
+        for (SpentAmountRequest request : requests) {
+            if (request.getStartDate() == null || request.getEndDate() == null) {
+                throw new BadRequestException("Cada consulta requiere fecha de inicio y fecha de fin.");
+            }
+            if (minStart == null || request.getStartDate().isBefore(minStart)) {
+                minStart = request.getStartDate();
+            }
+            if (maxEnd == null || request.getEndDate().isAfter(maxEnd)) {
+                maxEnd = request.getEndDate();
+            }
+        }
+
+        List<Object[]> rows = rollupRepository.findDailyTotalsByCategory(
+                userId, TransactionType.GASTO, minStart, maxEnd);
+
+        List<BigDecimal> spentAmounts = new ArrayList<>(requests.size());
+        for (SpentAmountRequest request : requests) {
+            BigDecimal spent = BigDecimal.ZERO;
+            for (Object[] data : rows) {
+                Long categoryId = (Long) data[0];
+                LocalDate date = (LocalDate) data[1];
+                if ((request.getCategoryId() == null || request.getCategoryId().equals(categoryId))
+                        && !date.isBefore(request.getStartDate())
+                        && !date.isAfter(request.getEndDate())) {
+                    spent = spent.add((BigDecimal) data[2]);
+                }
+            }
+            spentAmounts.add(spent);
+        }
+        return spentAmounts;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    //Montos gastados junto con los eventos del outbox que ya incluyen, leídos en la misma transacción
+    //Con REPEATABLE READ todas las consultas ven la misma versión de los datos. Un id menor que el último
+    //visible puede pertenecer a una transacción aún sin confirmar, así que por encima de settledEventId
+    //se devuelven los ids incluidos uno a uno en lugar de asumir "todo id <= lastEventId"
+    public SpentSnapshotResponse getSpentSnapshot(Long userId, List<SpentAmountRequest> requests) {
+        //Los montos salen de la base de datos (no de la memoria) para que correspondan a los eventos devueltos
+        Long lastEventId = spentSyncService.getLastEventId();
+        Long settledEventId = spentSyncService.getSettledEventId(lastEventId);
+        List<Long> includedEventIds = spentSyncService.getUserEventIds(userId, settledEventId, lastEventId);
+        List<BigDecimal> amounts = calculateSpentAmountsFromRollup(userId, requests);
+        return new SpentSnapshotResponse(lastEventId, settledEventId, includedEventIds, amounts);
+    }
+
+    @Override
+    //Totales por día y tipo calculados en la base de datos (en lugar de enviar cada transacción)
+    public List<DailyTotalResponse> getDailyTotals(Long userId, LocalDate startDate, LocalDate endDate) {
+        log.info("Calculando la serie diaria del usuario {} de {} a {}", userId, startDate, endDate);
+
+        List<Object[]> rows = rollupRepository.calculateDailyTotalsByType(userId, startDate, endDate);
+
+        List<DailyTotalResponse> dailyTotals = new ArrayList<>(rows.size());
+        for (Object[] data : rows) {
+            dailyTotals.add(new DailyTotalResponse(
+                    (LocalDate) data[0],
+                    (TransactionType) data[1],
+                    ((Number) data[2]).longValue(),
+                    (BigDecimal) data[3]
+            ));
+        }
+        return dailyTotals;
+    }
+
+    @Override
+    //Totales por mes y categoría en una sola consulta agrupada (en lugar de un balance por mes)
+    public List<MonthlyTrendResponse> getMonthlyTrend(Long userId, LocalDate startDate, LocalDate endDate,
+                                                      TransactionType type) {
+        log.info("Calculando la tendencia mensual del usuario {} de {} a {} (tipo: {})",
+                userId, startDate, endDate, type);
+
+        List<Object[]> rows = rollupRepository.calculateMonthlyTotalsByCategory(
+                userId, type, startDate, endDate);
+
+        List<MonthlyTrendResponse> trend = new ArrayList<>(rows.size());
+        for (Object[] data : rows) {
+            trend.add(new MonthlyTrendResponse(
+                    ((Number) data[0]).intValue(),
+                    ((Number) data[1]).intValue(),
+                    (String) data[2],
+                    (TransactionType) data[3],
+                    (BigDecimal) data[4]
+            ));
+        }
+        return trend;
+    }
+
+    @Override
+    //Cantidad de transacciones de una categoría en el rango, desde los contadores del rollup (sin leer transacciones)
+    public long countTransactionsByCategory(Long userId, String categoryName, TransactionType type,
+                                            LocalDate startDate, LocalDate endDate) {
+        log.info("Contando transacciones de '{}' del usuario {} de {} a {} (tipo: {})",
+                categoryName, userId, startDate, endDate, type);
+
+        return rollupRepository.countByCategoryNameAndDateRange(userId, categoryName, type, startDate, endDate);
+    }
+    
+    //Nombre de la categoría desde el registro (si no está, por ejemplo recién creada, desde la base de datos)
+    private String categoryName(Long categoryId) {
+        return categoryRegistry.findById(categoryId)
+                .map(CategoryDTO::getName)
+                .orElseGet(() -> categoryRepository.findById(categoryId)
+                        .map(Category::getName)
+                        .orElse(String.valueOf(categoryId)));
+    }
+    
+    //Valida la categoría con el registro en memoria y devuelve una referencia para asignarla
+    //(getReferenceById no consulta la base de datos; solo se usa su id al guardar)
+    private Category resolveCategory(TransactionRequest request) {
+        CategoryDTO category = categoryRegistry.getById(request.getCategoryId());
+        
+        if (!category.getType().equals(request.getType())) {
+            throw new BadRequestException("El tipo de categoría no coincide con el tipo de transacción.");
+        }
+        return categoryRepository.getReferenceById(category.getId());
+    }
     
     private TransactionResponse mapToResponse(Transaction transaction) {
         //Convierte una entidad Transaction en un DTO TransactionResponse para devolver al cliente.
-        CategoryDTO categoryDTO = new CategoryDTO(
-                transaction.getCategory().getId(),
-                transaction.getCategory().getName(),
-                transaction.getCategory().getDescription(),
-                transaction.getCategory().getType(),
-                transaction.getCategory().getIconName(),
-                transaction.getCategory().getColorHex(),
-                transaction.getCategory().getIsDefault()
-        );
+        //La categoría sale del registro: leer el id del proxy LAZY no lo inicializa, así no hay un SELECT por fila
+        Long categoryId = transaction.getCategory().getId();
+        CategoryDTO categoryDTO = categoryRegistry.findById(categoryId)
+                .orElseGet(() -> CategoryRegistry.toDTO(transaction.getCategory()));
         
         return new TransactionResponse(
                 transaction.getId(),
@@ -0,0 +1,75 @@
+package com.arturo.transactionservice.service.impl;
+
+import com.arturo.transactionservice.dto.response.UserChangeResponse;
+import com.arturo.transactionservice.entity.UserChangeEvent;
+import com.arturo.transactionservice.repository.UserChangeEventRepository;
+import com.arturo.transactionservice.service.UserChangeService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UserChangeServiceImpl implements UserChangeService {
+
+    private final UserChangeEventRepository userChangeEventRepository;
+    //Cambios por usuario que lee report-service para invalidar su caché
+
+    @Value("${transaction.user-changes.retention-hours:24}")
+    private int retentionHours;
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    //Registra que cambiaron los datos del usuario; debe llamarse dentro de la transacción que los modifica
+    public void recordChange(Long userId) {
+        UserChangeEvent event = new UserChangeEvent();
+        event.setUserId(userId);
+        userChangeEventRepository.save(event);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    //Un solo cambio por usuario aunque el lote tenga muchas transacciones suyas
+    public void recordChanges(Collection<Long> userIds) {
+        new LinkedHashSet<>(userIds).forEach(this::recordChange);
+    }
+
+    @Override
+    //Último id de cambio; un consumidor nuevo empieza desde aquí
+    public Long getLastChangeId() {
+        return userChangeEventRepository.findLastEventId();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    //Cambios posteriores al último id procesado por el consumidor
+    public List<UserChangeResponse> getChangesAfter(Long afterId, int limit) {
+        return userChangeEventRepository.findByIdGreaterThanOrderByIdAsc(afterId, PageRequest.of(0, limit)).stream()
+                .map(event -> new UserChangeResponse(event.getId(), event.getUserId()))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional
+    @Scheduled(cron = "${transaction.user-changes.purge-cron:0 45 3 * * *}")
+    //Elimina periódicamente los cambios más antiguos que el período de retención
+    public int purgeOldChanges() {
+        int deleted = userChangeEventRepository.deleteCreatedBefore(LocalDateTime.now().minusHours(retentionHours));
+        if (deleted > 0) {
+            log.info("Cambios de usuario eliminados: {}", deleted);
+        }
+        return deleted;
+    }
+}
@@ -0,0 +1,8 @@
+-- Posición confirmada por cada consumidor del outbox de gasto: los eventos con id mayor todavía pueden
+-- releerse (ventana de confirmaciones tardías), así que la purga no pasa de este id
+CREATE TABLE outbox_consumers (
+    name            VARCHAR(50) NOT NULL,
+    acknowledged_id BIGINT      NOT NULL,
+    updated_at      DATETIME(6) NOT NULL,
+    PRIMARY KEY (name)
+) ENGINE = InnoDB;
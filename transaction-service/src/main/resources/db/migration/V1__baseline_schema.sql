@@ -0,0 +1,34 @@
+-- Esquema inicial de transaction_db (equivalente a lo que generaba ddl-auto: update)
+
+CREATE TABLE IF NOT EXISTS categories (
+    id          BIGINT       NOT NULL AUTO_INCREMENT,
+    name        VARCHAR(100) NOT NULL,
+    description VARCHAR(500),
+    type        ENUM('INGRESO','GASTO') NOT NULL,
+    icon_name   VARCHAR(50),
+    color_hex   VARCHAR(50),
+    is_default  BIT,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_categories_name UNIQUE (name)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS transactions (
+    id                  BIGINT         NOT NULL AUTO_INCREMENT,
+    user_id             BIGINT         NOT NULL,
+    category_id         BIGINT         NOT NULL,
+    type                ENUM('INGRESO','GASTO') NOT NULL,
+    amount              DECIMAL(10, 2) NOT NULL,
+    transaction_date    DATE           NOT NULL,
+    description         VARCHAR(500),
+    receipt_url         VARCHAR(255),
+    is_recurring        BIT,
+    recurring_frequency ENUM('DAILY','WEEKLY','MONTHLY','YEARLY'),
+    created_at          DATETIME(6)    NOT NULL,
+    updated_at          DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_transactions_category FOREIGN KEY (category_id) REFERENCES categories (id),
+    INDEX idx_user_id (user_id),
+    INDEX idx_transaction_date (transaction_date),
+    INDEX idx_type (type),
+    INDEX idx_user_date (user_id, transaction_date)
+) ENGINE = InnoDB;
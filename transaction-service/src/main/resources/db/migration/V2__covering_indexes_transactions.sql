@@ -0,0 +1,19 @@
+-- Índices compuestos que cubren las consultas de agregación (SUM(amount)) sin volver a la tabla
+
+-- calculateTotalByTypeAndDateRange / calculateSpentByCategoryAndDateRange sin categoría:
+-- igualdad en user_id y type, rango en transaction_date; category_id y amount se leen del índice
+CREATE INDEX idx_user_type_date_cat_amount
+    ON transactions (user_id, type, transaction_date, category_id, amount);
+
+-- calculateSpentByCategoryAndDateRange con categoría (presupuestos) y calculateTotalByCategory:
+-- igualdad en user_id, category_id y type, rango en transaction_date
+CREATE INDEX idx_user_cat_type_date
+    ON transactions (user_id, category_id, type, transaction_date, amount);
+
+-- Balance (GROUP BY type, categoría WITH ROLLUP), serie diaria y tendencia mensual:
+-- rango en transaction_date para un usuario; type, category_id y amount se leen del índice.
+-- Reemplaza a idx_user_date, que es un prefijo de este índice.
+CREATE INDEX idx_user_date_type_cat_amount
+    ON transactions (user_id, transaction_date, type, category_id, amount);
+
+DROP INDEX idx_user_date ON transactions;
@@ -0,0 +1,14 @@
+-- Outbox de cambios de gasto: se escribe en la misma transacción que crea, actualiza o elimina
+-- un GASTO y budget-service lo lee en orden de id para mantener el gasto de cada presupuesto
+CREATE TABLE transaction_outbox (
+    id               BIGINT         NOT NULL AUTO_INCREMENT,
+    user_id          BIGINT         NOT NULL,
+    category_id      BIGINT         NOT NULL,
+    transaction_date DATE           NOT NULL,
+    amount_delta     DECIMAL(12, 2) NOT NULL,
+    created_at       DATETIME(6)    NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+-- Limpieza de eventos antiguos por fecha de creación
+CREATE INDEX idx_outbox_created_at ON transaction_outbox (created_at);
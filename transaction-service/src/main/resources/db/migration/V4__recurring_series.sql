@@ -0,0 +1,51 @@
+-- Materialización de transacciones recurrentes
+-- Una transacción con is_recurring = 1 es el origen de una serie; las ocurrencias generadas son
+-- transacciones normales con recurrence_source_id = id del origen.
+-- next_occurrence_date es la marca de agua de la serie: todas las ocurrencias anteriores ya existen.
+-- occurrence_count es cuántas ocurrencias se generaron (la siguiente es transaction_date + (count + 1) períodos).
+ALTER TABLE transactions
+    ADD COLUMN recurrence_source_id BIGINT NULL,
+    ADD COLUMN next_occurrence_date DATE   NULL,
+    ADD COLUMN occurrence_count     INT    NOT NULL DEFAULT 0;
+
+-- Una sola ocurrencia por serie y fecha (protección ante ejecuciones concurrentes)
+CREATE UNIQUE INDEX uk_recurrence_source_date ON transactions (recurrence_source_id, transaction_date);
+
+-- Series pendientes recorridas en orden (next_occurrence_date, id); NULL en las transacciones normales
+CREATE INDEX idx_next_occurrence ON transactions (next_occurrence_date, id);
+
+-- Series existentes: se anclan en su próxima ocurrencia FUTURA, igual que RecurringTransactionServiceImpl.rescheduleSeries
+-- (las fechas pasadas no se rellenan; de lo contrario la primera ejecución crearía años de ocurrencias).
+-- occurrence_count = ocurrencias ya vencidas (transaction_date + n períodos <= hoy)
+UPDATE transactions
+SET occurrence_count = GREATEST(CASE recurring_frequency
+        WHEN 'DAILY' THEN DATEDIFF(CURDATE(), transaction_date)
+        WHEN 'WEEKLY' THEN FLOOR(DATEDIFF(CURDATE(), transaction_date) / 7)
+        WHEN 'MONTHLY' THEN TIMESTAMPDIFF(MONTH, transaction_date, CURDATE())
+        WHEN 'YEARLY' THEN TIMESTAMPDIFF(YEAR, transaction_date, CURDATE())
+    END, 0)
+WHERE is_recurring = 1
+  AND recurring_frequency IS NOT NULL;
+
+UPDATE transactions
+SET next_occurrence_date = CASE recurring_frequency
+        WHEN 'DAILY' THEN DATE_ADD(transaction_date, INTERVAL occurrence_count + 1 DAY)
+        WHEN 'WEEKLY' THEN DATE_ADD(transaction_date, INTERVAL occurrence_count + 1 WEEK)
+        WHEN 'MONTHLY' THEN DATE_ADD(transaction_date, INTERVAL occurrence_count + 1 MONTH)
+        WHEN 'YEARLY' THEN DATE_ADD(transaction_date, INTERVAL occurrence_count + 1 YEAR)
+    END
+WHERE is_recurring = 1
+  AND recurring_frequency IS NOT NULL;
+
+-- Fin de mes (31 de enero + 1 mes = 28 de febrero) o 29 de febrero: TIMESTAMPDIFF no cuenta esa ocurrencia
+-- recortada aunque ya venció. Se avanza un período más (MySQL evalúa el SET de izquierda a derecha,
+-- así que next_occurrence_date usa el occurrence_count ya incrementado)
+UPDATE transactions
+SET occurrence_count = occurrence_count + 1,
+    next_occurrence_date = CASE recurring_frequency
+        WHEN 'MONTHLY' THEN DATE_ADD(transaction_date, INTERVAL occurrence_count + 1 MONTH)
+        WHEN 'YEARLY' THEN DATE_ADD(transaction_date, INTERVAL occurrence_count + 1 YEAR)
+    END
+WHERE is_recurring = 1
+  AND recurring_frequency IN ('MONTHLY', 'YEARLY')
+  AND next_occurrence_date <= CURDATE();
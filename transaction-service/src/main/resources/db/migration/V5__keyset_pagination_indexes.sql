@@ -0,0 +1,12 @@
+-- Índices para la paginación por cursor (keyset) sobre (transaction_date, id), del más reciente al más antiguo
+-- Con el id explícito al final del índice, "ORDER BY transaction_date DESC, id DESC LIMIT n" se resuelve
+-- recorriendo el índice desde la posición del cursor, sin OFFSET, sin COUNT y sin filesort
+
+-- GET /transactions y /transactions/date-range
+CREATE INDEX idx_user_date_id ON transactions (user_id, transaction_date, id);
+
+-- GET /transactions/type/{type}
+CREATE INDEX idx_user_type_date_id ON transactions (user_id, type, transaction_date, id);
+
+-- GET /transactions/category/{categoryId}
+CREATE INDEX idx_user_cat_date_id ON transactions (user_id, category_id, transaction_date, id);
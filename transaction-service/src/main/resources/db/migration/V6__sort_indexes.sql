@@ -0,0 +1,4 @@
+-- Orden por monto en GET /transactions (sortBy=amount): el índice entrega las filas ya ordenadas,
+-- sin filesort sobre todo el historial del usuario
+-- El orden por fecha usa idx_user_date_id y el orden por categoría idx_user_cat_date_id (V5)
+CREATE INDEX idx_user_amount_id ON transactions (user_id, amount, id);
@@ -0,0 +1,22 @@
+-- Totales diarios pre-agregados por usuario, día, tipo y categoría
+-- Se actualizan en la misma transacción que crea, actualiza o elimina una transacción;
+-- balances, gastos y series leen esta tabla (una fila por día y categoría) en lugar de sumar transacciones
+CREATE TABLE IF NOT EXISTS transaction_daily_rollup (
+    user_id           BIGINT         NOT NULL,
+    day               DATE           NOT NULL,
+    type              ENUM('INGRESO','GASTO') NOT NULL,
+    category_id       BIGINT         NOT NULL,
+    total             DECIMAL(15, 2) NOT NULL,
+    transaction_count BIGINT         NOT NULL,
+    PRIMARY KEY (user_id, day, type, category_id)
+) ENGINE = InnoDB;
+
+-- Gasto por categoría (presupuestos): igualdad en user_id, category_id y type, rango en day
+CREATE INDEX idx_rollup_user_cat_type_day
+    ON transaction_daily_rollup (user_id, category_id, type, day, total);
+
+-- Carga inicial desde las transacciones existentes
+INSERT INTO transaction_daily_rollup (user_id, day, type, category_id, total, transaction_count)
+SELECT user_id, transaction_date, type, category_id, SUM(amount), COUNT(*)
+FROM transactions
+GROUP BY user_id, transaction_date, type, category_id;
@@ -0,0 +1,11 @@
+-- Cambios en los datos de cada usuario: se escribe en la misma transacción que crea, actualiza o elimina
+-- transacciones; report-service lo lee en orden de id para invalidar los reportes en caché de ese usuario
+CREATE TABLE user_change_events (
+    id         BIGINT      NOT NULL AUTO_INCREMENT,
+    user_id    BIGINT      NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+-- Limpieza de eventos antiguos por fecha de creación
+CREATE INDEX idx_user_change_created_at ON user_change_events (created_at);
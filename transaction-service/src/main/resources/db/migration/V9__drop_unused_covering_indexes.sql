@@ -0,0 +1,8 @@
+-- Índices de V2 que ya no usa ninguna consulta: los totales (balance, serie diaria, tendencia, gasto de
+-- presupuestos) se leen de transaction_daily_rollup (V7) y no de transactions.
+-- Cada uno se mantenía en todos los INSERT/UPDATE/DELETE de transacciones.
+-- La reconstrucción del rollup (GROUP BY por usuario y día) recorre idx_user_date_id (V5); es un proceso
+-- por lotes poco frecuente y no justifica un índice de cinco columnas.
+DROP INDEX idx_user_type_date_cat_amount ON transactions;
+DROP INDEX idx_user_cat_type_date ON transactions;
+DROP INDEX idx_user_date_type_cat_amount ON transactions;
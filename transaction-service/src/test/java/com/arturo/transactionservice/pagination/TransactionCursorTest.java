@@ -0,0 +1,65 @@
+package com.arturo.transactionservice.pagination;
+
+import com.arturo.transactionservice.entity.Transaction;
+import com.arturo.transactionservice.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+//Token opaco de la paginación por cursor
+class TransactionCursorTest {
+
+    @Test
+    void roundTripsThroughToken() {
+        TransactionCursor cursor = new TransactionCursor(LocalDate.of(2026, 2, 28), 12345L);
+
+        String token = cursor.encode();
+
+        assertThat(token).doesNotContain("=", "+", "/");
+        assertThat(TransactionCursor.decode(token)).isEqualTo(cursor);
+    }
+
+    @Test
+    void startsAfterLastDeliveredTransaction() {
+        Transaction transaction = new Transaction();
+        transaction.setId(42L);
+        transaction.setTransactionDate(LocalDate.of(2026, 1, 31));
+
+        assertThat(TransactionCursor.after(transaction))
+                .isEqualTo(new TransactionCursor(LocalDate.of(2026, 1, 31), 42L));
+    }
+
+    @Test
+    void missingTokenIsFirstPage() {
+        assertThat(TransactionCursor.decode(null)).isEqualTo(TransactionCursor.FIRST);
+        assertThat(TransactionCursor.decode("")).isEqualTo(TransactionCursor.FIRST);
+        assertThat(TransactionCursor.decode("  ")).isEqualTo(TransactionCursor.FIRST);
+    }
+
+    @Test
+    void firstPageIsAfterAnyTransaction() {
+        assertThat(TransactionCursor.FIRST.transactionDate()).isAfter(LocalDate.of(2999, 12, 31));
+        assertThat(TransactionCursor.FIRST.id()).isEqualTo(Long.MAX_VALUE);
+    }
+
+    @Test
+    void rejectsMalformedTokens() {
+        assertThatThrownBy(() -> TransactionCursor.decode("%%%"))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> TransactionCursor.decode(token("2026-01-31")))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> TransactionCursor.decode(token("2026-02-30:5")))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> TransactionCursor.decode(token("2026-01-31:abc")))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    private String token(String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,51 @@
+package com.arturo.transactionservice.pagination;
+
+import com.arturo.transactionservice.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+//Traducción de sortBy/sortDir a un orden con índice y desempate por id
+class TransactionSortTest {
+
+    @Test
+    void dateAliasesResolveToSameSort() {
+        Sort expected = Sort.by(Sort.Direction.DESC, "transactionDate").and(Sort.by(Sort.Direction.DESC, "id"));
+
+        assertThat(TransactionSort.resolve("date", "DESC")).isEqualTo(expected);
+        assertThat(TransactionSort.resolve("transactionDate", "desc")).isEqualTo(expected);
+        assertThat(TransactionSort.resolve("TRANSACTIONDATE", "Desc")).isEqualTo(expected);
+    }
+
+    @Test
+    void amountEndsWithId() {
+        assertThat(TransactionSort.resolve("amount", "ASC"))
+                .isEqualTo(Sort.by(Sort.Direction.ASC, "amount").and(Sort.by(Sort.Direction.ASC, "id")));
+    }
+
+    @Test
+    void categoryOrdersByCategoryThenDateThenId() {
+        assertThat(TransactionSort.resolve("category", "DESC"))
+                .isEqualTo(Sort.by(Sort.Direction.DESC, "category.id", "transactionDate")
+                        .and(Sort.by(Sort.Direction.DESC, "id")));
+    }
+
+    @Test
+    void rejectsUnknownField() {
+        assertThatThrownBy(() -> TransactionSort.resolve("description", "ASC"))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("description")
+                .hasMessageContaining("date, transactionDate, amount, category");
+    }
+
+    @Test
+    void rejectsUnknownDirection() {
+        assertThatThrownBy(() -> TransactionSort.resolve("amount", "UP"))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("ASC, DESC");
+        assertThatThrownBy(() -> TransactionSort.resolve("amount", null))
+                .isInstanceOf(BadRequestException.class);
+    }
+}
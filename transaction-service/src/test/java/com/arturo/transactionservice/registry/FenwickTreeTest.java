@@ -0,0 +1,75 @@
+package com.arturo.transactionservice.registry;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FenwickTreeTest {
+
+    @Test
+    void emptyTreeSumsToZero() {
+        FenwickTree tree = new FenwickTree(10);
+
+        assertThat(tree.size()).isEqualTo(10);
+        assertThat(tree.prefix(9)).isZero();
+        assertThat(tree.range(0, 9)).isZero();
+    }
+
+    @Test
+    void prefixBeforeFirstPositionIsZero() {
+        FenwickTree tree = new FenwickTree(5);
+        tree.add(0, 700);
+
+        assertThat(tree.prefix(-1)).isZero();
+        assertThat(tree.prefix(0)).isEqualTo(700);
+    }
+
+    @Test
+    void prefixBeyondLastPositionIsClampedToTheWholeTree() {
+        FenwickTree tree = new FenwickTree(5);
+        tree.add(4, 300);
+
+        assertThat(tree.prefix(100)).isEqualTo(300);
+    }
+
+    @Test
+    void invertedRangeIsZero() {
+        FenwickTree tree = new FenwickTree(5);
+        tree.add(2, 100);
+
+        assertThat(tree.range(3, 2)).isZero();
+    }
+
+    @Test
+    void negativeDeltasCancelOut() {
+        FenwickTree tree = new FenwickTree(8);
+        tree.add(3, 1250);
+        tree.add(3, -1250);
+
+        assertThat(tree.range(0, 7)).isZero();
+    }
+
+    @Test
+    void rangesMatchNaiveSums() {
+        int size = 97;
+        long[] values = new long[size];
+        FenwickTree tree = new FenwickTree(size);
+        Random random = new Random(42);
+        for (int i = 0; i < 1000; i++) {
+            int index = random.nextInt(size);
+            long delta = random.nextInt(20001) - 10000;
+            values[index] += delta;
+            tree.add(index, delta);
+        }
+
+        for (int from = 0; from < size; from++) {
+            long expected = 0;
+            for (int to = from; to < size; to++) {
+                expected += values[to];
+                assertThat(tree.range(from, to)).as("range(%d, %d)", from, to).isEqualTo(expected);
+            }
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.arturo.transactionservice.registry;
+
+import com.arturo.transactionservice.enums.TransactionType;
+import com.arturo.transactionservice.repository.TransactionDailyRollupRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+//Carga desde el rollup frente a los deltas que llegan al confirmar cada transacción
+class PrefixSumIndexTest {
+
+    private static final Long USER_ID = 7L;
+    private static final Long CATEGORY_ID = 3L;
+    private static final LocalDate DAY = LocalDate.now().minusDays(3);
+
+    private TransactionDailyRollupRepository rollupRepository;
+    private PrefixSumIndex index;
+
+    @BeforeEach
+    void setUp() {
+        rollupRepository = mock(TransactionDailyRollupRepository.class);
+        index = new PrefixSumIndex(rollupRepository);
+        ReflectionTestUtils.setField(index, "enabled", true);
+        ReflectionTestUtils.setField(index, "maxUsers", 10);
+        ReflectionTestUtils.setField(index, "maxCells", 1_000_000L);
+        ReflectionTestUtils.setField(index, "ttlMs", 60_000L);
+        ReflectionTestUtils.setField(index, "futureDays", 10);
+    }
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void loadsTotalsFromRollup() {
+        when(rollupRepository.findUserTotals(USER_ID)).thenReturn(rows("100.00"));
+
+        assertThat(spent()).contains(new BigDecimal("100.00"));
+    }
+
+    @Test
+    void appliesDeltaCommittedAfterLoad() {
+        when(rollupRepository.findUserTotals(USER_ID)).thenReturn(rows("100.00"));
+        assertThat(spent()).contains(new BigDecimal("100.00"));
+
+        List<TransactionSynchronization> synchronizations = applyInTransaction("10.00");
+        complete(synchronizations, TransactionSynchronization.STATUS_COMMITTED);
+
+        assertThat(spent()).contains(new BigDecimal("110.00"));
+    }
+
+    @Test
+    void discardsLoadWhileDeltaIsInFlight() {
+        // El rollup ya incluye el delta (la transacción confirmó) pero afterCompletion todavía no llegó
+        List<TransactionSynchronization> synchronizations = applyInTransaction("10.00");
+        when(rollupRepository.findUserTotals(USER_ID)).thenReturn(rows("110.00"));
+
+        assertThat(spent()).isEmpty();
+
+        complete(synchronizations, TransactionSynchronization.STATUS_COMMITTED);
+
+        // Sin la protección el delta se sumaría otra vez sobre la carga (120.00)
+        assertThat(spent()).contains(new BigDecimal("110.00"));
+    }
+
+    @Test
+    void discardsLoadWhenDeltaCommitsDuringRead() {
+        List<TransactionSynchronization> synchronizations = applyInTransaction("10.00");
+        when(rollupRepository.findUserTotals(USER_ID))
+                .thenAnswer(invocation -> {
+                    complete(synchronizations, TransactionSynchronization.STATUS_COMMITTED);
+                    return rows("110.00");
+                })
+                .thenReturn(rows("110.00"));
+
+        assertThat(spent()).isEmpty();
+        assertThat(spent()).contains(new BigDecimal("110.00"));
+        verify(rollupRepository, times(2)).findUserTotals(USER_ID);
+    }
+
+    @Test
+    void rolledBackDeltaIsNotAppliedAndReleasesTheUser() {
+        when(rollupRepository.findUserTotals(USER_ID)).thenReturn(rows("100.00"));
+        assertThat(spent()).contains(new BigDecimal("100.00"));
+
+        List<TransactionSynchronization> synchronizations = applyInTransaction("10.00");
+        complete(synchronizations, TransactionSynchronization.STATUS_ROLLED_BACK);
+        assertThat(spent()).contains(new BigDecimal("100.00"));
+
+        // El usuario ya no tiene deltas en curso: una carga nueva se publica
+        index.evict(USER_ID);
+        assertThat(spent()).contains(new BigDecimal("100.00"));
+        verify(rollupRepository, times(2)).findUserTotals(USER_ID);
+    }
+
+    @Test
+    void userThatDoesNotFitInMemoryFallsBackToRollup() {
+        ReflectionTestUtils.setField(index, "maxCells", 1L);
+        when(rollupRepository.findUserTotals(USER_ID)).thenReturn(rows("100.00"));
+
+        assertThat(spent()).isEmpty();
+    }
+
+    @Test
+    void disabledIndexNeverLoads() {
+        ReflectionTestUtils.setField(index, "enabled", false);
+
+        assertThat(spent()).isEmpty();
+        verify(rollupRepository, never()).findUserTotals(USER_ID);
+    }
+
+    private Optional<BigDecimal> spent() {
+        return index.total(USER_ID, TransactionType.GASTO, CATEGORY_ID, DAY, DAY);
+    }
+
+    // Registra el delta como lo hace DailyRollupServiceImpl dentro de una transacción y devuelve sus callbacks
+    private List<TransactionSynchronization> applyInTransaction(String delta) {
+        TransactionSynchronizationManager.initSynchronization();
+        index.applyAfterCommit(USER_ID, DAY, TransactionType.GASTO, CATEGORY_ID, new BigDecimal(delta));
+        List<TransactionSynchronization> synchronizations =
+                new ArrayList<>(TransactionSynchronizationManager.getSynchronizations());
+        TransactionSynchronizationManager.clearSynchronization();
+        return synchronizations;
+    }
+
+    private static void complete(List<TransactionSynchronization> synchronizations, int status) {
+        if (status == TransactionSynchronization.STATUS_COMMITTED) {
+            synchronizations.forEach(TransactionSynchronization::afterCommit);
+        }
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+    }
+
+    private static List<Object[]> rows(String total) {
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[]{DAY, TransactionType.GASTO, CATEGORY_ID, new BigDecimal(total)});
+        return rows;
+    }
+}
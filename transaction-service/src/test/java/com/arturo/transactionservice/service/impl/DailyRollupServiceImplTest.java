@@ -0,0 +1,63 @@
+package com.arturo.transactionservice.service.impl;
+
+import com.arturo.transactionservice.registry.PrefixSumIndex;
+import com.arturo.transactionservice.repository.TransactionBatchRepository;
+import com.arturo.transactionservice.repository.TransactionDailyRollupRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+//Selección de usuarios de la reconstrucción: mezcla de las dos tablas paginadas por separado
+class DailyRollupServiceImplTest {
+
+    private TransactionDailyRollupRepository rollupRepository;
+    private PrefixSumIndex prefixSumIndex;
+    private DailyRollupServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        rollupRepository = mock(TransactionDailyRollupRepository.class);
+        prefixSumIndex = mock(PrefixSumIndex.class);
+        service = new DailyRollupServiceImpl(rollupRepository, mock(TransactionBatchRepository.class), prefixSumIndex);
+    }
+
+    @Test
+    void mergesBothTablesWithoutDuplicates() {
+        when(rollupRepository.findTransactionUserIdsAfter(10L, 4)).thenReturn(List.of(11L, 13L, 15L, 17L));
+        when(rollupRepository.findRollupUserIdsAfter(10L, 4)).thenReturn(List.of(12L, 13L, 14L, 15L));
+
+        Long last = service.rebuildChunk(10L, 4);
+
+        assertThat(last).isEqualTo(14L);
+        verify(rollupRepository).deleteByUserIds(List.of(11L, 12L, 13L, 14L));
+        verify(rollupRepository).rebuildByUserIds(List.of(11L, 12L, 13L, 14L));
+        verify(prefixSumIndex).evictAfterCommit(List.of(11L, 12L, 13L, 14L));
+    }
+
+    @Test
+    void includesUsersOnlyInRollup() {
+        // Usuario 20 ya no tiene transacciones: sus filas de totales también se borran
+        when(rollupRepository.findTransactionUserIdsAfter(0L, 10)).thenReturn(List.of(5L));
+        when(rollupRepository.findRollupUserIdsAfter(0L, 10)).thenReturn(List.of(5L, 20L));
+
+        assertThat(service.rebuildChunk(0L, 10)).isEqualTo(20L);
+        verify(rollupRepository).deleteByUserIds(List.of(5L, 20L));
+    }
+
+    @Test
+    void returnsNullWhenNoUsersLeft() {
+        when(rollupRepository.findTransactionUserIdsAfter(30L, 10)).thenReturn(List.of());
+        when(rollupRepository.findRollupUserIdsAfter(30L, 10)).thenReturn(List.of());
+
+        assertThat(service.rebuildChunk(30L, 10)).isNull();
+        verify(rollupRepository, never()).deleteByUserIds(anyList());
+    }
+}
@@ -0,0 +1,119 @@
+package com.arturo.transactionservice.service.impl;
+
+import com.arturo.transactionservice.dto.request.TransactionRequest;
+import com.arturo.transactionservice.enums.RecurringFrequency;
+import com.arturo.transactionservice.enums.TransactionType;
+import com.arturo.transactionservice.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+//Lectura de filas CSV de /transactions/import: separación de campos, cabecera y conversión a TransactionRequest
+class TransactionImportCsvTest {
+
+    private static final String HEADER = "categoryId,type,amount,transactionDate,description,isRecurring,recurringFrequency";
+
+    @Test
+    void splitsPlainFields() {
+        assertThat(TransactionImportServiceImpl.splitCsvLine("1,GASTO,10.50,2026-01-31"))
+                .containsExactly("1", "GASTO", "10.50", "2026-01-31");
+    }
+
+    @Test
+    void keepsEmptyFieldsIncludingTrailing() {
+        assertThat(TransactionImportServiceImpl.splitCsvLine("1,,10,"))
+                .containsExactly("1", "", "10", "");
+    }
+
+    @Test
+    void quotedFieldsKeepCommasAndEscapedQuotes() {
+        assertThat(TransactionImportServiceImpl.splitCsvLine("1,\"Cena, con \"\"amigos\"\"\",3"))
+                .containsExactly("1", "Cena, con \"amigos\"", "3");
+        assertThat(TransactionImportServiceImpl.splitCsvLine("\"\",x"))
+                .containsExactly("", "x");
+    }
+
+    @Test
+    void headerIsCaseInsensitiveAndInAnyOrder() {
+        Map<String, Integer> columns = TransactionImportServiceImpl.parseHeader(" Amount ,TYPE,transactiondate,CategoryId");
+
+        assertThat(columns).containsEntry("amount", 0)
+                .containsEntry("type", 1)
+                .containsEntry("transactiondate", 2)
+                .containsEntry("categoryid", 3);
+    }
+
+    @Test
+    void headerMissingRequiredColumnIsRejected() {
+        assertThatThrownBy(() -> TransactionImportServiceImpl.parseHeader("categoryId,type,amount"))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("transactiondate");
+    }
+
+    @Test
+    void convertsFullRow() {
+        TransactionRequest request = toRequest("3,gasto,12.30,2026-02-28,\"Taxi, aeropuerto\",true,monthly");
+
+        assertThat(request.getCategoryId()).isEqualTo(3L);
+        assertThat(request.getType()).isEqualTo(TransactionType.GASTO);
+        assertThat(request.getAmount()).isEqualByComparingTo("12.30");
+        assertThat(request.getTransactionDate()).isEqualTo(LocalDate.of(2026, 2, 28));
+        assertThat(request.getDescription()).isEqualTo("Taxi, aeropuerto");
+        assertThat(request.getIsRecurring()).isTrue();
+        assertThat(request.getRecurringFrequency()).isEqualTo(RecurringFrequency.MONTHLY);
+    }
+
+    @Test
+    void optionalColumnsMayBeMissingOrEmpty() {
+        Map<String, Integer> columns = TransactionImportServiceImpl.parseHeader("categoryId,type,amount,transactionDate");
+        TransactionRequest request = TransactionImportServiceImpl.toRequest(
+                TransactionImportServiceImpl.splitCsvLine("3,INGRESO, 100 ,2026-01-01"), columns);
+
+        assertThat(request.getAmount()).isEqualByComparingTo("100");
+        assertThat(request.getDescription()).isNull();
+        assertThat(request.getIsRecurring()).isFalse();
+        assertThat(request.getRecurringFrequency()).isNull();
+
+        // Fila más corta que la cabecera: las columnas que faltan quedan vacías
+        TransactionRequest shortRow = toRequest("3,INGRESO,100,2026-01-01");
+        assertThat(shortRow.getDescription()).isNull();
+        assertThat(shortRow.getIsRecurring()).isFalse();
+    }
+
+    @Test
+    void reportsInvalidValues() {
+        assertThatThrownBy(() -> toRequest("abc,GASTO,10,2026-01-01"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Número inválido");
+        assertThatThrownBy(() -> toRequest("1,GASTO,\"10,5\",2026-01-01"))
+                .hasMessageContaining("Número inválido");
+        assertThatThrownBy(() -> toRequest("1,GASTO,10,31/01/2026"))
+                .hasMessageContaining("Fecha inválida");
+        assertThatThrownBy(() -> toRequest("1,GASTO,10,2026-02-30"))
+                .hasMessageContaining("Fecha inválida");
+        assertThatThrownBy(() -> toRequest("1,PAGO,10,2026-01-01"))
+                .hasMessageContaining("Tipo inválido");
+        assertThatThrownBy(() -> toRequest("1,GASTO,10,2026-01-01,,true,CADA_HORA"))
+                .hasMessageContaining("Frecuencia de recurrencia inválida");
+    }
+
+    @Test
+    void missingRequiredValuesAreLeftForValidation() {
+        // Los obligatorios vacíos quedan en null y los rechaza el Validator (@NotNull) con su mensaje
+        TransactionRequest request = toRequest(",,,");
+
+        assertThat(request.getCategoryId()).isNull();
+        assertThat(request.getType()).isNull();
+        assertThat(request.getAmount()).isNull();
+        assertThat(request.getTransactionDate()).isNull();
+    }
+
+    private TransactionRequest toRequest(String line) {
+        return TransactionImportServiceImpl.toRequest(
+                TransactionImportServiceImpl.splitCsvLine(line), TransactionImportServiceImpl.parseHeader(HEADER));
+    }
+}